@@ -0,0 +1,114 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selection cost of AdaptiveMethodSelector against CachingMethodSelector when
+ * argument type tuples follow a Zipfian distribution (a few tuples account for
+ * most calls). Both two- and three-argument calls are measured, since they are
+ * served by different tables. The exponents span flat (1.0), moderately skewed
+ * (1.5) and steep (2.5) distributions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdaptiveGuardBenchmark {
+    private static final int CALLS = 4096;
+
+    @Param({ "1.0", "1.5", "2.5" })
+    public double zipfExponent;
+
+    @Param({ "2", "3" })
+    public int arity;
+
+    private final MethodSelector caching = new CachingMethodSelector(new SimpleMethodSpecificityComparator());
+    private final MethodSelector adaptive = new AdaptiveMethodSelector(new SimpleMethodSpecificityComparator());
+    private Class<?>[] receivers;
+    private Object[][] calls;
+    private int next;
+
+    @Setup
+    public void setup() {
+        DispatchWorkload.Device[] devices = {
+            new DispatchWorkload.Device(), new DispatchWorkload.Screen(), new DispatchWorkload.Printer(), new DispatchWorkload.Plotter()
+        };
+        Object[] shapes = {
+            new DispatchWorkload.Shape(), new DispatchWorkload.Line(), new DispatchWorkload.Circle(),
+            new DispatchWorkload.Square(), new DispatchWorkload.Triangle()
+        };
+        Object[] brushes = {
+            new DispatchWorkload.Brush(), new DispatchWorkload.Pencil(), new DispatchWorkload.Crayon(), new DispatchWorkload.Marker()
+        };
+
+        // every tuple, in a fixed shuffled order of popularity
+        List<Object[]> tuples = new ArrayList<>();
+        for (Object device : devices) {
+            for (Object shape : shapes) {
+                for (Object brush : brushes) {
+                    tuples.add(arity == 2 ? new Object[] { device, shape, brush } : new Object[] { device, shape, brush, brush });
+                }
+            }
+        }
+        Random random = new Random(42);
+        Collections.shuffle(tuples, random);
+
+        double[] cumulative = new double[tuples.size()];
+        double total = 0;
+        for (int rank = 0; rank < tuples.size(); rank++) {
+            total += 1 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = total;
+        }
+
+        receivers = new Class<?>[CALLS];
+        calls = new Object[CALLS][];
+        for (int i = 0; i < CALLS; i++) {
+            double u = random.nextDouble() * total;
+            int rank = 0;
+            while (cumulative[rank] < u) {
+                rank++;
+            }
+
+            Object[] tuple = tuples.get(rank);
+            receivers[i] = tuple[0].getClass();
+            calls[i] = Arrays.copyOfRange(tuple, 1, tuple.length);
+        }
+    }
+
+    @Benchmark
+    public Method cachingSelector() throws NoSuchMethodException {
+        int i = nextCall();
+        return caching.selectMethod(receivers[i], "draw", calls[i]);
+    }
+
+    @Benchmark
+    public Method adaptiveSelector() throws NoSuchMethodException {
+        int i = nextCall();
+        return adaptive.selectMethod(receivers[i], "draw", calls[i]);
+    }
+
+    private int nextCall() {
+        next = (next + 1) & (CALLS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,51 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Warmed-up dispatch calls whose allocation rate is checked by the
+ * jmhAllocation task (run with -prof gc). Argument arrays are built once, so
+ * gc.alloc.rate.norm only counts what dispatch allocates. The allowed bytes per
+ * call are listed next to that task, in build.gradle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+    private final DispatchWorkload.Device device = new DispatchWorkload.Plotter();
+    private final Object[] twoArguments = { new DispatchWorkload.Circle(), new DispatchWorkload.Pencil() };
+    private final Object[] threeArguments = { new DispatchWorkload.Circle(), new DispatchWorkload.Pencil(), new DispatchWorkload.Marker() };
+
+    @Benchmark
+    public Object twoArguments() {
+        return UsingMultipleDispatch.invoke(device, "draw", twoArguments);
+    }
+
+    @Benchmark
+    public Object threeArguments() {
+        return UsingMultipleDispatch.invoke(device, "draw", threeArguments);
+    }
+
+    @Benchmark
+    public Object extendedTwoArguments() {
+        return ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.invoke(device, "draw", twoArguments);
+    }
+
+    @Benchmark
+    public Object unwrappedTwoArguments() {
+        return UsingMultipleDispatch.invokeUnwrapped(device, "draw", twoArguments);
+    }
+}
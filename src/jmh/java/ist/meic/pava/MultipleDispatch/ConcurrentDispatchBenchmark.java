@@ -0,0 +1,73 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency distribution of UsingMultipleDispatch.invoke under
+ * contention, with a mix of hot and cold type tuples.
+ *
+ * Thread scaling is measured by the "scaling" benchmarks (run with several
+ * -t values, e.g. -t 1, -t 4, -t 16); the "mixed" group runs hot and cold
+ * callers side by side. SampleTime mode reports the latency percentiles.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentDispatchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Workload {
+        @Param({ "0", "10", "50" })
+        public int coldPercent;
+
+        public DispatchWorkload workload;
+
+        @Setup
+        public void setup() {
+            workload = new DispatchWorkload(4096, coldPercent, 42);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object scaling(Workload w, Cursor c) {
+        return w.workload.invoke(c.next++);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedHot(Workload w, Cursor c) {
+        // hot callers keep hitting a single tuple
+        return w.workload.invoke(0);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Object mixedCold(Workload w, Cursor c) {
+        return w.workload.invoke(c.next++);
+    }
+}
@@ -0,0 +1,45 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Average time of a two-argument GenericFunction call with each built-in
+ * DispatchEngine, as a way to A/B engines before switching a hot function.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchEngineBenchmark {
+    @Param({ DispatchEngines.REFLECTIVE, DispatchEngines.CACHED, DispatchEngines.METHOD_HANDLE, DispatchEngines.GENERATED })
+    public String engine;
+
+    private final GenericFunction<String> draw = GenericFunction.of(DispatchWorkload.Device.class, "draw");
+    private final Object device = new DispatchWorkload.Screen();
+    private final Object shape = new DispatchWorkload.Circle();
+    private final Object brush = new DispatchWorkload.Pencil();
+
+    @Setup
+    public void setup() {
+        draw.setEngine(engine);
+    }
+
+    @Benchmark
+    public String twoArguments() {
+        return draw.invoke(device, shape, brush);
+    }
+}
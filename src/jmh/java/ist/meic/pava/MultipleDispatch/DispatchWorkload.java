@@ -0,0 +1,87 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.Random;
+
+/**
+ * A two-argument dispatch workload shared by the concurrency benchmarks.
+ *
+ * Calls are split into a small hot set, which most calls hit, and a larger
+ * cold set of receiver/argument tuples, which is hit rarely.
+ */
+public class DispatchWorkload {
+    public static final int HOT_TUPLES = 4;
+
+    private final Object[][] calls;
+
+    /**
+     * @param size number of precomputed calls (a power of two)
+     * @param coldPercent percentage of calls drawn from the cold set
+     * @param seed random seed
+     */
+    public DispatchWorkload(int size, int coldPercent, long seed) {
+        Object[] devices = { new Device(), new Screen(), new Printer(), new Plotter() };
+        Object[] shapes = { new Shape(), new Line(), new Circle(), new Square(), new Triangle() };
+        Object[] brushes = { new Brush(), new Pencil(), new Crayon(), new Marker() };
+        Random random = new Random(seed);
+
+        calls = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(100) < coldPercent) {
+                calls[i] = new Object[] {
+                    devices[random.nextInt(devices.length)], shapes[random.nextInt(shapes.length)], brushes[random.nextInt(brushes.length)]
+                };
+            } else {
+                int hot = random.nextInt(HOT_TUPLES);
+                calls[i] = new Object[] { devices[1], shapes[1 + hot % 2], brushes[1 + hot / 2] };
+            }
+        }
+    }
+
+    /**
+     * @param i call index (wraps around)
+     * @return receiver followed by the call arguments
+     */
+    public Object[] call(int i) {
+        return calls[i & (calls.length - 1)];
+    }
+
+    /**
+     * Performs the i-th call through UsingMultipleDispatch.
+     *
+     * @param i call index (wraps around)
+     * @return the result of the call
+     */
+    public Object invoke(int i) {
+        Object[] call = call(i);
+        return UsingMultipleDispatch.invoke(call[0], "draw", call[1], call[2]);
+    }
+
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape { }
+    public static class Square extends Shape { }
+    public static class Triangle extends Shape { }
+    public static class Brush { }
+    public static class Pencil extends Brush { }
+    public static class Crayon extends Brush { }
+    public static class Marker extends Brush { }
+
+    public static class Device {
+        public String draw(Shape s, Brush b) { return "shape"; }
+        public String draw(Line l, Brush b) { return "line"; }
+        public String draw(Shape s, Brush b, Brush c) { return "shape, two brushes"; }
+    }
+    public static class Screen extends Device {
+        public String draw(Line l, Pencil p) { return "line, pencil"; }
+        public String draw(Circle c, Brush b) { return "circle"; }
+        public String draw(Circle c, Crayon b) { return "circle, crayon"; }
+        public String draw(Line l, Pencil p, Brush b) { return "line, pencil, brush"; }
+    }
+    public static class Printer extends Device {
+        public String draw(Square s, Brush b) { return "square"; }
+        public String draw(Shape s, Marker m) { return "shape, marker"; }
+    }
+    public static class Plotter extends Printer {
+        public String draw(Triangle t, Pencil p) { return "triangle, pencil"; }
+    }
+}
@@ -0,0 +1,107 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Events per second routed by EventBus to the handlers of several subscribers,
+ * either published into the ring buffer and drained in batches, or dispatched
+ * one by one. As a baseline, the same events are routed with
+ * UsingMultipleDispatch.invoke, once per subscriber.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBusBenchmark {
+    private static final int EVENTS = 1024;
+
+    @Param({ "1", "8" })
+    public int subscribers;
+
+    private EventBus bus;
+    private Object[] handlers;
+    private Object[] events;
+
+    @Setup
+    public void setup() {
+        bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", EVENTS, (e, event) -> { });
+        handlers = new Object[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            handlers[i] = i % 2 == 0 ? new Handler() : new SpecificHandler();
+            bus.register(handlers[i]);
+        }
+
+        Object[] kinds = { new Event(), new KeyEvent(), new ClickEvent(), new DoubleClickEvent() };
+        events = new Object[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = kinds[(i * 7) % kinds.length];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int publishAndDrain() {
+        for (Object event : events) {
+            bus.publish(event);
+        }
+
+        return bus.drain();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void dispatch() {
+        for (Object event : events) {
+            bus.dispatch(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void invokeBaseline(Blackhole blackhole) {
+        for (Object event : events) {
+            for (Object handler : handlers) {
+                blackhole.consume(UsingMultipleDispatch.invoke(handler, "on", event));
+            }
+        }
+    }
+
+    public static class Event { }
+    public static class KeyEvent extends Event { }
+    public static class ClickEvent extends Event { }
+    public static class DoubleClickEvent extends ClickEvent { }
+
+    public static class Handler {
+        public int count;
+
+        public void on(Event e) {
+            count++;
+        }
+    }
+
+    public static class SpecificHandler extends Handler {
+        public void on(ClickEvent e) {
+            count += 2;
+        }
+
+        public void on(DoubleClickEvent e) {
+            count += 3;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of calls whose target throws, as with validation-heavy code.
+ *
+ * invoke wraps the target's exception in an InvocationTargetException and then
+ * in a RuntimeException (two extra exceptions, each filling in its stack trace),
+ * while invokeUnwrapped rethrows the original exception. The target exception
+ * may or may not fill in its own stack trace, which dominates when it does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FailingCallBenchmark {
+    @Param({ "false", "true" })
+    public boolean stackTrace;
+
+    private final Validator validator = new Validator();
+    private final Object value = "invalid";
+
+    @Benchmark
+    public Object wrapped() {
+        try {
+            return UsingMultipleDispatch.invoke(validator, "validate", value, stackTrace);
+        } catch (RuntimeException e) {
+            return e.getCause().getCause();
+        }
+    }
+
+    @Benchmark
+    public Object unwrapped() {
+        try {
+            return UsingMultipleDispatch.invokeUnwrapped(validator, "validate", value, stackTrace);
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    public static class ValidationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ValidationException(boolean stackTrace) {
+            super("invalid value", null, false, stackTrace);
+        }
+    }
+
+    public static class Validator {
+        public Object validate(Object value, Boolean stackTrace) {
+            throw new ValidationException(stackTrace);
+        }
+
+        public Object validate(Integer value, Boolean stackTrace) {
+            return value;
+        }
+    }
+}
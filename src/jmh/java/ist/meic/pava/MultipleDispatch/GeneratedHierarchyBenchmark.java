@@ -0,0 +1,77 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.ExtendedMethodComparator;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder;
+
+/**
+ * Selections per second over synthetic workloads: random calls of randomly
+ * generated hierarchies (see HierarchyGenerator), with many arities,
+ * primitives and varargs. Compares the caching selectors with the uncached
+ * extended pipeline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeneratedHierarchyBenchmark {
+    private static final int CALLS = 1024;
+
+    @Param({ "1", "2" })
+    public long seed;
+
+    private Object[][] calls;
+    private final MethodSelector uncached = new MethodSelector(new ExtendedMethodComparator(), new NonStaticExtendedCandidateMethodFinder());
+    private final CachingMethodSelector extended = new CachingMethodSelector(new ExtendedMethodComparator(), new NonStaticExtendedCandidateMethodFinder());
+    private final CachingMethodSelector simple = new CachingMethodSelector(new SimpleMethodSpecificityComparator());
+
+    @Setup
+    public void setup() {
+        HierarchyGenerator.Hierarchy hierarchy = new HierarchyGenerator(seed).methods(4, 16, 4).generate();
+        calls = hierarchy.randomCalls(new Random(seed), CALLS, HierarchyGenerator.INSTANCE_METHOD);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void cachingExtended(Blackhole blackhole) {
+        select(extended, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void cachingSimple(Blackhole blackhole) {
+        select(simple, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void uncachedExtended(Blackhole blackhole) {
+        select(uncached, blackhole);
+    }
+
+    private void select(MethodSelector selector, Blackhole blackhole) {
+        for (Object[] call : calls) {
+            Object[] args = new Object[call.length - 1];
+            System.arraycopy(call, 1, args, 0, args.length);
+            blackhole.consume(selector.findMethod(call[0].getClass(), HierarchyGenerator.INSTANCE_METHOD, args));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nodes per second visited in a balanced expression tree, with TreeWalker
+ * (sequentially and on a ForkJoinPool), with a recursive visitor that calls
+ * UsingMultipleDispatch.invoke per node, and with a hand-written
+ * accept/visit visitor as the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TreeWalkerBenchmark {
+    private static final int DEPTH = 14;
+    private static final int NODES = (1 << (DEPTH + 1)) - 1;
+
+    private Node tree;
+    private TreeWalker<Node> walker;
+
+    @Setup
+    public void setup() {
+        tree = build(DEPTH);
+        walker = new TreeWalker<>(Node::children);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public long treeWalker() {
+        Evaluator evaluator = new Evaluator();
+        walker.walk(evaluator, tree);
+        return evaluator.total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public long treeWalkerParallel() {
+        ConcurrentEvaluator evaluator = new ConcurrentEvaluator();
+        walker.walkParallel(evaluator, tree, ForkJoinPool.commonPool(), 4);
+        return evaluator.total.get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public long recursiveInvoke() {
+        Evaluator evaluator = new Evaluator();
+        recurse(evaluator, tree);
+        return evaluator.total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NODES)
+    public long handWritten() {
+        Evaluator evaluator = new Evaluator();
+        tree.accept(evaluator);
+        return evaluator.total;
+    }
+
+    private static void recurse(Evaluator evaluator, Node node) {
+        UsingMultipleDispatch.invoke(evaluator, "visit", node);
+        for (Node child : node.children()) {
+            recurse(evaluator, child);
+        }
+    }
+
+    private static Node build(int depth) {
+        if (depth == 0) {
+            return new Num(depth);
+        }
+
+        return depth % 2 == 0 ? new Add(build(depth - 1), build(depth - 1)) : new Mul(build(depth - 1), build(depth - 1));
+    }
+
+    public static abstract class Node {
+        abstract List<Node> children();
+
+        abstract void accept(Evaluator evaluator);
+    }
+
+    public static class Num extends Node {
+        final int value;
+
+        Num(int value) {
+            this.value = value;
+        }
+
+        List<Node> children() {
+            return Collections.emptyList();
+        }
+
+        void accept(Evaluator evaluator) {
+            evaluator.visit(this);
+        }
+    }
+
+    public static class Add extends Node {
+        final List<Node> operands;
+
+        Add(Node lhs, Node rhs) {
+            operands = Arrays.asList(lhs, rhs);
+        }
+
+        List<Node> children() {
+            return operands;
+        }
+
+        void accept(Evaluator evaluator) {
+            evaluator.visit(this);
+            for (Node operand : operands) {
+                operand.accept(evaluator);
+            }
+        }
+    }
+
+    public static class Mul extends Add {
+        Mul(Node lhs, Node rhs) {
+            super(lhs, rhs);
+        }
+
+        @Override
+        void accept(Evaluator evaluator) {
+            evaluator.visit(this);
+            for (Node operand : operands) {
+                operand.accept(evaluator);
+            }
+        }
+    }
+
+    public static class Evaluator {
+        long total;
+
+        public void visit(Node n) {
+        }
+
+        public void visit(Num n) {
+            total += n.value;
+        }
+
+        public void visit(Add a) {
+            total += 1;
+        }
+
+        public void visit(Mul m) {
+            total += 2;
+        }
+    }
+
+    public static class ConcurrentEvaluator {
+        final AtomicLong total = new AtomicLong();
+
+        public void visit(Num n) {
+            total.addAndGet(n.value);
+        }
+
+        public void visit(Add a) {
+            total.incrementAndGet();
+        }
+
+        public void visit(Mul m) {
+            total.addAndGet(2);
+        }
+    }
+}
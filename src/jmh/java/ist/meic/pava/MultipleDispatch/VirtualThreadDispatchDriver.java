@@ -0,0 +1,99 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stress driver for UsingMultipleDispatch.invoke from many concurrent tasks.
+ *
+ * For each concurrency level, runs that many tasks at once, each performing a
+ * fixed number of calls, and reports the overall throughput and per-call
+ * latency percentiles. Tasks run on virtual threads when the running JVM
+ * supports them (Java 21+), and on platform threads otherwise.
+ *
+ * Usage: VirtualThreadDispatchDriver [callsPerTask] [coldPercent] [level...]
+ */
+public class VirtualThreadDispatchDriver {
+
+    public static void main(String[] args) throws Exception {
+        int callsPerTask = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int coldPercent = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int[] levels = args.length > 2
+            ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] { 1, 4, 16, 64, 256, 1024 };
+
+        DispatchWorkload workload = new DispatchWorkload(4096, coldPercent, 42);
+        boolean virtual = virtualThreadExecutor() != null;
+        System.out.printf("%s threads, %d calls per task, %d%% cold calls%n",
+            virtual ? "virtual" : "platform", callsPerTask, coldPercent);
+        System.out.printf("%8s %14s %10s %10s %10s %10s%n", "tasks", "calls/s", "p50 ns", "p99 ns", "p99.9 ns", "max ns");
+
+        // warm up the caches and the JIT
+        run(workload, 4, callsPerTask);
+
+        for (int level : levels) {
+            long start = System.nanoTime();
+            long[] latencies = run(workload, level, callsPerTask);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%8d %14.0f %10d %10d %10d %10d%n", level,
+                latencies.length / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[latencies.length - 1]);
+        }
+    }
+
+    private static long[] run(DispatchWorkload workload, int tasks, int callsPerTask) throws Exception {
+        ExecutorService executor = virtualThreadExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(tasks);
+        }
+
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < tasks; t++) {
+                int first = t * 7919;
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[callsPerTask];
+                    for (int i = 0; i < callsPerTask; i++) {
+                        long before = System.nanoTime();
+                        workload.invoke(first + i);
+                        latencies[i] = System.nanoTime() - before;
+                    }
+                    return latencies;
+                }));
+            }
+
+            long[] all = new long[tasks * callsPerTask];
+            for (int t = 0; t < tasks; t++) {
+                System.arraycopy(futures.get(t).get(), 0, all, t * callsPerTask, callsPerTask);
+            }
+
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * sorted.length))];
+    }
+
+    /**
+     * @return a virtual-thread-per-task executor, or null if this JVM has no virtual threads
+     */
+    static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
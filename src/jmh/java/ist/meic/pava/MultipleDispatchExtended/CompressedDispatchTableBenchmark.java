@@ -0,0 +1,111 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+
+/**
+ * Lookup latency of CompressedDispatchTable against the uncached MethodSelector,
+ * for a three-argument generic function. The footprint of the compressed table
+ * is printed once the table is warm. ClosedWorldDispatchTable, with the ten
+ * node classes registered, stands for the closed-world alternative.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressedDispatchTableBenchmark {
+    private static final int CALLS = 1024;
+
+    private final MethodSelector uncached = new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+            new UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder());
+    private CompressedDispatchTable compressed;
+    private ClosedWorldDispatchTable closedWorld;
+    private Object[][] calls;
+    private int next;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        Object[] nodes = { new A(), new B(), new C(), new D(), new E(), new F(), new G(), new H(), new I(), new J() };
+        Random random = new Random(42);
+
+        calls = new Object[CALLS][];
+        for (int i = 0; i < CALLS; i++) {
+            calls[i] = new Object[] {
+                nodes[random.nextInt(nodes.length)], nodes[random.nextInt(nodes.length)], nodes[random.nextInt(nodes.length)]
+            };
+        }
+
+        compressed = CompressedDispatchTable.forMethods(Combiner.class, "combine", 3);
+        for (Object[] args : calls) {
+            compressed.resolve(args);
+        }
+
+        closedWorld = ClosedWorldDispatchTable.forMethods(Collections.singletonList(Combiner.class), "combine",
+            Arrays.asList(A.class, B.class, C.class, D.class, E.class, F.class, G.class, H.class, I.class, J.class), 3);
+
+        System.out.printf("%ncompressed table: %d of %d slots, ~%d bytes (%d classes, full table would have %d entries)%n",
+            compressed.compressedSize(), compressed.uncompressedSize(), compressed.estimatedFootprint(),
+            nodes.length, nodes.length * nodes.length * nodes.length);
+    }
+
+    @Benchmark
+    public Method compressedTable() throws NoSuchMethodException {
+        return compressed.resolve(nextCall());
+    }
+
+    @Benchmark
+    public Method closedWorldTable() throws NoSuchMethodException {
+        return closedWorld.resolve(Combiner.class, nextCall());
+    }
+
+    @Benchmark
+    public Method uncachedSelector() throws NoSuchMethodException {
+        return uncached.selectMethod(Combiner.class, "combine", nextCall());
+    }
+
+    private Object[] nextCall() {
+        next = (next + 1) & (CALLS - 1);
+        return calls[next];
+    }
+
+    public static class A { }
+    public static class B extends A { }
+    public static class C extends A { }
+    public static class D extends B { }
+    public static class E extends B { }
+    public static class F extends C { }
+    public static class G extends C { }
+    public static class H extends D { }
+    public static class I extends F { }
+    public static class J extends G { }
+
+    public static class Combiner {
+        public String combine(A x, A y, A z) { return "AAA"; }
+        public String combine(B x, A y, A z) { return "BAA"; }
+        public String combine(B x, C y, A z) { return "BCA"; }
+        public String combine(C x, B y, A z) { return "CBA"; }
+        public String combine(D x, A y, C z) { return "DAC"; }
+        public String combine(F x, F y, A z) { return "FFA"; }
+        public String combine(A x, B y, D z) { return "ABD"; }
+        public String combine(H x, H y, H z) { return "HHH"; }
+        public String combine(A x, A y, A... rest) { return "AA*"; }
+    }
+}
@@ -0,0 +1,163 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A short chain of type guards, kept in order of decreasing hit frequency.
+ *
+ * Each guard checks the argument classes of a call against one cached type
+ * tuple; the first matching guard gives the method to call. Since guards are
+ * checked in order, the chain is periodically reordered so that the hottest
+ * tuples are checked first.
+ *
+ * Profiling is cheap and approximate: only one in every SAMPLE_PERIOD lookups
+ * is counted, counters are plain (racy) ints, and every REORDER_PERIOD samples
+ * the chain is reordered and the counters are halved, so that the order
+ * follows shifts in the workload.
+ *
+ * Guards only pay off when most lookups stop at the first few of them. When
+ * fewer than three quarters of the sampled lookups hit one of the FRONT_GUARDS
+ * hottest guards, the chain is bypassed (only sampled lookups still go through it)
+ * until the next reordering.
+ *
+ * Both periods are powers of two.
+ *
+ * The chain holds at most CAPACITY guards. Once full, a sampled miss replaces
+ * the coldest guard.
+ */
+public class AdaptiveGuardChain {
+    public static final int CAPACITY = 8;
+    public static final int SAMPLE_PERIOD = 64;
+    public static final int REORDER_PERIOD = 256;
+    public static final int FRONT_GUARDS = 2;
+
+    private volatile Guard[] guards = new Guard[0];
+    private volatile boolean bypassed;
+    private int ticks;
+    private int samples;
+    private int frontHitSamples;
+
+    /**
+     * Looks up the given arguments in the chain.
+     *
+     * @param args call arguments.
+     * @return the cached Method, or null if no guard matches
+     */
+    public Method lookup(Object[] args) {
+        boolean sampled = (++ticks & (SAMPLE_PERIOD - 1)) == 0;
+        if (bypassed && !sampled) {
+            return null;
+        }
+
+        Guard[] chain = guards;
+        int position = 0;
+        while (position < chain.length && !chain[position].matches(args)) {
+            position++;
+        }
+        Guard hit = position < chain.length ? chain[position] : null;
+
+        if (sampled) {
+            if (hit != null) {
+                hit.hits++;
+                if (position < FRONT_GUARDS) {
+                    frontHitSamples++;
+                }
+            }
+            if ((++samples & (REORDER_PERIOD - 1)) == 0) {
+                reorder();
+            }
+        }
+
+        return hit != null ? hit.target : null;
+    }
+
+    /**
+     * Offers the chain a resolution made elsewhere, after a lookup missed.
+     *
+     * The tuple is added while there is room; once the chain is full, only
+     * sampled misses are let in, in place of the coldest guard.
+     *
+     * @param args call arguments.
+     * @param target the method resolved for them.
+     */
+    public void offer(Object[] args, Method target) {
+        Guard[] chain = guards;
+        // the lookup that missed was sampled
+        if (chain.length < CAPACITY || (ticks & (SAMPLE_PERIOD - 1)) == 0) {
+            admit(new Guard(MethodSelector.getObjectTypes(args), target));
+        }
+    }
+
+    /**
+     * @return true if lookups currently bypass the chain
+     */
+    public boolean isBypassed() {
+        return bypassed;
+    }
+
+    /**
+     * @return the type tuples currently guarded, hottest first
+     */
+    public TypeTuple[] guardedTypes() {
+        return Arrays.stream(guards)
+            .map(guard -> TypeTuple.ofTypes(guard.types))
+            .toArray(TypeTuple[]::new);
+    }
+
+    private synchronized void admit(Guard guard) {
+        Guard[] chain = guards;
+
+        for (Guard other : chain) {
+            if (Arrays.equals(other.types, guard.types)) {
+                // a racing thread got here first
+                return;
+            }
+        }
+
+        // the last guard is the coldest one, as of the last reordering
+        Guard[] newChain = chain.length < CAPACITY ? Arrays.copyOf(chain, chain.length + 1) : chain.clone();
+        newChain[newChain.length - 1] = guard;
+
+        guards = newChain;
+    }
+
+    private synchronized void reorder() {
+        Guard[] newChain = guards.clone();
+        Arrays.sort(newChain, Comparator.comparingInt((Guard guard) -> guard.hits).reversed());
+
+        for (Guard guard : newChain) {
+            guard.hits /= 2;
+        }
+
+        bypassed = frontHitSamples < REORDER_PERIOD * 3 / 4;
+        frontHitSamples = 0;
+        guards = newChain;
+    }
+
+    private static class Guard {
+        private final Class<?>[] types;
+        private final Method target;
+        private int hits;
+
+        private Guard(Class<?>[] types, Method target) {
+            this.types = types;
+            this.target = target;
+        }
+
+        private boolean matches(Object[] args) {
+            if (args.length != types.length) {
+                return false;
+            }
+
+            for (int i = 0; i < types.length; i++) {
+                if (args[i].getClass() != types[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+
+/**
+ * A CachingMethodSelector with profile-guided guard chains.
+ *
+ * For each receiver class and method name, the most frequently used argument
+ * type tuples are checked first, with a short chain of type guards ordered by
+ * sampled hit counts, before falling back to the dispatch tables. This pays off
+ * on polymorphic call sites with a skewed distribution of argument types.
+ *
+ * It is not the default: on flatter distributions, where hits are spread over
+ * several guards, the chain is bypassed and only its sampling is paid for, so
+ * it costs about as much as CachingMethodSelector (see AdaptiveGuardBenchmark,
+ * where the chain halves the cost at Zipf exponent 2.5 and is within noise of
+ * the plain tables at 1.0 and 1.5). Use it for call sites known to be skewed.
+ *
+ * @see AdaptiveGuardChain
+ */
+public class AdaptiveMethodSelector extends CachingMethodSelector {
+
+    /**
+     * @see MethodSelector#MethodSelector(Comparator, CandidateMethodFinder)
+     */
+    public AdaptiveMethodSelector(Comparator<Method> comparator, CandidateMethodFinder candidateSource) {
+        super(comparator, candidateSource);
+    }
+
+    /**
+     * @see MethodSelector#MethodSelector(PartialComparator, CandidateMethodFinder)
+     */
+    public AdaptiveMethodSelector(PartialComparator<Method> partialComparator, CandidateMethodFinder candidateSource) {
+        super(partialComparator, candidateSource);
+    }
+
+    /**
+     * @see MethodSelector#MethodSelector(PartialComparator)
+     */
+    public AdaptiveMethodSelector(PartialComparator<Method> partialComparator) {
+        super(partialComparator);
+    }
+
+    @Override
+    protected boolean usesGuardChains() {
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A two-dimensional dispatch table for generic functions of two arguments
+ * (on a fixed receiver class and method name).
+ *
+ * Each class seen as the first argument gets a dense row index and each class
+ * seen as the second argument gets a dense column index. Resolved methods are
+ * stored in a (jagged) two-dimensional array, which is filled lazily as new
+ * classes show up, so a hit costs two index lookups plus one array access.
+ *
+ * Given a TypeProjection, argument classes are projected before being indexed,
+ * so classes that dispatch alike share rows and columns.
+ *
+ * Reads are lock-free. Concurrent misses on the same pair of classes are
+ * resolved only once (see SingleFlight). Results are published under a lock by
+ * replacing the affected row and the outer array (copy-on-write), so readers
+ * never see a partially built table.
+ */
+public class BinaryDispatchTable {
+    private final MethodResolver resolver;
+    private final TypeProjection projection;
+    private final SingleFlight<TypeTuple> flights = new SingleFlight<>();
+    private final ConcurrentMap<Class<?>, Integer> rowIndices = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Integer> columnIndices = new ConcurrentHashMap<>();
+    private volatile Method[][] targets = new Method[0][];
+
+    /**
+     * Creates an empty table.
+     *
+     * @param resolver used to resolve calls missing from the table
+     */
+    public BinaryDispatchTable(MethodResolver resolver) {
+        this(resolver, null);
+    }
+
+    /**
+     * Creates an empty table, indexed by projected argument classes.
+     *
+     * @param resolver used to resolve calls missing from the table
+     * @param projection projection of calls with two arguments, or null for none
+     */
+    public BinaryDispatchTable(MethodResolver resolver, TypeProjection projection) {
+        this.resolver = resolver;
+        this.projection = projection;
+    }
+
+    /**
+     * Resolves the method to call for the given two arguments.
+     *
+     * @param args call arguments (exactly two).
+     * @return the selected Method
+     * @throws NoSuchMethodException if no matching method could be found.
+     */
+    public Method resolve(Object[] args) throws NoSuchMethodException {
+        Method method = lookup(args);
+        if (method != null) {
+            return method;
+        }
+
+        return flights.resolve(TypeTuple.of(args), args, callArgs -> {
+            // the call may have been published since the lookup above
+            Method cached = lookup(callArgs);
+            return cached != null ? cached : publish(callArgs, resolver.resolve(callArgs));
+        });
+    }
+
+    /**
+     * @return the number of distinct classes seen as the first argument
+     */
+    public int rowCount() {
+        return rowIndices.size();
+    }
+
+    /**
+     * @return the number of distinct classes seen as the second argument
+     */
+    public int columnCount() {
+        return columnIndices.size();
+    }
+
+    private Method lookup(Object[] args) {
+        Integer row = rowIndices.get(typeOf(0, args));
+        Integer column = columnIndices.get(typeOf(1, args));
+
+        if (row != null && column != null) {
+            Method[][] table = targets;
+            // the indices may have been assigned after this table was read
+            if (row < table.length) {
+                Method[] tableRow = table[row];
+                if (tableRow != null && column < tableRow.length) {
+                    return tableRow[column];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private synchronized Method publish(Object[] args, Method method) {
+        int row = indexOf(rowIndices, typeOf(0, args));
+        int column = indexOf(columnIndices, typeOf(1, args));
+
+        Method[][] table = targets;
+        Method[] tableRow = row < table.length ? table[row] : null;
+
+        Method[] newRow = new Method[columnIndices.size()];
+        if (tableRow != null) {
+            System.arraycopy(tableRow, 0, newRow, 0, tableRow.length);
+        }
+        newRow[column] = method;
+
+        Method[][] newTable = Arrays.copyOf(table, Math.max(table.length, rowIndices.size()));
+        newTable[row] = newRow;
+        targets = newTable;
+
+        return method;
+    }
+
+    private Class<?> typeOf(int position, Object[] args) {
+        Class<?> type = args[position].getClass();
+        return projection != null ? projection.project(position, type) : type;
+    }
+
+    private static int indexOf(ConcurrentMap<Class<?>, Integer> indices, Class<?> type) {
+        Integer index = indices.get(type);
+
+        if (index == null) {
+            // only called under the table lock, so indices stay dense
+            index = indices.size();
+            indices.put(type, index);
+        }
+
+        return index;
+    }
+}
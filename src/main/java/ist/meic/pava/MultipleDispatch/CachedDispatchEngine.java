@@ -0,0 +1,56 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiFunction;
+
+/**
+ * A dispatch engine that keeps the selections of each generic function in a
+ * ResolutionCache, and calls with Method.invoke. This is what GenericFunction
+ * does by default.
+ *
+ * @see DispatchEngines#CACHED
+ */
+public final class CachedDispatchEngine implements DispatchEngine {
+    @Override
+    public String getName() {
+        return DispatchEngines.CACHED;
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        ResolutionCache cache = new ResolutionCache(selector, name);
+
+        return (receiverClass, receiver, args) -> {
+            try {
+                Method method = cache.resolve(receiverClass, args);
+                return method.invoke(receiver, argumentPreparer.apply(method, args));
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Methods are called through MethodHandles unreflected with the caller's
+     * lookup, since Method.invoke would check access with the rights of this engine.
+     */
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller) {
+        ResolutionCache cache = new ResolutionCache(selector, name);
+        MethodInvoker invoker = new MethodInvoker(caller);
+
+        return (receiverClass, receiver, args) -> {
+            Method method;
+            try {
+                method = cache.resolve(receiverClass, args);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+
+            return MethodHandleDispatchEngine.call(invoker, method, receiver, argumentPreparer.apply(method, args));
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * A MethodSelector that remembers its selections.
+ *
+ * Selections are kept per receiver class and method name. Calls with two
+ * arguments, the most common case, are served by a BinaryDispatchTable; calls
+ * with up to four arguments by a PackedTypeTable, and any other arity by a hash
+ * table keyed by the argument classes. Hits allocate nothing but for the latter.
+ * The first two are keyed by the projections of the argument classes (see
+ * TypeProjection), so the number of entries is bounded by the overloads of
+ * the method, not by the number of argument classes seen at runtime.
+ * Concurrent misses on the same key are resolved only once (see SingleFlight).
+ * Calls with no applicable method are remembered as well (negative caching),
+ * so probing them again with findMethod costs a table lookup.
+ *
+ * Selection itself is unchanged, so this class can be used anywhere a
+ * MethodSelector is expected.
+ *
+ * @see BinaryDispatchTable
+ * @see PackedTypeTable
+ * @see TypeProjection
+ */
+public class CachingMethodSelector extends MethodSelector {
+    private final ClassValue<ConcurrentMap<String, FunctionTables>> tables = new ClassValue<ConcurrentMap<String, FunctionTables>>() {
+        @Override
+        protected ConcurrentMap<String, FunctionTables> computeValue(Class<?> receiverClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * @see MethodSelector#MethodSelector(Comparator, CandidateMethodFinder)
+     */
+    public CachingMethodSelector(Comparator<Method> comparator, CandidateMethodFinder candidateSource) {
+        super(comparator, candidateSource);
+    }
+
+    /**
+     * @see MethodSelector#MethodSelector(PartialComparator, CandidateMethodFinder)
+     */
+    public CachingMethodSelector(PartialComparator<Method> partialComparator, CandidateMethodFinder candidateSource) {
+        super(partialComparator, candidateSource);
+    }
+
+    /**
+     * @see MethodSelector#MethodSelector(PartialComparator)
+     */
+    public CachingMethodSelector(PartialComparator<Method> partialComparator) {
+        super(partialComparator);
+    }
+
+    @Override
+    public Method selectMethod(Class<?> receiverClass, String name, Object... args) throws NoSuchMethodException {
+        Method method = findMethod(receiverClass, name, args);
+
+        if (method == null) {
+            throw buildNoSuchMethodException(receiverClass, args);
+        }
+
+        return method;
+    }
+
+    @Override
+    public Method findMethod(Class<?> receiverClass, String name, Object... args) {
+        return findIn(tablesFor(receiverClass, name), args);
+    }
+
+    /**
+     * Returns a resolver for calls with the given receiver class and method name,
+     * which goes straight to their dispatch tables (skipping the per-call lookup
+     * of the tables by receiver class and name).
+     *
+     * @param receiverClass the class of the receiver object.
+     * @param name name of the method to call.
+     * @return the resolver, sharing this selector's tables
+     */
+    public MethodResolver resolverFor(Class<?> receiverClass, String name) {
+        FunctionTables functionTables = tablesFor(receiverClass, name);
+
+        return args -> {
+            Method method = findIn(functionTables, args);
+
+            if (method == null) {
+                throw buildNoSuchMethodException(receiverClass, args);
+            }
+
+            return method;
+        };
+    }
+
+    private FunctionTables tablesFor(Class<?> receiverClass, String name) {
+        FunctionTables functionTables = tables.get(receiverClass).get(name);
+        if (functionTables == null) {
+            functionTables = tables.get(receiverClass)
+                .computeIfAbsent(name, n -> new FunctionTables(callArgs -> NoMethod.fromNull(super.findMethod(receiverClass, n, callArgs)),
+                    arity -> projectionFor(receiverClass, n, arity), usesGuardChains() ? new AdaptiveGuardChain() : null));
+        }
+
+        return functionTables;
+    }
+
+    private static Method findIn(FunctionTables functionTables, Object[] args) {
+        AdaptiveGuardChain guards = functionTables.guards;
+        if (guards != null) {
+            Method method = guards.lookup(args);
+            if (method != null) {
+                return NoMethod.toNull(method);
+            }
+        }
+
+        Method method = selectFromTables(functionTables, args);
+        if (guards != null) {
+            guards.offer(args, method);
+        }
+
+        return NoMethod.toNull(method);
+    }
+
+    /**
+     * Determines whether each receiver class and method name gets an
+     * AdaptiveGuardChain in front of its dispatch tables.
+     *
+     * @return false, unless overridden
+     * @see AdaptiveMethodSelector
+     */
+    protected boolean usesGuardChains() {
+        return false;
+    }
+
+    /**
+     * @return the selected method, or the NoMethod sentinel
+     */
+    private static Method selectFromTables(FunctionTables functionTables, Object[] args) {
+        try {
+            if (args.length == 2) {
+                return functionTables.binary.resolve(args);
+            }
+
+            if (PackedTypeTable.fits(null, args)) {
+                PackedTypeTable packed = functionTables.packed(args.length);
+                Method method = packed.get(null, args);
+                if (method == null) {
+                    method = functionTables.flights.resolve(TypeTuple.of(args), args, callArgs -> {
+                        Method resolved = functionTables.resolver.resolve(callArgs);
+                        packed.put(null, callArgs, resolved);
+                        return resolved;
+                    });
+                }
+
+                return method;
+            }
+
+            TypeTuple key = TypeTuple.of(args);
+            Method method = functionTables.general.get(key);
+            if (method == null) {
+                method = functionTables.flights.resolve(key, args, callArgs -> {
+                    Method resolved = functionTables.resolver.resolve(callArgs);
+                    functionTables.general.put(key, resolved);
+                    return resolved;
+                });
+            }
+
+            return method;
+        } catch (NoSuchMethodException e) {
+            // the resolver reports missing methods with the sentinel instead
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The dispatch tables of a single receiver class and method name.
+     */
+    private static class FunctionTables {
+        private final MethodResolver resolver;
+        private final BinaryDispatchTable binary;
+        private final IntFunction<TypeProjection> projections;
+        private final AtomicReferenceArray<PackedTypeTable> packed = new AtomicReferenceArray<>(PackedTypeTable.MAX_TYPES + 1);
+        private final ConcurrentMap<TypeTuple, Method> general = new ConcurrentHashMap<>();
+        private final SingleFlight<TypeTuple> flights = new SingleFlight<>();
+        private final AdaptiveGuardChain guards;
+
+        private FunctionTables(MethodResolver resolver, IntFunction<TypeProjection> projections, AdaptiveGuardChain guards) {
+            this.resolver = resolver;
+            this.projections = projections;
+            this.binary = new BinaryDispatchTable(resolver, projections.apply(2));
+            this.guards = guards;
+        }
+
+        /**
+         * @return the packed table for calls with the given number of arguments
+         */
+        private PackedTypeTable packed(int arity) {
+            PackedTypeTable table = packed.get(arity);
+            if (table == null) {
+                packed.compareAndSet(arity, null, new PackedTypeTable(projections.apply(arity)));
+                table = packed.get(arity);
+            }
+
+            return table;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dense integer ids for classes, assigned on first use.
+ *
+ * Ids start at 1 (0 is never assigned, so it can mark an absent type) and are
+ * stored in a ClassValue, so asking for the id of a known class does not
+ * allocate. Ids are never reused.
+ */
+public final class ClassIds {
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+    private static final ClassValue<Integer> ids = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextId.getAndIncrement();
+        }
+    };
+
+    private ClassIds() {
+    }
+
+    /**
+     * @param type a class
+     * @return the id of the given class
+     */
+    public static int of(Class<?> type) {
+        return ids.get(type);
+    }
+}
@@ -0,0 +1,78 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.function.BiFunction;
+
+/**
+ * A strategy for resolving and invoking the methods of a generic function.
+ *
+ * Engines are looked up by name in DispatchEngines, which knows the built-in
+ * ones and those registered as services (in META-INF/services, as usual for
+ * ServiceLoader). Every engine must implement the same semantics: that of
+ * UsingMultipleDispatch.invoke, with the selection rules of the given
+ * MethodSelector. Engines only differ in how fast they get there, so they can
+ * be swapped for one another, e.g. with GenericFunction.setEngine.
+ *
+ * Engines call methods with their own access rights, unless given the lookup
+ * of the caller, in which case they must use its rights instead. Access checks
+ * are never suppressed, so without a lookup the built-in engines only reach
+ * methods that are public in public classes (and those of their own package).
+ *
+ * Implementations registered as services need a public no-argument constructor.
+ *
+ * @see DispatchEngines
+ * @see GenericFunction#setEngine(DispatchEngine)
+ */
+public interface DispatchEngine {
+    /**
+     * Leaves the call arguments as they are.
+     */
+    public static final BiFunction<Method, Object[], Object[]> SAME_ARGUMENTS = (method, args) -> args;
+
+    /**
+     * @return the name the engine is looked up by
+     */
+    public String getName();
+
+    /**
+     * Creates the dispatcher of a generic function.
+     *
+     * @param selector method selector, which defines the dispatch rules.
+     * @param name name of the method.
+     * @param argumentPreparer transforms the arguments before calling the selected method (e.g. to build varargs arrays).
+     * @return a thread-safe dispatcher
+     */
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer);
+
+    /**
+     * Creates the dispatcher of a generic function, which calls methods with
+     * the access rights of the given lookup, and not those of the engine.
+     *
+     * @param selector method selector, which defines the dispatch rules.
+     * @param name name of the method.
+     * @param argumentPreparer transforms the arguments before calling the selected method (e.g. to build varargs arrays).
+     * @param caller lookup of the caller.
+     * @return a thread-safe dispatcher
+     */
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller);
+
+    /**
+     * Calls the most specific method of a generic function.
+     */
+    @FunctionalInterface
+    public static interface Dispatcher {
+        /**
+         * Selects and calls a method. Throws RuntimeException on illegal access,
+         * missing method, or exception of the invoked method (wrapped in an
+         * InvocationTargetException).
+         *
+         * @param receiverClass the class of the receiver.
+         * @param receiver receiver object (null for static methods).
+         * @param args call arguments.
+         * @return the object returned by the method called.
+         */
+        public Object invoke(Class<?> receiverClass, Object receiver, Object[] args);
+    }
+}
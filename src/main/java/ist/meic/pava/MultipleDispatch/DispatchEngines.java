@@ -0,0 +1,112 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The registry of dispatch engines.
+ *
+ * The built-in engines are:
+ *  - "reflective": selects with the given MethodSelector on every call, and
+ *    calls with Method.invoke;
+ *  - "cached": keeps the selections in a ResolutionCache, and calls with
+ *    Method.invoke (the default);
+ *  - "methodHandle": keeps the selections in a ResolutionCache, and calls
+ *    through cached MethodHandles (see MethodInvoker);
+ *  - "generated": keeps the selections in a ResolutionCache, and calls through
+ *    classes spun by LambdaMetafactory, one per selected method.
+ * Other engines are loaded with ServiceLoader, on first use of the registry.
+ * They may not take the name of a built-in engine.
+ *
+ * The default engine is the one named by the system property PROPERTY, read
+ * once. GenericFunction handles start out with the default engine. The
+ * UsingMultipleDispatch front-ends only go through an engine when the property
+ * is set, and otherwise keep their own (cached) selectors.
+ *
+ * @see DispatchEngine
+ */
+public final class DispatchEngines {
+    /**
+     * System property naming the default engine.
+     */
+    public static final String PROPERTY = "ist.meic.pava.MultipleDispatch.engine";
+
+    public static final String REFLECTIVE = "reflective";
+    public static final String CACHED = "cached";
+    public static final String METHOD_HANDLE = "methodHandle";
+    public static final String GENERATED = "generated";
+
+    private static final String defaultName = System.getProperty(PROPERTY);
+
+    private DispatchEngines() {
+    }
+
+    /**
+     * @param name name of the engine
+     * @return the engine with the given name
+     * @throws IllegalArgumentException if there is no such engine
+     */
+    public static DispatchEngine get(String name) {
+        DispatchEngine engine = Registry.ENGINES.get(name);
+
+        if (engine == null) {
+            throw new IllegalArgumentException("no dispatch engine named " + name + " (known engines: " + names() + ")");
+        }
+
+        return engine;
+    }
+
+    /**
+     * @return the names of all known engines
+     */
+    public static Set<String> names() {
+        return Registry.ENGINES.keySet();
+    }
+
+    /**
+     * @return the engine named by the system property PROPERTY, or the cached engine if it is not set
+     * @throws IllegalArgumentException if the property names no engine
+     */
+    public static DispatchEngine getDefault() {
+        return DefaultEngine.ENGINE;
+    }
+
+    /**
+     * @return true if the default engine was chosen with the system property PROPERTY
+     */
+    public static boolean isDefaultConfigured() {
+        return defaultName != null;
+    }
+
+    /**
+     * Holds the known engines, loaded on first use.
+     */
+    private static class Registry {
+        private static final Map<String, DispatchEngine> ENGINES = load();
+
+        private static Map<String, DispatchEngine> load() {
+            Map<String, DispatchEngine> engines = new LinkedHashMap<>();
+            for (DispatchEngine engine : new DispatchEngine[] {
+                    new ReflectiveDispatchEngine(), new CachedDispatchEngine(),
+                    new MethodHandleDispatchEngine(), new GeneratedDispatchEngine() }) {
+                engines.put(engine.getName(), engine);
+            }
+
+            for (DispatchEngine engine : ServiceLoader.load(DispatchEngine.class)) {
+                engines.putIfAbsent(engine.getName(), engine);
+            }
+
+            return Collections.unmodifiableMap(engines);
+        }
+    }
+
+    /**
+     * Holds the default engine, chosen on first use.
+     */
+    private static class DefaultEngine {
+        private static final DispatchEngine ENGINE = get(defaultName == null ? CACHED : defaultName);
+    }
+}
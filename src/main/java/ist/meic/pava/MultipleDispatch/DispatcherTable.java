@@ -0,0 +1,51 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * The dispatchers an engine creates for the generic functions of a method
+ * selector, one per method name, created on first use.
+ *
+ * @see DispatchEngine
+ */
+public class DispatcherTable {
+    private final DispatchEngine engine;
+    private final MethodSelector selector;
+    private final BiFunction<Method, Object[], Object[]> argumentPreparer;
+    private final ConcurrentMap<String, DispatchEngine.Dispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    /**
+     * @param engine dispatch engine
+     * @param selector method selector, which defines the dispatch rules.
+     * @param argumentPreparer transforms the arguments before calling the selected method.
+     */
+    public DispatcherTable(DispatchEngine engine, MethodSelector selector, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        this.engine = engine;
+        this.selector = selector;
+        this.argumentPreparer = argumentPreparer;
+    }
+
+    /**
+     * @param name name of the method
+     * @return the dispatcher of the methods with the given name
+     */
+    public DispatchEngine.Dispatcher get(String name) {
+        DispatchEngine.Dispatcher dispatcher = dispatchers.get(name);
+
+        if (dispatcher == null) {
+            dispatcher = dispatchers.computeIfAbsent(name, n -> engine.dispatcherFor(selector, n, argumentPreparer));
+        }
+
+        return dispatcher;
+    }
+
+    /**
+     * @return the engine of the dispatchers
+     */
+    public DispatchEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,445 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Routes events to the most specific handler method ("on", by default) of
+ * every registered subscriber, chosen by the runtime class of the event:
+ *
+ *     EventBus bus = new EventBus();
+ *     bus.register(logger);   // e.g. on(Event), on(ErrorEvent)
+ *     bus.register(metrics);  // e.g. on(Object)
+ *     bus.publish(new ErrorEvent());
+ *     bus.drain();            // logger.on(ErrorEvent), metrics.on(Object)
+ *
+ * Handlers are selected with a MethodSelector (SimpleMethodSpecificityComparator
+ * by default; pass one built with ExtendedMethodComparator for boxing and
+ * varargs). For each event class, the handlers of all subscribers are resolved
+ * once into a route of bound method handles. Registering or unregistering a
+ * subscriber updates the existing routes in place, instead of discarding them.
+ *
+ * Events are either delivered right away, with dispatch, or published into a
+ * pre-sized ring buffer and delivered in batches, by whichever thread calls
+ * drain. Publishing is lock-free and never blocks: it fails when the buffer is
+ * full. Draining is done by one thread at a time. A handler may publish further
+ * events and call drain: that nested drain delivers nothing, and the events are
+ * delivered by the outer one, after those already taken from the buffer.
+ *
+ * Handlers are called with the access rights of this library, or of the
+ * lookup given to the constructor: subscribers of classes the library has no
+ * access to need a lookup from their own code.
+ *
+ * Exceptions thrown by handlers, or while resolving the handlers of an event,
+ * are passed to the exception handler, if any, and delivery goes on (an event
+ * whose handlers cannot be resolved is delivered to none of them). Without an
+ * exception handler, they are collected until dispatch or drain has delivered
+ * every event, and then thrown together: the first one as the cause of a
+ * RuntimeException, the others suppressed by it. An exception thrown by the
+ * exception handler itself ends the drain, and the rest of its batch is lost.
+ */
+public class EventBus {
+    /**
+     * The default ring buffer capacity.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final MethodInvoker methodInvoker;
+    private final MethodSelector selector;
+    private final String handlerName;
+    private final BiConsumer<Throwable, Object> exceptionHandler;
+    private final List<Object> subscribers = new ArrayList<>();
+    private final Map<Class<?>, Route> routes = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<Object> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final Object[] batch;
+    private final Object drainLock = new Object();
+    // guarded by drainLock
+    private boolean draining;
+
+    /**
+     * Creates an event bus for "on" handlers, with the rules of
+     * SimpleMethodSpecificityComparator and a ring buffer of DEFAULT_CAPACITY.
+     * Exceptions thrown by handlers are collected and thrown together.
+     */
+    public EventBus() {
+        this(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Creates an event bus like the default one, that calls handlers with the
+     * access rights of the given lookup.
+     *
+     * @param caller lookup used to bind the handlers
+     */
+    public EventBus(MethodHandles.Lookup caller) {
+        this(caller, new MethodSelector(new SimpleMethodSpecificityComparator()), "on", DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Creates an event bus.
+     *
+     * @param selector selects the handler of a subscriber for an event
+     * @param handlerName name of the handler methods
+     * @param capacity ring buffer capacity (rounded up to a power of two)
+     * @param exceptionHandler receives the exceptions thrown by handlers, and their events
+     *                         (or null, for them to be collected and thrown together)
+     */
+    public EventBus(MethodSelector selector, String handlerName, int capacity, BiConsumer<Throwable, Object> exceptionHandler) {
+        this(MethodHandles.lookup(), selector, handlerName, capacity, exceptionHandler);
+    }
+
+    /**
+     * Creates an event bus that calls handlers with the access rights of the
+     * given lookup.
+     *
+     * @param caller lookup used to bind the handlers
+     * @param selector selects the handler of a subscriber for an event
+     * @param handlerName name of the handler methods
+     * @param capacity ring buffer capacity (rounded up to a power of two)
+     * @param exceptionHandler receives the exceptions thrown by handlers, and their events
+     *                         (or null, for them to be collected and thrown together)
+     */
+    public EventBus(MethodHandles.Lookup caller, MethodSelector selector, String handlerName, int capacity,
+            BiConsumer<Throwable, Object> exceptionHandler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.methodInvoker = new MethodInvoker(caller);
+        this.selector = selector;
+        this.handlerName = handlerName;
+        this.exceptionHandler = exceptionHandler;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.batch = new Object[size];
+    }
+
+    /**
+     * Registers a subscriber (once, even if registered again).
+     * Routes computed so far are extended with its handlers.
+     *
+     * @param subscriber the object whose handlers receive events
+     */
+    public synchronized void register(Object subscriber) {
+        for (Object other : subscribers) {
+            if (other == subscriber) {
+                return;
+            }
+        }
+        subscribers.add(subscriber);
+
+        for (Map.Entry<Class<?>, Route> entry : routes.entrySet()) {
+            Route route = entry.getValue();
+            Object sample = route.sample.get();
+
+            if (sample == null) {
+                // no event of this class left to resolve with, so resolve again on its next event
+                routes.remove(entry.getKey());
+                continue;
+            }
+
+            Handler handler = resolve(subscriber, sample);
+            if (handler != null) {
+                Handler[] handlers = Arrays.copyOf(route.handlers, route.handlers.length + 1);
+                handlers[route.handlers.length] = handler;
+                entry.setValue(new Route(handlers, route.sample));
+            }
+        }
+    }
+
+    /**
+     * Unregisters a subscriber. Its handlers are removed from the routes
+     * computed so far.
+     *
+     * @param subscriber a registered subscriber
+     * @return true if it was registered
+     */
+    public synchronized boolean unregister(Object subscriber) {
+        if (!subscribers.removeIf(other -> other == subscriber)) {
+            return false;
+        }
+
+        for (Map.Entry<Class<?>, Route> entry : routes.entrySet()) {
+            Route route = entry.getValue();
+            Handler[] handlers = Arrays.stream(route.handlers)
+                .filter(handler -> handler.subscriber != subscriber)
+                .toArray(Handler[]::new);
+
+            if (handlers.length != route.handlers.length) {
+                entry.setValue(new Route(handlers, route.sample));
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Delivers an event to its handlers, on the calling thread.
+     *
+     * @param event the event
+     * @throws RuntimeException if some handler threw, or the handlers could not
+     * be resolved, and there is no exception handler
+     */
+    public void dispatch(Object event) {
+        Route route;
+        try {
+            route = routeFor(event);
+        } catch (RuntimeException e) {
+            throwIfAny(fail(e, event, null));
+            return;
+        }
+
+        throwIfAny(deliver(event, route, null));
+    }
+
+    /**
+     * Adds an event to the ring buffer, to be delivered by drain.
+     *
+     * @param event the event
+     * @return false if the buffer is full (and the event was not added)
+     */
+    public boolean publish(Object event) {
+        if (event == null) {
+            throw new NullPointerException("event");
+        }
+
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                ring.lazySet((int) claimed & mask, event);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Delivers the events published so far, in publication order, on the
+     * calling thread. Events are taken from the buffer in batches, and
+     * consecutive events of the same class share a route lookup.
+     *
+     * @return the number of events delivered (0 if called by a handler, during a drain)
+     * @throws RuntimeException if some handler threw, or the handlers of some
+     * event could not be resolved, and there is no exception handler
+     */
+    public int drain() {
+        synchronized (drainLock) {
+            if (draining) {
+                // the batch is in use: the outer drain goes on until the buffer is empty
+                return 0;
+            }
+
+            draining = true;
+            try {
+                return drainBatches();
+            } finally {
+                draining = false;
+            }
+        }
+    }
+
+    private int drainBatches() {
+        int delivered = 0;
+        List<Throwable> failures = null;
+
+        while (true) {
+            int count = 0;
+            long next = head;
+            while (count < batch.length) {
+                int slot = (int) next & mask;
+                Object event = ring.get(slot);
+                if (event == null) {
+                    // empty, or claimed but not yet written
+                    break;
+                }
+
+                ring.lazySet(slot, null);
+                batch[count++] = event;
+                next++;
+            }
+            // frees the slots for publishers
+            head = next;
+
+            if (count == 0) {
+                throwIfAny(failures);
+                return delivered;
+            }
+
+            Class<?> routeClass = null;
+            Route route = null;
+            int i = 0;
+            try {
+                for (; i < count; i++) {
+                    Object event = batch[i];
+                    batch[i] = null;
+
+                    if (event.getClass() != routeClass) {
+                        try {
+                            route = routeFor(event);
+                            routeClass = event.getClass();
+                        } catch (RuntimeException e) {
+                            // the next event of this class tries again
+                            routeClass = null;
+                            failures = fail(e, event, failures);
+                            continue;
+                        }
+                    }
+                    failures = deliver(event, route, failures);
+                }
+            } finally {
+                // only left over if the exception handler threw: not kept reachable
+                Arrays.fill(batch, i, count, null);
+            }
+            delivered += count;
+        }
+    }
+
+    /**
+     * @return the number of events published and not yet drained
+     */
+    public int pendingCount() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * @return the number of event classes with a computed route
+     */
+    public int routeCount() {
+        return routes.size();
+    }
+
+    /**
+     * @return the given failures, with those of this delivery added when there is no exception handler
+     */
+    private List<Throwable> deliver(Object event, Route route, List<Throwable> failures) {
+        for (Handler handler : route.handlers) {
+            try {
+                handler.handle.invokeExact(event);
+            } catch (Throwable e) {
+                failures = fail(e, event, failures);
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * @return the given failures, with this one added when there is no exception handler
+     */
+    private List<Throwable> fail(Throwable e, Object event, List<Throwable> failures) {
+        if (exceptionHandler != null) {
+            exceptionHandler.accept(e, event);
+            return failures;
+        }
+
+        if (failures == null) {
+            failures = new ArrayList<>();
+        }
+        failures.add(e);
+        return failures;
+    }
+
+    private static void throwIfAny(List<Throwable> failures) {
+        if (failures == null) {
+            return;
+        }
+
+        RuntimeException e = new RuntimeException(failures.size() + " event handler(s) failed", failures.get(0));
+        for (int i = 1; i < failures.size(); i++) {
+            e.addSuppressed(failures.get(i));
+        }
+
+        throw e;
+    }
+
+    private Route routeFor(Object event) {
+        Route route = routes.get(event.getClass());
+        if (route == null) {
+            route = computeRoute(event);
+        }
+
+        return route;
+    }
+
+    private synchronized Route computeRoute(Object event) {
+        // under the registration lock, so that no subscriber is missed by this route
+        Route route = routes.get(event.getClass());
+        if (route != null) {
+            return route;
+        }
+
+        List<Handler> handlers = new ArrayList<>();
+        for (Object subscriber : subscribers) {
+            Handler handler = resolve(subscriber, event);
+            if (handler != null) {
+                handlers.add(handler);
+            }
+        }
+
+        route = new Route(handlers.toArray(new Handler[0]), new WeakReference<>(event));
+        routes.put(event.getClass(), route);
+        return route;
+    }
+
+    /**
+     * @return the handler of the subscriber for events of the same class as the
+     * given one, or null if it has none
+     */
+    private Handler resolve(Object subscriber, Object event) {
+        Method method = selector.findMethod(subscriber.getClass(), handlerName, event);
+        if (method == null) {
+            return null;
+        }
+
+        try {
+            MethodHandle handle = methodInvoker.unary(method, event.getClass()).bindTo(subscriber);
+            return new Handler(subscriber, handle.asType(HANDLER_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Handler {
+        private final Object subscriber;
+        private final MethodHandle handle;
+
+        private Handler(Object subscriber, MethodHandle handle) {
+            this.subscriber = subscriber;
+            this.handle = handle;
+        }
+    }
+
+    private static class Route {
+        private final Handler[] handlers;
+        private final WeakReference<Object> sample;
+
+        private Route(Handler[] handlers, WeakReference<Object> sample) {
+            this.handlers = handlers;
+            this.sample = sample;
+        }
+    }
+}
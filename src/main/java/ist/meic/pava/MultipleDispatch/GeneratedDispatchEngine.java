@@ -0,0 +1,274 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * A dispatch engine that keeps the selections of each generic function in a
+ * ResolutionCache, and calls each selected method through a class generated
+ * for it, which calls the method directly (as compiled code would).
+ *
+ * Classes are spun with LambdaMetafactory, as implementations of fixed-arity
+ * functional interfaces taking the receiver (unless static) and up to
+ * MAX_SLOTS - 1 arguments. Methods it cannot generate classes for (void,
+ * too many parameters, classes not visible to this engine, or not accessible
+ * to it) are called through MethodHandles, as MethodHandleDispatchEngine does.
+ *
+ * Exceptions thrown by the called methods are wrapped as Method.invoke does.
+ *
+ * @see DispatchEngines#GENERATED
+ */
+public final class GeneratedDispatchEngine implements DispatchEngine {
+    static final int MAX_SLOTS = 5;
+
+    private static final Class<?>[] FUNCTION_TYPES = { Fn0.class, Fn1.class, Fn2.class, Fn3.class, Fn4.class, Fn5.class };
+    private static final Generator engineGenerator = new Generator(MethodHandles.lookup());
+
+    @Override
+    public String getName() {
+        return DispatchEngines.GENERATED;
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        return createDispatcher(selector, name, argumentPreparer, engineGenerator);
+    }
+
+    /**
+     * Classes are generated in the package of the caller, which needs full
+     * (private) access, e.g. a lookup from MethodHandles.lookup(). Otherwise
+     * methods are called through MethodHandles with the caller's access rights.
+     */
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller) {
+        return createDispatcher(selector, name, argumentPreparer, new Generator(caller));
+    }
+
+    private static Dispatcher createDispatcher(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            Generator generator) {
+        ResolutionCache cache = new ResolutionCache(selector, name);
+        // the calls of the methods selected so far, which saves going through the generator on each call
+        ConcurrentMap<Method, Call> calls = new ConcurrentHashMap<>();
+
+        return (receiverClass, receiver, args) -> {
+            Method method;
+            try {
+                method = cache.resolve(receiverClass, args);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+
+            Call call = calls.get(method);
+            if (call == null) {
+                call = calls.computeIfAbsent(method, generator::callFor);
+            }
+            // argument preparation failures are not the method's
+            Object[] preparedArgs = argumentPreparer.apply(method, args);
+            try {
+                return call.call(receiver, preparedArgs);
+            } catch (Throwable e) {
+                throw new RuntimeException(new InvocationTargetException(e));
+            }
+        };
+    }
+
+    /**
+     * @param method a method
+     * @return true if calls of the method go through a generated class
+     */
+    static boolean isGenerated(Method method) {
+        return !(engineGenerator.callFor(method) instanceof HandleCall);
+    }
+
+    /**
+     * @param method a method
+     * @param caller lookup of the caller
+     * @return true if calls of the method, with the caller's lookup, go through a generated class
+     */
+    static boolean isGenerated(Method method, MethodHandles.Lookup caller) {
+        return !(new Generator(caller).callFor(method) instanceof HandleCall);
+    }
+
+    private static Call spread(Object function, int slots, boolean isStatic) {
+        switch (slots) {
+            case 0: {
+                Fn0 f = (Fn0) function;
+                return (r, a) -> f.call();
+            }
+            case 1: {
+                Fn1 f = (Fn1) function;
+                return isStatic ? (r, a) -> f.call(a[0]) : (r, a) -> f.call(r);
+            }
+            case 2: {
+                Fn2 f = (Fn2) function;
+                return isStatic ? (r, a) -> f.call(a[0], a[1]) : (r, a) -> f.call(r, a[0]);
+            }
+            case 3: {
+                Fn3 f = (Fn3) function;
+                return isStatic ? (r, a) -> f.call(a[0], a[1], a[2]) : (r, a) -> f.call(r, a[0], a[1]);
+            }
+            case 4: {
+                Fn4 f = (Fn4) function;
+                return isStatic ? (r, a) -> f.call(a[0], a[1], a[2], a[3]) : (r, a) -> f.call(r, a[0], a[1], a[2]);
+            }
+            default: {
+                Fn5 f = (Fn5) function;
+                return isStatic ? (r, a) -> f.call(a[0], a[1], a[2], a[3], a[4]) : (r, a) -> f.call(r, a[0], a[1], a[2], a[3]);
+            }
+        }
+    }
+
+    /**
+     * A call of a selected method, given the receiver and the prepared arguments.
+     */
+    @FunctionalInterface
+    private static interface Call {
+        Object call(Object receiver, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Generates the calls of methods with the access rights of a lookup, and
+     * keeps them per declaring class.
+     */
+    private static class Generator {
+        private final MethodHandles.Lookup lookup;
+        private final MethodInvoker invoker;
+        private final ClassValue<ConcurrentMap<Method, Call>> calls = new ClassValue<ConcurrentMap<Method, Call>>() {
+            @Override
+            protected ConcurrentMap<Method, Call> computeValue(Class<?> declaringClass) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        private Generator(MethodHandles.Lookup lookup) {
+            this.lookup = lookup;
+            this.invoker = new MethodInvoker(lookup);
+        }
+
+        private Call callFor(Method method) {
+            ConcurrentMap<Method, Call> declared = calls.get(method.getDeclaringClass());
+            Call call = declared.get(method);
+
+            if (call == null) {
+                call = declared.computeIfAbsent(method, this::generate);
+            }
+
+            return call;
+        }
+
+        private Call generate(Method method) {
+            boolean isStatic = Modifier.isStatic(method.getModifiers());
+            int slots = method.getParameterCount() + (isStatic ? 0 : 1);
+
+            if (slots > MAX_SLOTS || method.getReturnType() == void.class || !isVisible(method)) {
+                return new HandleCall(invoker, method);
+            }
+
+            try {
+                MethodHandle impl = lookup.unreflect(method);
+                Object function = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(FUNCTION_TYPES[slots]),
+                        MethodType.genericMethodType(slots), impl, impl.type().wrap())
+                    .getTarget()
+                    .invoke();
+
+                return spread(function, slots, isStatic);
+            } catch (Throwable e) {
+                // e.g. IllegalAccessException or LambdaConversionException: calling through a handle still works
+                return new HandleCall(invoker, method);
+            }
+        }
+
+        /**
+         * The generated class refers to the declaring class and the parameter
+         * types by name, so they must resolve to the same classes from the
+         * class loader of the lookup.
+         */
+        private boolean isVisible(Method method) {
+            if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+                return false;
+            }
+
+            for (Class<?> type : method.getParameterTypes()) {
+                if (!isVisible(type)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean isVisible(Class<?> type) {
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+
+            if (type.isPrimitive() || type.getClassLoader() == null) {
+                return true;
+            }
+
+            try {
+                return Class.forName(type.getName(), false, lookup.lookupClass().getClassLoader()) == type;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+    }
+
+    private static class HandleCall implements Call {
+        private final MethodHandle handle;
+
+        private HandleCall(MethodInvoker invoker, Method method) {
+            this.handle = MethodHandleDispatchEngine.handleFor(invoker, method);
+        }
+
+        @Override
+        public Object call(Object receiver, Object[] args) throws Throwable {
+            return (Object) handle.invokeExact(receiver, args);
+        }
+    }
+
+    /*
+     * The functional interfaces implemented by the generated classes, which
+     * are public only so that classes generated in other packages (with the
+     * lookup of a caller) can implement them.
+     */
+
+    @FunctionalInterface
+    public static interface Fn0 {
+        Object call();
+    }
+
+    @FunctionalInterface
+    public static interface Fn1 {
+        Object call(Object a0);
+    }
+
+    @FunctionalInterface
+    public static interface Fn2 {
+        Object call(Object a0, Object a1);
+    }
+
+    @FunctionalInterface
+    public static interface Fn3 {
+        Object call(Object a0, Object a1, Object a2);
+    }
+
+    @FunctionalInterface
+    public static interface Fn4 {
+        Object call(Object a0, Object a1, Object a2, Object a3);
+    }
+
+    @FunctionalInterface
+    public static interface Fn5 {
+        Object call(Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+}
@@ -0,0 +1,149 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * A handle to a generic function: a method name bound to a receiver type.
+ *
+ * With the default engine, the handle keeps its own resolution cache, so
+ * repeated calls with the same receiver and argument classes skip candidate
+ * finding and method comparison altogether. Handles are thread-safe and meant to be kept around, e.g. in a
+ * static final field:
+ *
+ *     static final GenericFunction&lt;String&gt; DRAW = GenericFunction.of(Device.class, "draw");
+ *     ...
+ *     String res = DRAW.invoke(device, shape, brush);
+ *
+ * Calls go through a DispatchEngine, initially the default one (see
+ * DispatchEngines), which may be replaced at any time with setEngine, e.g. to
+ * try a faster engine on a hot generic function.
+ *
+ * Not guaranteed to autobox/unbox arguments, nor to support variadic method calls.
+ * @see ist.meic.pava.MultipleDispatchExtended.GenericFunction for the extended version.
+ * @see UsingMultipleDispatch
+ */
+public class GenericFunction<R> {
+    private final Class<?> receiverType;
+    private final String name;
+    private final MethodSelector selector;
+    private volatile DispatchEngine engine;
+    private volatile DispatchEngine.Dispatcher dispatcher;
+    private MethodHandles.Lookup caller;
+
+    /**
+     * Creates a new generic function handle.
+     *
+     * @param receiverType the type every receiver must be an instance of.
+     * @param name name of the method.
+     * @param selector method selector used to resolve uncached calls.
+     */
+    protected GenericFunction(Class<?> receiverType, String name, MethodSelector selector) {
+        this.receiverType = receiverType;
+        this.name = name;
+        this.selector = selector;
+        setEngine(DispatchEngines.getDefault());
+    }
+
+    /**
+     * Creates a generic function handle with the same dispatch rules as UsingMultipleDispatch.
+     *
+     * @param receiverType the type every receiver must be an instance of.
+     * @param name name of the method.
+     * @param <R> return type of the generic function.
+     * @return the generic function handle
+     */
+    public static <R> GenericFunction<R> of(Class<?> receiverType, String name) {
+        return new GenericFunction<>(receiverType, name, new MethodSelector(new SimpleMethodSpecificityComparator()));
+    }
+
+    /**
+     * Invokes the generic function on the given receiver and arguments.
+     * Implements dynamic dispatch on the arguments (Java only does it for the receiver).
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws IllegalArgumentException if the receiver is not an instance of the receiver type
+     * @throws RuntimeException when any exceptions occur when invoking the method, and when the method does not exist/is inaccessible
+     */
+    @SuppressWarnings("unchecked")
+    public R invoke(Object receiver, Object... args) {
+        if (!receiverType.isInstance(receiver)) {
+            throw new IllegalArgumentException("receiver is not an instance of " + receiverType.getName());
+        }
+
+        return (R) dispatcher.invoke(receiver.getClass(), receiver, args);
+    }
+
+    /**
+     * Makes further calls go through the given engine. The selections of the
+     * previous engine are discarded.
+     *
+     * @param engine dispatch engine
+     */
+    public synchronized void setEngine(DispatchEngine engine) {
+        this.dispatcher = caller == null
+            ? engine.dispatcherFor(selector, name, this::prepareArguments)
+            : engine.dispatcherFor(selector, name, this::prepareArguments, caller);
+        this.engine = engine;
+    }
+
+    /**
+     * Makes further calls use the access rights of the given lookup, with
+     * any engine (see DispatchEngine), e.g. to call methods of non-public
+     * classes of the caller's package.
+     *
+     * @param caller lookup of the caller, e.g. MethodHandles.lookup().
+     * @return this generic function
+     */
+    public synchronized GenericFunction<R> withLookup(MethodHandles.Lookup caller) {
+        this.caller = caller;
+        setEngine(engine);
+        return this;
+    }
+
+    /**
+     * Makes further calls go through the engine with the given name.
+     *
+     * @param engineName name of the dispatch engine
+     * @throws IllegalArgumentException if there is no such engine
+     * @see DispatchEngines#get(String)
+     */
+    public void setEngine(String engineName) {
+        setEngine(DispatchEngines.get(engineName));
+    }
+
+    /**
+     * @return the engine calls go through
+     */
+    public DispatchEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Transforms the argument list before calling the given method.
+     * The default implementation passes the arguments as they are.
+     *
+     * @param method method to call
+     * @param args arguments list
+     * @return arguments to pass to Method.invoke
+     */
+    protected Object[] prepareArguments(Method method, Object[] args) {
+        return args;
+    }
+
+    /**
+     * @return the type every receiver must be an instance of
+     */
+    public Class<?> getReceiverType() {
+        return receiverType;
+    }
+
+    /**
+     * @return the name of the method
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,105 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiFunction;
+
+/**
+ * Invokes methods with multiple dispatch and the access rights of the caller.
+ *
+ * Method.invoke checks access on every call, with the rights of the front-end,
+ * so it fails for public methods of classes that are not public themselves.
+ * Instead, each selected method is unreflected once with the caller's lookup,
+ * and later calls go through the cached handle without any access check. The
+ * caller must have access to the methods (a lookup from MethodHandles.lookup()
+ * reaches everything its class could call directly).
+ *
+ * Created by the front-end, e.g. kept in a static final field:
+ *
+ *     static final LookupInvoker DISPATCH = UsingMultipleDispatch.withLookup(MethodHandles.lookup());
+ *     ...
+ *     Object res = DISPATCH.invoke(device, "draw", shape, brush);
+ *
+ * @see UsingMultipleDispatch#withLookup(MethodHandles.Lookup)
+ * @see ist.meic.pava.MultipleDispatchExtended.LookupInvoker for the extended dispatch rules, and static methods.
+ */
+public class LookupInvoker {
+    private final MethodSelector selector;
+    private final BiFunction<Method, Object[], Object[]> argumentPreparer;
+    private final MethodInvoker methodInvoker;
+
+    /**
+     * @param caller lookup with the access rights to call the methods with.
+     * @param selector method selector.
+     * @param argumentPreparer transforms the arguments before calling the selected method (e.g. to build varargs arrays).
+     */
+    public LookupInvoker(MethodHandles.Lookup caller, MethodSelector selector, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        this.selector = selector;
+        this.argumentPreparer = argumentPreparer;
+        this.methodInvoker = new MethodInvoker(caller);
+    }
+
+    /**
+     * Invokes a method by receiver, name and arguments, as the front-end's invoke.
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws RuntimeException when any exceptions occur when invoking the method (wrapped in an
+     *         InvocationTargetException), and when the method does not exist/is inaccessible
+     */
+    public Object invoke(Object receiver, String name, Object... args) {
+        return call(selector, receiver.getClass(), receiver, name, args);
+    }
+
+    /**
+     * Same as invoke, but lets any exception thrown by the method propagate
+     * unchanged (even checked ones).
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws RuntimeException when the method does not exist/is inaccessible
+     */
+    public Object invokeUnwrapped(Object receiver, String name, Object... args) {
+        try {
+            Method method = selector.selectMethod(receiver.getClass(), name, args);
+            return methodInvoker.invoke(method, receiver, argumentPreparer.apply(method, args));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Selects and calls a method through its cached handle.
+     *
+     * @param selector method selector.
+     * @param receiverClass the class of the receiver, or of the method if static.
+     * @param receiver receiver object (null for static methods).
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws RuntimeException as invoke
+     */
+    protected Object call(MethodSelector selector, Class<?> receiverClass, Object receiver, String name, Object[] args) {
+        MethodHandle handle;
+        Object[] preparedArgs;
+        try {
+            Method method = selector.selectMethod(receiverClass, name, args);
+            handle = methodInvoker.handleFor(method);
+            preparedArgs = argumentPreparer.apply(method, args);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+
+        try {
+            return (Object) handle.invokeExact(receiver, preparedArgs);
+        } catch (Throwable e) {
+            throw new RuntimeException(new InvocationTargetException(e));
+        }
+    }
+}
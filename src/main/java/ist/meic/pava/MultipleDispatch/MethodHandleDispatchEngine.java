@@ -0,0 +1,95 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiFunction;
+
+/**
+ * A dispatch engine that keeps the selections of each generic function in a
+ * ResolutionCache, and calls through MethodHandles, cached per method by a
+ * MethodInvoker (of the engine, or one per dispatcher with the caller's
+ * lookup, if given). Exceptions thrown by the called methods are wrapped as
+ * Method.invoke does, so this engine behaves like the reflective ones.
+ *
+ * @see DispatchEngines#METHOD_HANDLE
+ */
+public final class MethodHandleDispatchEngine implements DispatchEngine {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+
+    @Override
+    public String getName() {
+        return DispatchEngines.METHOD_HANDLE;
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        return createDispatcher(selector, name, argumentPreparer, methodInvoker);
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller) {
+        return createDispatcher(selector, name, argumentPreparer, new MethodInvoker(caller));
+    }
+
+    private static Dispatcher createDispatcher(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodInvoker invoker) {
+        ResolutionCache cache = new ResolutionCache(selector, name);
+
+        return (receiverClass, receiver, args) -> {
+            Method method;
+            try {
+                method = cache.resolve(receiverClass, args);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+
+            return call(invoker, method, receiver, argumentPreparer.apply(method, args));
+        };
+    }
+
+    /**
+     * Calls a method through its handle, wrapping its exceptions as Method.invoke does.
+     *
+     * @param invoker method invoker, which caches the handle
+     * @param method method to call
+     * @param receiver receiver object (ignored for static methods).
+     * @param preparedArgs arguments, matching the method's parameters.
+     * @return object returned by the method (null for void methods).
+     * @throws RuntimeException wrapping an IllegalAccessException if there is no access to the method,
+     *         or an InvocationTargetException if the method throws
+     */
+    static Object call(MethodInvoker invoker, Method method, Object receiver, Object[] preparedArgs) {
+        MethodHandle handle = handleFor(invoker, method);
+        try {
+            return (Object) handle.invokeExact(receiver, preparedArgs);
+        } catch (Throwable e) {
+            throw new RuntimeException(new InvocationTargetException(e));
+        }
+    }
+
+    /**
+     * @param method method to call
+     * @return the handle of the method, of type (Object receiver, Object[] args)Object
+     * @throws RuntimeException wrapping an IllegalAccessException if there is no access to the method
+     */
+    static MethodHandle handleFor(Method method) {
+        return handleFor(methodInvoker, method);
+    }
+
+    /**
+     * @param invoker method invoker, which caches the handle
+     * @param method method to call
+     * @return the handle of the method, of type (Object receiver, Object[] args)Object
+     * @throws RuntimeException wrapping an IllegalAccessException if there is no access to the method
+     */
+    static MethodHandle handleFor(MethodInvoker invoker, Method method) {
+        try {
+            return invoker.handleFor(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Calls selected methods through cached MethodHandles.
+ *
+ * Unlike Method.invoke, exceptions thrown by the called method are propagated
+ * as they are, without an InvocationTargetException around them (checked
+ * exceptions included, even though invoke does not declare them).
+ *
+ * Each method is unreflected once, with the access rights of the given lookup,
+ * and adapted to the uniform (Object receiver, Object[] args)Object type, so
+ * calls run no access checks. Access checks are never suppressed: methods the
+ * lookup has no access to cannot be called.
+ */
+public class MethodInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandles.Lookup lookup;
+    private final ConcurrentMap<Method, MethodHandle> handles = new ConcurrentHashMap<>();
+
+    /**
+     * @param lookup lookup used to unreflect the methods
+     */
+    public MethodInvoker(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Calls the given method.
+     *
+     * @param method method to call
+     * @param receiver receiver object (ignored for static methods).
+     * @param args arguments, matching the method's parameters.
+     * @return object returned by the method (null for void methods).
+     * @throws IllegalAccessException if the lookup has no access to the method.
+     */
+    public Object invoke(Method method, Object receiver, Object[] args) throws IllegalAccessException {
+        MethodHandle handle = handleFor(method);
+
+        try {
+            return (Object) handle.invokeExact(receiver, args);
+        } catch (Throwable e) {
+            throw MethodInvoker.<RuntimeException>sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Binds the given receiver to the handle of a method, for use with invokeBound.
+     *
+     * @param method method to call
+     * @param receiver receiver object (ignored for static methods).
+     * @return a handle of type (Object[] args)Object
+     * @throws IllegalAccessException if the lookup has no access to the method.
+     */
+    public MethodHandle bind(Method method, Object receiver) throws IllegalAccessException {
+        return handleFor(method).bindTo(receiver);
+    }
+
+    /**
+     * Calls a handle of type (Object[] args)Object, such as those returned by
+     * bind, propagating its exceptions unchanged.
+     *
+     * @param boundHandle handle of type (Object[])Object
+     * @param args arguments, matching the method's parameters.
+     * @return object returned by the method (null for void methods).
+     */
+    public static Object invokeBound(MethodHandle boundHandle, Object[] args) {
+        try {
+            return (Object) boundHandle.invokeExact(args);
+        } catch (Throwable e) {
+            throw MethodInvoker.<RuntimeException>sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Adapts a non-static method, selected for calls with a single argument of
+     * the given class, to the type (Object receiver, Object arg)Object.
+     *
+     * If the method is variadic and the argument is not its varargs array, the
+     * argument is passed in a varargs array of its own (or, if the method has a
+     * regular parameter for it, the varargs array is empty).
+     *
+     * @param method method to call
+     * @param argClass class of the argument
+     * @return the adapted handle
+     * @throws IllegalAccessException if the lookup has no access to the method.
+     */
+    public MethodHandle unary(Method method, Class<?> argClass) throws IllegalAccessException {
+        MethodHandle handle = lookup.unreflect(method).asFixedArity();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+
+        if (method.isVarArgs() && !(parameterTypes.length == 1 && parameterTypes[0].isAssignableFrom(argClass))) {
+            Class<?> varargsType = parameterTypes[parameterTypes.length - 1];
+            handle = parameterTypes.length == 1
+                ? handle.asCollector(varargsType, 1)
+                : MethodHandles.insertArguments(handle, 2, Array.newInstance(varargsType.getComponentType(), 0));
+        }
+
+        return handle.asType(MethodType.genericMethodType(2));
+    }
+
+    /**
+     * @param method method to call
+     * @return the cached handle of the method, of type (Object receiver, Object[] args)Object
+     * @throws IllegalAccessException if the lookup has no access to the method.
+     */
+    public MethodHandle handleFor(Method method) throws IllegalAccessException {
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            handle = adapt(method);
+            handles.putIfAbsent(method, handle);
+        }
+
+        return handle;
+    }
+
+    private MethodHandle adapt(Method method) throws IllegalAccessException {
+        // varargs methods get the array already built, so they must not collect it again
+        MethodHandle handle = lookup.unreflect(method).asFixedArity();
+        int parameterCount = method.getParameterCount();
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = handle.asType(MethodType.genericMethodType(parameterCount))
+                .asSpreader(Object[].class, parameterCount);
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        } else {
+            handle = handle.asType(MethodType.genericMethodType(parameterCount + 1))
+                .asSpreader(Object[].class, parameterCount);
+        }
+
+        return handle.asType(INVOKER_TYPE);
+    }
+
+    /**
+     * Throws any exception without declaring it, for use as
+     * "throw MethodInvoker.sneakyThrow(e);".
+     *
+     * @param e the exception to throw
+     * @param <T> inferred as RuntimeException
+     * @return never returns
+     * @throws T always
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Throwable> RuntimeException sneakyThrow(Throwable e) throws T {
+        throw (T) e;
+    }
+}
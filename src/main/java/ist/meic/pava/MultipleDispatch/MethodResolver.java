@@ -0,0 +1,21 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+
+/**
+ * Resolves the method to call for a fixed receiver class and method name,
+ * given only the call arguments.
+ *
+ * Used by dispatch tables to fill their missing entries.
+ *
+ * @see MethodSelector#selectMethod(Class, String, Object...)
+ */
+@FunctionalInterface
+public interface MethodResolver {
+    /**
+     * @param args call arguments.
+     * @return the selected Method
+     * @throws NoSuchMethodException if no matching method could be found.
+     */
+    public Method resolve(Object[] args) throws NoSuchMethodException;
+}
@@ -2,6 +2,7 @@ package ist.meic.pava.MultipleDispatch;
 
 import java.lang.reflect.Method;
 import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.*;
@@ -16,10 +17,19 @@ import java.util.*;
  * Both the candidate method source and comparator are configurable.
  * When only a partial comparator is available, it will be transformed into a full total order.
  * See constructor documentation for more details.
+ *
+ * When the candidate source supports it for the given partial comparator, a
+ * method whose parameter types are exactly the classes of the arguments is
+ * selected right away, if it is sure to be the greatest candidate (see
+ * CandidateMethodFinder.findExactMatch). Other calls fall through to the two
+ * stages above. Both outcomes are counted.
  */
 public class MethodSelector {
     private Comparator<Method> comparator;
     private CandidateMethodFinder candidateSource;
+    private boolean findsExactMatches;
+    private final LongAdder exactMatchHits = new LongAdder();
+    private final LongAdder exactMatchFallThroughs = new LongAdder();
 
     /**
      * Creates a new MethodSelector with the given method comparator and candidate
@@ -54,6 +64,7 @@ public class MethodSelector {
      */
     public MethodSelector(PartialComparator<Method> partialComparator, CandidateMethodFinder candidateSource) {
         this(makeTotalOrder(partialComparator), candidateSource);
+        this.findsExactMatches = candidateSource.supportsExactMatches(partialComparator);
     }
 
     /**
@@ -90,9 +101,70 @@ public class MethodSelector {
      * @throws NoSuchMethodException if no matching method could be found.
      */
     public Method selectMethod(Class<?> receiverClass, String name, Object... args) throws NoSuchMethodException {
+        Method method = findMethod(receiverClass, name, args);
+
+        if (method == null) {
+            throw buildNoSuchMethodException(receiverClass, args);
+        }
+
+        return method;
+    }
+
+    /**
+     * Selects the best method for the given receiver, name and arguments, like
+     * selectMethod, but returns null instead of throwing when there is none.
+     *
+     * This is the cheap way to probe whether a call is applicable.
+     *
+     * @param receiverClass the class of the receiver object.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return the selected Method, or null if no matching method could be found.
+     * @see #selectMethod(Class, String, Object...)
+     */
+    public Method findMethod(Class<?> receiverClass, String name, Object... args) {
+        if (findsExactMatches) {
+            Method method = candidateSource.findExactMatch(receiverClass, name, args);
+            if (method != null) {
+                exactMatchHits.increment();
+                return method;
+            }
+
+            exactMatchFallThroughs.increment();
+        }
+
         return candidateSource.findCandidates(receiverClass, name, args)
             .max(comparator)
-            .orElseThrow(() -> buildNoSuchMethodException(receiverClass, args));
+            .orElse(null);
+    }
+
+    /**
+     * @return the number of selections that took the exact match of their arguments
+     */
+    public long getExactMatchHits() {
+        return exactMatchHits.sum();
+    }
+
+    /**
+     * @return the number of selections that looked for an exact match of their arguments,
+     *         but fell through to the full candidate search
+     */
+    public long getExactMatchFallThroughs() {
+        return exactMatchFallThroughs.sum();
+    }
+
+    /**
+     * Builds the projection of argument classes for calls with the given
+     * receiver class, name and number of arguments.
+     *
+     * @param receiverClass the class of the receiver object.
+     * @param name name of the method to call.
+     * @param arity number of call arguments.
+     * @return the projection, or null if the candidate finder does not support it
+     * @see CandidateMethodFinder#projectionFor(Class, String, int)
+     */
+    public TypeProjection projectionFor(Class<?> receiverClass, String name, int arity) {
+        return candidateSource.projectionFor(receiverClass, name, arity);
     }
 
     /**
@@ -102,12 +174,10 @@ public class MethodSelector {
      * @return array with each object's Class
      */
     public static Class<?>[] getObjectTypes(Object[] objects) {
-        List<Class<?>> objectTypesList = Arrays.stream(objects)
-            .map(Object::getClass)
-            .collect(Collectors.toList());
-
-        Class<?>[] objectTypes = new Class[objectTypesList.size()];
-        objectTypes = objectTypesList.toArray(objectTypes);
+        Class<?>[] objectTypes = new Class<?>[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            objectTypes[i] = objects[i].getClass();
+        }
 
         return objectTypes;
     }
@@ -119,7 +189,7 @@ public class MethodSelector {
      * @param args the arguments supplied to the method.
      * @return NoSuchMethodException with the corresponding message.
      */
-    private static NoSuchMethodException buildNoSuchMethodException(Class<?> receiverType, Object[] args) {
+    protected static NoSuchMethodException buildNoSuchMethodException(Class<?> receiverType, Object[] args) {
         return new NoSuchMethodException(buildNoSuchMethodExceptionMessage(receiverType, args));
     }
 
@@ -150,7 +220,7 @@ public class MethodSelector {
      * @param partialComparator partial method comparator
      * @return method comparator
      */
-    private static Comparator<Method> makeTotalOrder(PartialComparator<Method> partialComparator) {
+    public static Comparator<Method> makeTotalOrder(PartialComparator<Method> partialComparator) {
         return (lhs, rhs) -> {
             PartialOrdering partialOrd = partialComparator.compare(lhs, rhs);
 
@@ -187,6 +257,47 @@ public class MethodSelector {
          * @return stream of candidate methods
          */
         public Stream<Method> findCandidates(Class<?> receiverClass, String name, Object[] args);
+
+        /**
+         * Describes which parameter types this finder may test the arguments of
+         * a call against, so that caches can be keyed by their projections.
+         *
+         * @param receiverClass the class of the receiver which declares the method.
+         * @param name name of the method to call.
+         * @param arity number of call arguments.
+         * @return the projection, or null if argument classes must not be projected
+         * @see TypeProjection
+         */
+        public default TypeProjection projectionFor(Class<?> receiverClass, String name, int arity) {
+            return null;
+        }
+
+        /**
+         * Determines whether findExactMatch may be used for selections with the
+         * given ordering. Selectors ask once, when created.
+         *
+         * @param ordering the partial method comparator of the selector.
+         * @return true if findExactMatch knows when its methods are the greatest under that ordering
+         */
+        public default boolean supportsExactMatches(PartialComparator<Method> ordering) {
+            return false;
+        }
+
+        /**
+         * Finds the candidate whose parameter types are exactly the classes of
+         * the arguments, provided no other candidate could be greater under the
+         * ordering this finder supports exact matches for. It is then the method
+         * the full selection would choose.
+         *
+         * @param receiverClass the class of the receiver which declares the method.
+         * @param name name of the method to call.
+         * @param args method call arguments.
+         * @return the exact match, or null if there is none or it may not be the greatest candidate
+         * @see #supportsExactMatches(PartialComparator)
+         */
+        public default Method findExactMatch(Class<?> receiverClass, String name, Object[] args) {
+            return null;
+        }
     }
 
 }
@@ -0,0 +1,244 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * An open multimethod: a generic function whose implementations are registered
+ * at runtime, per tuple of parameter types, instead of being declared as methods.
+ *
+ * This makes it possible to add operations to class hierarchies one does not own:
+ *
+ *     MultiMethod&lt;String&gt; intersect = new MultiMethod&lt;&gt;();
+ *     intersect.register(Shape.class, Shape.class, (a, b) -&gt; "shapes");
+ *     intersect.register(Circle.class, Square.class, (c, s) -&gt; "circle and square");
+ *     intersect.invoke(circle, square); // "circle and square"
+ *
+ * An implementation is applicable to a call when it takes as many parameters as
+ * there are arguments and each parameter type is the same as, or a supertype of,
+ * the class of the corresponding argument. Out of all applicable implementations,
+ * the most specific one is called, comparing parameter types from left to right
+ * (as in SimpleMethodSpecificityComparator). Incomparable implementations are
+ * disambiguated by the string representation of their parameter types.
+ *
+ * Selections are kept in a dispatch table keyed by argument classes. Registering
+ * an implementation updates the existing table entries it is more specific for,
+ * rather than discarding the whole table. Calls never use reflection.
+ *
+ * @see SimpleMethodSpecificityComparator#compareParameters
+ * @see ist.meic.pava.MultipleDispatchExtended.MultiMethod for the extended version.
+ */
+public class MultiMethod<R> {
+    private final PartialComparator<Class<?>> typeComparator;
+    private final List<Implementation<R>> implementations = new ArrayList<>();
+    private final Map<TypeTuple, Implementation<R>> table = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty multimethod, ordering implementations with TypeSpecificityComparator.
+     */
+    public MultiMethod() {
+        this(new TypeSpecificityComparator());
+    }
+
+    /**
+     * Creates an empty multimethod, ordering implementations with the given type comparator.
+     *
+     * @param typeComparator type (partial) comparator
+     */
+    protected MultiMethod(PartialComparator<Class<?>> typeComparator) {
+        this.typeComparator = typeComparator;
+    }
+
+    /**
+     * Registers an implementation with one parameter.
+     * Replaces any implementation previously registered with the same parameter types.
+     *
+     * @param a type of the first parameter
+     * @param body implementation
+     * @return this multimethod
+     */
+    @SuppressWarnings("unchecked")
+    public <A> MultiMethod<R> register(Class<A> a, Function<? super A, ? extends R> body) {
+        return register(new Class<?>[] { a }, args -> body.apply((A) args[0]));
+    }
+
+    /**
+     * Registers an implementation with two parameters.
+     * Replaces any implementation previously registered with the same parameter types.
+     *
+     * @param a type of the first parameter
+     * @param b type of the second parameter
+     * @param body implementation
+     * @return this multimethod
+     */
+    @SuppressWarnings("unchecked")
+    public <A, B> MultiMethod<R> register(Class<A> a, Class<B> b, BiFunction<? super A, ? super B, ? extends R> body) {
+        return register(new Class<?>[] { a, b }, args -> body.apply((A) args[0], (B) args[1]));
+    }
+
+    /**
+     * Registers an implementation with three parameters.
+     * Replaces any implementation previously registered with the same parameter types.
+     *
+     * @param a type of the first parameter
+     * @param b type of the second parameter
+     * @param c type of the third parameter
+     * @param body implementation
+     * @return this multimethod
+     */
+    @SuppressWarnings("unchecked")
+    public <A, B, C> MultiMethod<R> register(Class<A> a, Class<B> b, Class<C> c, Function3<? super A, ? super B, ? super C, ? extends R> body) {
+        return register(new Class<?>[] { a, b, c }, args -> body.apply((A) args[0], (B) args[1], (C) args[2]));
+    }
+
+    /**
+     * Registers an implementation with any number of parameters.
+     * Replaces any implementation previously registered with the same parameter types.
+     *
+     * The body receives the call arguments as they were given to invoke.
+     *
+     * @param parameterTypes types of the parameters
+     * @param body implementation
+     * @return this multimethod
+     */
+    public synchronized MultiMethod<R> register(Class<?>[] parameterTypes, Body<? extends R> body) {
+        Implementation<R> impl = new Implementation<>(parameterTypes.clone(), body);
+
+        implementations.removeIf(other -> Arrays.equals(other.parameterTypes, impl.parameterTypes));
+        implementations.add(impl);
+
+        // incremental update: only entries the new implementation applies to may change
+        for (Map.Entry<TypeTuple, Implementation<R>> entry : table.entrySet()) {
+            Implementation<R> current = entry.getValue();
+            if (Arrays.equals(current.parameterTypes, impl.parameterTypes)) {
+                entry.setValue(impl);
+            } else if (isApplicable(impl, entry.getKey()) && compare(impl, current) > 0) {
+                entry.setValue(impl);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Calls the most specific implementation applicable to the given arguments.
+     *
+     * @param args call arguments.
+     * @return object returned by the implementation.
+     * @throws RuntimeException wrapping a NoSuchMethodException when no implementation is applicable
+     */
+    @SuppressWarnings("unchecked")
+    public R invoke(Object... args) {
+        TypeTuple key = TypeTuple.of(args);
+        Implementation<R> impl = table.get(key);
+
+        if (impl == null) {
+            impl = select(key);
+        }
+
+        return (R) impl.body.apply(args);
+    }
+
+    /**
+     * @return the number of entries in the dispatch table
+     */
+    public int tableSize() {
+        return table.size();
+    }
+
+    /**
+     * Determines whether an argument of class argType may be passed to a
+     * parameter of type paramType.
+     *
+     * @param paramType parameter type
+     * @param argType argument class
+     * @return true if the parameter accepts the argument
+     */
+    protected boolean isAssignableFrom(Class<?> paramType, Class<?> argType) {
+        return paramType.isAssignableFrom(argType);
+    }
+
+    private synchronized Implementation<R> select(TypeTuple key) {
+        // under the registration lock, so that no registration is missed by this entry
+        Implementation<R> impl = table.get(key);
+        if (impl != null) {
+            return impl;
+        }
+
+        for (Implementation<R> candidate : implementations) {
+            if (isApplicable(candidate, key) && (impl == null || compare(candidate, impl) > 0)) {
+                impl = candidate;
+            }
+        }
+
+        if (impl == null) {
+            throw new RuntimeException(new NoSuchMethodException(Arrays.stream(key.toArray())
+                .map(Class::getName)
+                .collect(Collectors.joining(", ", "MultiMethod(", ")"))));
+        }
+
+        table.put(key, impl);
+        return impl;
+    }
+
+    private boolean isApplicable(Implementation<R> impl, TypeTuple argTypes) {
+        if (impl.parameterTypes.length != argTypes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < impl.parameterTypes.length; i++) {
+            if (!isAssignableFrom(impl.parameterTypes[i], argTypes.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int compare(Implementation<R> lhs, Implementation<R> rhs) {
+        PartialOrdering partialOrd = SimpleMethodSpecificityComparator.compareParameters(lhs.parameterTypes, rhs.parameterTypes, typeComparator);
+
+        if (partialOrd == PartialOrdering.INCOMPARABLE) {
+            // disambiguate with string representations
+            return Arrays.toString(lhs.parameterTypes).compareTo(Arrays.toString(rhs.parameterTypes));
+        } else {
+            return partialOrd.asTotalOrdering();
+        }
+    }
+
+    private static class Implementation<R> {
+        private final Class<?>[] parameterTypes;
+        private final Body<? extends R> body;
+
+        private Implementation(Class<?>[] parameterTypes, Body<? extends R> body) {
+            this.parameterTypes = parameterTypes;
+            this.body = body;
+        }
+    }
+
+    /**
+     * The implementation of a multimethod for some tuple of parameter types.
+     */
+    @FunctionalInterface
+    public static interface Body<R> {
+        /**
+         * @param args call arguments, applicable to the registered parameter types.
+         * @return the result of the call
+         */
+        public R apply(Object[] args);
+    }
+
+    /**
+     * A function of three arguments.
+     */
+    @FunctionalInterface
+    public static interface Function3<A, B, C, R> {
+        public R apply(A a, B b, C c);
+    }
+}
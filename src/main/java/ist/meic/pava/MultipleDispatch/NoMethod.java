@@ -0,0 +1,41 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+
+/**
+ * Holds the sentinel stored in dispatch tables for calls with no applicable
+ * method (negative caching), so that they are not searched for again.
+ *
+ * The sentinel must never escape the caches.
+ */
+final class NoMethod {
+    static final Method SENTINEL;
+
+    static {
+        try {
+            SENTINEL = NoMethod.class.getDeclaredMethod("sentinel");
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private NoMethod() { }
+
+    private static void sentinel() { }
+
+    /**
+     * @param method a method found in a cache
+     * @return null for the sentinel, the method itself otherwise
+     */
+    static Method toNull(Method method) {
+        return method == SENTINEL ? null : method;
+    }
+
+    /**
+     * @param method a selected method, or null
+     * @return the sentinel for null, the method itself otherwise
+     */
+    static Method fromNull(Method method) {
+        return method == null ? SENTINEL : method;
+    }
+}
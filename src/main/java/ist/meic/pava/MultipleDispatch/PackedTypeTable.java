@@ -0,0 +1,172 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+
+/**
+ * A map from type tuples of up to four classes to methods, with keys packed
+ * into two longs, so that lookups allocate nothing.
+ *
+ * A tuple is made of an optional receiver class followed by the classes of
+ * the call arguments. Each class is replaced by its ClassIds id and the (at
+ * most four) ids are packed 32 bits apiece into two longs, padded with zeros.
+ * Since ids are never 0, tuples of different lengths never share a key. A
+ * table must be used either always or never with receiver classes.
+ *
+ * Given a TypeProjection, argument classes are projected before taking their
+ * ids, so classes that dispatch alike share entries (the receiver class is
+ * never projected).
+ *
+ * Entries live in an open-addressing table with linear probing. Reads are
+ * lock-free. Writes are rare (once per tuple) and done under a lock on a copy
+ * of the table, which then replaces the current one (copy-on-write), so
+ * readers never see a partially written entry.
+ *
+ * @see ClassIds
+ */
+public class PackedTypeTable {
+    /**
+     * The maximum number of classes in a tuple, receiver class included.
+     */
+    public static final int MAX_TYPES = 4;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final TypeProjection projection;
+    private volatile Slots slots = new Slots(INITIAL_CAPACITY);
+
+    /**
+     * Creates an empty table.
+     */
+    public PackedTypeTable() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty table, keyed by projected argument classes.
+     *
+     * @param projection projection of the argument classes, or null for none.
+     *                   The table may then only be used for calls of its arity.
+     */
+    public PackedTypeTable(TypeProjection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * Determines whether a tuple fits in a packed key.
+     *
+     * @param receiverClass the receiver class, or null if not part of the tuple.
+     * @param args call arguments.
+     * @return true if the tuple has at most MAX_TYPES classes
+     */
+    public static boolean fits(Class<?> receiverClass, Object[] args) {
+        return args.length + (receiverClass != null ? 1 : 0) <= MAX_TYPES;
+    }
+
+    /**
+     * Looks up the method stored for the given tuple, which must fit.
+     *
+     * @param receiverClass the receiver class, or null if not part of the tuple.
+     * @param args call arguments.
+     * @return the stored method, or null if there is none
+     */
+    public Method get(Class<?> receiverClass, Object[] args) {
+        long high = pack(receiverClass, args, 0);
+        long low = pack(receiverClass, args, 2);
+
+        Slots current = slots;
+        int mask = current.values.length - 1;
+        for (int i = hash(high, low) & mask; ; i = (i + 1) & mask) {
+            Method method = current.values[i];
+            if (method == null) {
+                return null;
+            }
+            if (current.keys[2 * i] == high && current.keys[2 * i + 1] == low) {
+                return method;
+            }
+        }
+    }
+
+    /**
+     * Stores a method for the given tuple, which must fit, replacing any previous one.
+     *
+     * @param receiverClass the receiver class, or null if not part of the tuple.
+     * @param args call arguments.
+     * @param method the method to store.
+     */
+    public synchronized void put(Class<?> receiverClass, Object[] args, Method method) {
+        long high = pack(receiverClass, args, 0);
+        long low = pack(receiverClass, args, 2);
+
+        Slots current = slots;
+        // keep the load factor at most 1/2, so probe sequences stay short
+        int capacity = 2 * (current.size + 1) > current.values.length ? 2 * current.values.length : current.values.length;
+
+        Slots copy = new Slots(capacity);
+        for (int i = 0; i < current.values.length; i++) {
+            if (current.values[i] != null) {
+                copy.insert(current.keys[2 * i], current.keys[2 * i + 1], current.values[i]);
+            }
+        }
+        copy.insert(high, low, method);
+
+        slots = copy;
+    }
+
+    /**
+     * @return the number of stored tuples
+     */
+    public int size() {
+        return slots.size;
+    }
+
+    private long pack(Class<?> receiverClass, Object[] args, int from) {
+        return ((long) idAt(receiverClass, args, from) << 32) | (idAt(receiverClass, args, from + 1) & 0xFFFFFFFFL);
+    }
+
+    private int idAt(Class<?> receiverClass, Object[] args, int i) {
+        if (receiverClass != null) {
+            if (i == 0) {
+                return ClassIds.of(receiverClass);
+            }
+            i--;
+        }
+
+        if (i >= args.length) {
+            return 0;
+        }
+
+        Class<?> type = args[i].getClass();
+        return ClassIds.of(projection != null ? projection.project(i, type) : type);
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high * 0x9E3779B97F4A7C15L) ^ (low * 0xC2B2AE3D27D4EB4FL);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static class Slots {
+        private final long[] keys;
+        private final Method[] values;
+        private int size;
+
+        private Slots(int capacity) {
+            this.keys = new long[2 * capacity];
+            this.values = new Method[capacity];
+        }
+
+        private void insert(long high, long low, Method method) {
+            int mask = values.length - 1;
+            int i = hash(high, low) & mask;
+            while (values[i] != null && (keys[2 * i] != high || keys[2 * i + 1] != low)) {
+                i = (i + 1) & mask;
+            }
+
+            if (values[i] == null) {
+                size++;
+            }
+            keys[2 * i] = high;
+            keys[2 * i + 1] = low;
+            values[i] = method;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.BiFunction;
+
+/**
+ * The baseline dispatch engine: selects with the given MethodSelector on every
+ * call (so it caches only if the selector does), and calls with Method.invoke.
+ *
+ * @see DispatchEngines#REFLECTIVE
+ */
+public final class ReflectiveDispatchEngine implements DispatchEngine {
+    @Override
+    public String getName() {
+        return DispatchEngines.REFLECTIVE;
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        return (receiverClass, receiver, args) -> {
+            try {
+                Method method = selector.selectMethod(receiverClass, name, args);
+                return method.invoke(receiver, argumentPreparer.apply(method, args));
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Still selects on every call, but calls through handles of the caller's lookup.
+     */
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller) {
+        MethodInvoker invoker = new MethodInvoker(caller);
+
+        return (receiverClass, receiver, args) -> {
+            Method method;
+            try {
+                method = selector.selectMethod(receiverClass, name, args);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+
+            return MethodHandleDispatchEngine.call(invoker, method, receiver, argumentPreparer.apply(method, args));
+        };
+    }
+}
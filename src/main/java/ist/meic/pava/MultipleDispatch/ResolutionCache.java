@@ -0,0 +1,103 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe cache of method resolutions for a single method name.
+ *
+ * Resolutions are keyed by the receiver class and the classes of the arguments,
+ * since those are the only inputs the candidate finders and comparators look at.
+ * Keys of up to four classes are packed into a PackedTypeTable, so that hits
+ * allocate nothing. On a miss, the wrapped MethodSelector is consulted and its answer is kept.
+ * Concurrent misses on the same key consult it only once (see SingleFlight).
+ * Calls with no applicable method are remembered as well (negative caching).
+ *
+ * @see MethodSelector
+ * @see PackedTypeTable
+ * @see TypeTuple
+ */
+public class ResolutionCache {
+    private final MethodSelector selector;
+    private final String name;
+    private final PackedTypeTable packedResolutions = new PackedTypeTable();
+    private final ConcurrentMap<TypeTuple, Method> resolutions = new ConcurrentHashMap<>();
+    private final SingleFlight<TypeTuple> flights = new SingleFlight<>();
+
+    /**
+     * Creates an empty cache for the given selector and method name.
+     *
+     * @param selector method selector used on cache misses
+     * @param name name of the method to resolve
+     */
+    public ResolutionCache(MethodSelector selector, String name) {
+        this.selector = selector;
+        this.name = name;
+    }
+
+    /**
+     * Resolves the method to call for the given receiver class and arguments.
+     *
+     * @param receiverClass the class of the receiver.
+     * @param args call arguments.
+     * @return the selected Method
+     * @throws NoSuchMethodException if no matching method could be found.
+     */
+    public Method resolve(Class<?> receiverClass, Object[] args) throws NoSuchMethodException {
+        Method method = find(receiverClass, args);
+
+        if (method == null) {
+            throw MethodSelector.buildNoSuchMethodException(receiverClass, args);
+        }
+
+        return method;
+    }
+
+    /**
+     * Resolves the method to call for the given receiver class and arguments,
+     * returning null instead of throwing if there is none.
+     *
+     * @param receiverClass the class of the receiver.
+     * @param args call arguments.
+     * @return the selected Method, or null if no matching method could be found.
+     */
+    public Method find(Class<?> receiverClass, Object[] args) {
+        boolean packed = PackedTypeTable.fits(receiverClass, args);
+        Method method = packed ? packedResolutions.get(receiverClass, args) : resolutions.get(TypeTuple.of(receiverClass, args));
+
+        if (method == null) {
+            TypeTuple key = TypeTuple.of(receiverClass, args);
+            try {
+                method = flights.resolve(key, args, callArgs -> {
+                    Method resolved = NoMethod.fromNull(selector.findMethod(receiverClass, name, callArgs));
+                    if (packed) {
+                        packedResolutions.put(receiverClass, callArgs, resolved);
+                    } else {
+                        resolutions.put(key, resolved);
+                    }
+                    return resolved;
+                });
+            } catch (NoSuchMethodException e) {
+                // findMethod reports missing methods with null instead
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return NoMethod.toNull(method);
+    }
+
+    /**
+     * @return the name of the method resolved by this cache
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of cached resolutions
+     */
+    public int size() {
+        return packedResolutions.size() + resolutions.size();
+    }
+}
@@ -2,7 +2,14 @@ package ist.meic.pava.MultipleDispatch;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -17,12 +24,26 @@ import java.util.stream.Stream;
  *  - The number of arguments matches the number of formal parameters;
  *  - Each formal parameter's Class or Interface is either the same (class) as,
  *    or is a superclass or superinterface of, the class of the corresponding argument.
+ *
+ * With SimpleMethodSpecificityComparator, exact matches are found through an
+ * index of the methods by parameter types, per receiver class and name. A
+ * method is only indexed if SimpleMethodSpecificityComparator ranks it above
+ * every other method applicable to arguments of those very classes.
  */
 public class SimpleCandidateMethodFinder implements MethodSelector.CandidateMethodFinder {
     public static final Function<String, Predicate<Method>> NAME_FILTER = name -> {
         return m -> m.getName().equals(name);
     };
 
+    private static final PartialComparator<Method> comparator = new SimpleMethodSpecificityComparator();
+
+    private final ClassValue<ConcurrentMap<String, Map<TypeTuple, Method>>> exactMatches = new ClassValue<ConcurrentMap<String, Map<TypeTuple, Method>>>() {
+        @Override
+        protected ConcurrentMap<String, Map<TypeTuple, Method>> computeValue(Class<?> receiverClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     public Stream<Method> findCandidates(Class<?> receiverClass, String name, Object[] args) {
         return Arrays.stream(receiverClass.getMethods())
             .filter(NAME_FILTER.apply(name))
@@ -43,4 +64,83 @@ public class SimpleCandidateMethodFinder implements MethodSelector.CandidateMeth
                 return true;
             });
     }
+
+    @Override
+    public boolean supportsExactMatches(PartialComparator<Method> ordering) {
+        return ordering.getClass() == SimpleMethodSpecificityComparator.class;
+    }
+
+    @Override
+    public Method findExactMatch(Class<?> receiverClass, String name, Object[] args) {
+        Map<TypeTuple, Method> methods = exactMatches.get(receiverClass).get(name);
+        if (methods == null) {
+            methods = exactMatches.get(receiverClass).computeIfAbsent(name, n -> buildExactMatches(receiverClass, n));
+        }
+
+        return methods.isEmpty() ? null : methods.get(TypeTuple.of(args));
+    }
+
+    private static Map<TypeTuple, Method> buildExactMatches(Class<?> receiverClass, String name) {
+        List<Method> methods = new ArrayList<>();
+        for (Method m : receiverClass.getMethods()) {
+            if (m.getName().equals(name) && !Modifier.isStatic(m.getModifiers())) {
+                methods.add(m);
+            }
+        }
+
+        Map<TypeTuple, Method> exactMatches = new HashMap<>();
+        for (Method m : methods) {
+            Class<?>[] paramTypes = m.getParameterTypes();
+            if (isGreatestFor(m, methods, paramTypes)) {
+                exactMatches.put(TypeTuple.ofTypes(paramTypes), m);
+            }
+        }
+
+        return exactMatches;
+    }
+
+    /**
+     * @return true if the given method is greater than every other method applicable to arguments of the given classes
+     */
+    private static boolean isGreatestFor(Method m, List<Method> methods, Class<?>[] argTypes) {
+        for (Method other : methods) {
+            if (other != m && isApplicable(other, argTypes) && comparator.compare(m, other) != PartialOrdering.GREATER) {
+                // e.g. bridge methods, or methods of a more specific declaring class
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isApplicable(Method m, Class<?>[] argTypes) {
+        if (m.getParameterCount() != argTypes.length) {
+            return false;
+        }
+
+        Class<?>[] paramTypes = m.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (!paramTypes[i].isAssignableFrom(argTypes[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public TypeProjection projectionFor(Class<?> receiverClass, String name, int arity) {
+        List<Set<Class<?>>> dispatchTypes = TypeProjection.emptyDispatchTypes(arity);
+
+        for (Method m : receiverClass.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == arity) {
+                Class<?>[] paramTypes = m.getParameterTypes();
+                for (int i = 0; i < arity; i++) {
+                    dispatchTypes.get(i).add(paramTypes[i]);
+                }
+            }
+        }
+
+        return new TypeProjection(dispatchTypes, Class::isAssignableFrom);
+    }
 }
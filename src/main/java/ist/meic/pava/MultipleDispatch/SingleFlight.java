@@ -0,0 +1,77 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates concurrent resolutions of the same key.
+ *
+ * When several threads miss a cache on the same key at once, only the first
+ * one runs the resolution; the others wait for its outcome. Failures, such as
+ * a NoSuchMethodException, are handed to every waiting thread as well.
+ *
+ * The resolution should store its result in the cache before returning, so
+ * that threads arriving after it completes find the result there.
+ *
+ * @param <K> key type
+ */
+public class SingleFlight<K> {
+    private final ConcurrentMap<K, CompletableFuture<Method>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the given key, unless a resolution of the same key is already
+     * running, in which case its outcome is awaited instead.
+     *
+     * @param key the key being resolved
+     * @param args call arguments, passed to the resolver
+     * @param resolver the resolution to run
+     * @return the resolved Method
+     * @throws NoSuchMethodException if the resolution failed to find a method.
+     */
+    public Method resolve(K key, Object[] args, MethodResolver resolver) throws NoSuchMethodException {
+        CompletableFuture<Method> flight = new CompletableFuture<>();
+        CompletableFuture<Method> existing = pending.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            Method method = resolver.resolve(args);
+            flight.complete(method);
+            return method;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return the number of resolutions currently running
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private static Method await(CompletableFuture<Method> flight) throws NoSuchMethodException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NoSuchMethodException) {
+                throw (NoSuchMethodException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+    }
+}
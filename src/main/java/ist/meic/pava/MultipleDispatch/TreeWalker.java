@@ -0,0 +1,206 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Walks trees (ASTs, object graphs without cycles, ...) calling the most
+ * specific "visit" method of a visitor on every node, chosen by the runtime
+ * class of the node. This replaces both the accept/visit boilerplate of the
+ * visitor pattern and recursive UsingMultipleDispatch.invoke calls:
+ *
+ *     TreeWalker&lt;Node&gt; walker = new TreeWalker&lt;&gt;(Node::getChildren);
+ *     walker.walk(new TypeChecker(), ast);  // TypeChecker.visit(BinaryOp), visit(Literal), ...
+ *
+ * Nodes are visited in pre-order (parents before children, children in the
+ * order given by the children function), using an explicit stack, so deep
+ * trees do not overflow the thread's stack. A visit method returning
+ * Boolean.FALSE skips the children of its node. Nodes with no applicable visit
+ * method are not visited, but their children are.
+ *
+ * Visit methods are resolved once per visitor class and node class, and kept
+ * as method handles. Exceptions thrown by them are propagated unchanged.
+ *
+ * walkParallel visits independent subtrees in parallel on a ForkJoinPool; the
+ * visitor must then be thread-safe, and no order is guaranteed.
+ */
+public class TreeWalker<N> {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+
+    /**
+     * The handle of nodes with no applicable visit method.
+     */
+    private static final MethodHandle NO_VISIT = MethodHandles.constant(Object.class, null);
+
+    private final Function<? super N, ? extends Iterable<? extends N>> children;
+    private final MethodSelector selector;
+    private final String visitName;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, MethodHandle>> visits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a walker for "visit" methods, with the rules of SimpleMethodSpecificityComparator.
+     *
+     * @param children returns the children of a node (may return null for leaves)
+     */
+    public TreeWalker(Function<? super N, ? extends Iterable<? extends N>> children) {
+        this(children, new MethodSelector(new SimpleMethodSpecificityComparator()), "visit");
+    }
+
+    /**
+     * Creates a walker.
+     *
+     * @param children returns the children of a node (may return null for leaves)
+     * @param selector selects the visit method of a visitor for a node
+     * @param visitName name of the visit methods
+     */
+    public TreeWalker(Function<? super N, ? extends Iterable<? extends N>> children, MethodSelector selector, String visitName) {
+        this.children = children;
+        this.selector = selector;
+        this.visitName = visitName;
+    }
+
+    /**
+     * Visits every node of the tree, in pre-order, on the calling thread.
+     *
+     * @param visitor object with the visit methods
+     * @param root root of the tree
+     */
+    public void walk(Object visitor, N root) {
+        walk(visitor, visitsOf(visitor), root);
+    }
+
+    /**
+     * Visits every node of the tree, visiting the subtrees of nodes up to the
+     * given depth in parallel (below it, subtrees are walked sequentially).
+     *
+     * @param visitor thread-safe object with the visit methods
+     * @param root root of the tree
+     * @param pool pool to run on
+     * @param parallelDepth depth up to which subtrees are forked (0 walks sequentially)
+     */
+    public void walkParallel(Object visitor, N root, ForkJoinPool pool, int parallelDepth) {
+        pool.invoke(new SubtreeAction(visitor, visitsOf(visitor), root, parallelDepth));
+    }
+
+    private ConcurrentMap<Class<?>, MethodHandle> visitsOf(Object visitor) {
+        ConcurrentMap<Class<?>, MethodHandle> visitorVisits = visits.get(visitor.getClass());
+        if (visitorVisits == null) {
+            visitorVisits = visits.computeIfAbsent(visitor.getClass(), c -> new ConcurrentHashMap<>());
+        }
+
+        return visitorVisits;
+    }
+
+    private void walk(Object visitor, ConcurrentMap<Class<?>, MethodHandle> visitorVisits, N root) {
+        Object[] stack = new Object[16];
+        int size = 0;
+        stack[size++] = root;
+
+        while (size > 0) {
+            @SuppressWarnings("unchecked")
+            N node = (N) stack[--size];
+            stack[size] = null;
+
+            if (!visit(visitor, visitorVisits, node)) {
+                continue;
+            }
+
+            Iterable<? extends N> nodeChildren = children.apply(node);
+            if (nodeChildren == null) {
+                continue;
+            }
+
+            int first = size;
+            for (N child : nodeChildren) {
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * size);
+                }
+                stack[size++] = child;
+            }
+
+            // the first child must be on top of the stack
+            for (int i = first, j = size - 1; i < j; i++, j--) {
+                Object tmp = stack[i];
+                stack[i] = stack[j];
+                stack[j] = tmp;
+            }
+        }
+    }
+
+    /**
+     * @return false if the children of the node must be skipped
+     */
+    private boolean visit(Object visitor, ConcurrentMap<Class<?>, MethodHandle> visitorVisits, N node) {
+        MethodHandle handle = visitorVisits.get(node.getClass());
+        if (handle == null) {
+            handle = visitorVisits.computeIfAbsent(node.getClass(), c -> resolve(visitor, node));
+        }
+
+        try {
+            return !Boolean.FALSE.equals((Object) handle.invokeExact(visitor, (Object) node));
+        } catch (Throwable e) {
+            throw MethodInvoker.sneakyThrow(e);
+        }
+    }
+
+    private MethodHandle resolve(Object visitor, N node) {
+        Method method = selector.findMethod(visitor.getClass(), visitName, node);
+        if (method == null) {
+            return MethodHandles.dropArguments(NO_VISIT, 0, Object.class, Object.class);
+        }
+
+        try {
+            return methodInvoker.unary(method, node.getClass());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private class SubtreeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object visitor;
+        private final ConcurrentMap<Class<?>, MethodHandle> visitorVisits;
+        private final N node;
+        private final int parallelDepth;
+
+        private SubtreeAction(Object visitor, ConcurrentMap<Class<?>, MethodHandle> visitorVisits, N node, int parallelDepth) {
+            this.visitor = visitor;
+            this.visitorVisits = visitorVisits;
+            this.node = node;
+            this.parallelDepth = parallelDepth;
+        }
+
+        @Override
+        protected void compute() {
+            if (parallelDepth <= 0) {
+                walk(visitor, visitorVisits, node);
+                return;
+            }
+
+            if (!visit(visitor, visitorVisits, node)) {
+                return;
+            }
+
+            Iterable<? extends N> nodeChildren = children.apply(node);
+            if (nodeChildren == null) {
+                return;
+            }
+
+            List<SubtreeAction> subtrees = new ArrayList<>();
+            for (N child : nodeChildren) {
+                subtrees.add(new SubtreeAction(visitor, visitorVisits, child, parallelDepth - 1));
+            }
+            invokeAll(subtrees);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Maps argument classes onto the types that matter for dispatch, so that
+ * resolution caches can share entries among classes that always dispatch
+ * alike (lambdas, proxies, anonymous subclasses, ...).
+ *
+ * A projection is built for calls with a fixed number of arguments, from the
+ * parameter types the candidate finder may test at each position (its dispatch
+ * types). Which candidates apply to a call only depends on which dispatch types
+ * accept each argument, so an argument class may be replaced by any class that
+ * is accepted by the same dispatch types. It is projected onto:
+ *  - the most specific dispatch type accepting it, if the others accepting it
+ *    all accept that one as well;
+ *  - a common marker, if no dispatch type accepts it (nothing can be applicable);
+ *  - itself otherwise (e.g. it implements two unrelated interfaces).
+ *
+ * The number of distinct projections at a position is then bounded by the
+ * number of dispatch types, not by the number of classes seen at runtime.
+ * Projections are computed once per class, and kept in a ClassValue.
+ *
+ * @see MethodSelector.CandidateMethodFinder#projectionFor(Class, String, int)
+ */
+public class TypeProjection {
+    private final Class<?>[][] dispatchTypes;
+    private final BiPredicate<Class<?>, Class<?>> accepts;
+    private final ClassValue<Class<?>[]> projections = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> argClass) {
+            Class<?>[] projected = new Class<?>[dispatchTypes.length];
+            for (int i = 0; i < dispatchTypes.length; i++) {
+                projected[i] = computeProjection(i, argClass);
+            }
+
+            return projected;
+        }
+    };
+
+    /**
+     * @param dispatchTypes for each argument position, every parameter type the
+     *                      candidate finder may test an argument against.
+     * @param accepts determines whether a parameter type (first) accepts an
+     *                argument class (second), as the candidate finder does.
+     */
+    public TypeProjection(List<? extends Set<Class<?>>> dispatchTypes, BiPredicate<Class<?>, Class<?>> accepts) {
+        this.dispatchTypes = new Class<?>[dispatchTypes.size()][];
+        for (int i = 0; i < this.dispatchTypes.length; i++) {
+            this.dispatchTypes[i] = dispatchTypes.get(i).toArray(new Class<?>[0]);
+        }
+        this.accepts = accepts;
+    }
+
+    /**
+     * Collects dispatch types by position into a list of (insertion-ordered) sets,
+     * as expected by the constructor.
+     *
+     * @param arity number of argument positions
+     * @return a list of arity empty sets
+     */
+    public static List<Set<Class<?>>> emptyDispatchTypes(int arity) {
+        List<Set<Class<?>>> types = new ArrayList<>(arity);
+        for (int i = 0; i < arity; i++) {
+            types.add(new LinkedHashSet<>());
+        }
+
+        return types;
+    }
+
+    /**
+     * @param position argument position
+     * @param argClass class of the argument at that position
+     * @return the class argClass is projected onto
+     */
+    public Class<?> project(int position, Class<?> argClass) {
+        return projections.get(argClass)[position];
+    }
+
+    /**
+     * @return the number of argument positions
+     */
+    public int arity() {
+        return dispatchTypes.length;
+    }
+
+    private Class<?> computeProjection(int position, Class<?> argClass) {
+        List<Class<?>> accepting = new ArrayList<>();
+        for (Class<?> type : dispatchTypes[position]) {
+            if (accepts.test(type, argClass)) {
+                accepting.add(type);
+            }
+        }
+
+        if (accepting.isEmpty()) {
+            return Unmatched.class;
+        }
+
+        for (Class<?> candidate : accepting) {
+            if (accepting.stream().allMatch(type -> accepts.test(type, candidate))) {
+                return candidate;
+            }
+        }
+
+        return argClass;
+    }
+
+    /**
+     * The projection of classes no dispatch type accepts.
+     */
+    private static final class Unmatched {
+    }
+}
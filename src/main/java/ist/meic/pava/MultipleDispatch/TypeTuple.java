@@ -0,0 +1,116 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.util.Arrays;
+
+/**
+ * An immutable tuple of types, used as a key when caching method resolutions.
+ *
+ * Two tuples are equal when they hold the very same classes, in the same order.
+ * The hash code is computed once, on construction.
+ */
+public final class TypeTuple {
+    private final Class<?>[] types;
+    private final int hash;
+
+    private TypeTuple(Class<?>[] types) {
+        this.types = types;
+        this.hash = Arrays.hashCode(types);
+    }
+
+    /**
+     * Builds the tuple (receiverClass, class of args[0], class of args[1], ...).
+     *
+     * @param receiverClass the class of the receiver.
+     * @param args call arguments.
+     * @return the corresponding type tuple
+     */
+    public static TypeTuple of(Class<?> receiverClass, Object[] args) {
+        Class<?>[] types = new Class<?>[args.length + 1];
+        types[0] = receiverClass;
+        for (int i = 0; i < args.length; i++) {
+            types[i + 1] = args[i].getClass();
+        }
+
+        return new TypeTuple(types);
+    }
+
+    /**
+     * Builds the tuple (class of args[0], class of args[1], ...).
+     *
+     * @param args call arguments.
+     * @return the corresponding type tuple
+     */
+    public static TypeTuple of(Object[] args) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i].getClass();
+        }
+
+        return new TypeTuple(types);
+    }
+
+    /**
+     * Builds a tuple holding the given types.
+     *
+     * @param types the types, which must not be modified afterwards.
+     * @return the corresponding type tuple
+     */
+    public static TypeTuple ofTypes(Class<?>... types) {
+        return new TypeTuple(types);
+    }
+
+    /**
+     * @return the number of types in this tuple
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * @param i index of the type
+     * @return the i-th type of this tuple
+     */
+    public Class<?> get(int i) {
+        return types[i];
+    }
+
+    /**
+     * @return a copy of the types in this tuple
+     */
+    public Class<?>[] toArray() {
+        return types.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TypeTuple)) {
+            return false;
+        }
+
+        TypeTuple other = (TypeTuple) o;
+        if (hash != other.hash || types.length != other.types.length) {
+            return false;
+        }
+
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != other.types[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(types);
+    }
+}
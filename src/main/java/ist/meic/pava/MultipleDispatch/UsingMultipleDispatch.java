@@ -1,17 +1,28 @@
 package ist.meic.pava.MultipleDispatch;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Optional;
 
 /**
  * Implements dynamic dispatch on the arguments of a method call.
  *
  * Not guaranteed to autobox/unbox arguments, nor to support variadic method calls.
+ *
+ * When the system property DispatchEngines.PROPERTY is set, invoke goes
+ * through the engine it names instead.
+ *
+ * Methods are called with the access rights of this class (access checks are
+ * never suppressed), or with those of the caller through withLookup.
  * @see SimpleMethodSpecificityComparator for determining which method will be called.
  * @see MethodSelector for determining which method will be called when there are incomparable methods present.
  */
 public class UsingMultipleDispatch {
-    private static final MethodSelector methodSelector = new MethodSelector(new SimpleMethodSpecificityComparator());
+    private static final MethodSelector methodSelector = new CachingMethodSelector(new SimpleMethodSpecificityComparator());
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+    private static final DispatcherTable dispatchers = DispatchEngines.isDefaultConfigured()
+            ? new DispatcherTable(DispatchEngines.getDefault(), methodSelector, DispatchEngine.SAME_ARGUMENTS) : null;
 
     /**
      * Invokes a method by receiver, name and arguments.
@@ -24,6 +35,10 @@ public class UsingMultipleDispatch {
      * @throws RuntimeException when any exceptions occur when invoking the method, and when the method does not exist/is inaccessible
      */
     public static Object invoke(Object receiver, String name, Object... args) {
+        if (dispatchers != null) {
+            return dispatchers.get(name).invoke(receiver.getClass(), receiver, args);
+        }
+
         try {
             Method method = methodSelector.selectMethod(receiver.getClass(), name, args);
             return method.invoke(receiver, args);
@@ -32,4 +47,77 @@ public class UsingMultipleDispatch {
         }
     }
 
+    /**
+     * Invokes a method by receiver, name and arguments, like invoke, but lets
+     * any exception thrown by the method propagate unchanged (even checked ones).
+     *
+     * Only dispatch failures (missing or inaccessible method) are wrapped in a
+     * RuntimeException, so a failing call costs no extra exception objects.
+     * Methods are called with the access rights of this front-end, as invoke does.
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws RuntimeException when the method does not exist/is inaccessible
+     */
+    public static Object invokeUnwrapped(Object receiver, String name, Object... args) {
+        try {
+            Method method = methodSelector.selectMethod(receiver.getClass(), name, args);
+            return methodInvoker.invoke(method, receiver, args);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates an invoker with the same dispatch rules, which calls methods
+     * with the access rights of the given lookup, without access checks on
+     * every call.
+     *
+     * @param caller lookup of the caller, e.g. MethodHandles.lookup().
+     * @return the invoker, meant to be kept around
+     */
+    public static LookupInvoker withLookup(MethodHandles.Lookup caller) {
+        return new LookupInvoker(caller, methodSelector, DispatchEngine.SAME_ARGUMENTS);
+    }
+
+    /**
+     * Invokes a method by receiver, name and arguments, if there is one
+     * applicable to the arguments.
+     *
+     * Unlike invoke, a missing method is not an error: no exception is built,
+     * and repeated probes of the same argument types only cost a table lookup.
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return the object returned by the method call (empty if null), or empty if there is no applicable method.
+     * @throws RuntimeException when any exceptions occur when invoking the method, or when it is inaccessible
+     * @see #findMethod(Object, String, Object...) to tell a null result apart from a missing method.
+     */
+    public static Optional<Object> tryInvoke(Object receiver, String name, Object... args) {
+        Method method = findMethod(receiver, name, args);
+        if (method == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(method.invoke(receiver, args));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Finds the method invoke would call for the given receiver, name and arguments.
+     *
+     * @param receiver receiver object, where method would be called.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return the selected method, or null if there is no applicable method.
+     */
+    public static Method findMethod(Object receiver, String name, Object... args) {
+        return methodSelector.findMethod(receiver.getClass(), name, args);
+    }
 }
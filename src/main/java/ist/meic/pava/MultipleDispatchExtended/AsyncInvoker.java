@@ -0,0 +1,249 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
+
+/**
+ * Invokes methods with multiple dispatch asynchronously.
+ *
+ * The method is selected on the calling thread, with the (cached) selector of
+ * UsingMultipleDispatch.invoke, and called on an executor. By default, that is
+ * a virtual-thread-per-task executor when the JVM has virtual threads, or a
+ * cached pool of daemon threads otherwise.
+ *
+ * At most maxConcurrency calls run at the same time: further calls wait in a
+ * queue, without blocking their callers. Cancelling a returned future removes the
+ * call from the queue if it has not started yet, and interrupts it otherwise.
+ *
+ * The futures complete with whatever the called method returns or throws
+ * (unwrapped). Calls with no applicable method complete exceptionally with a
+ * RuntimeException wrapping a NoSuchMethodException.
+ *
+ * @see UsingMultipleDispatch#invokeAsync(Object, String, Object...)
+ */
+public class AsyncInvoker {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Queue<Call> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Creates an invoker on the default executor, with unbounded concurrency.
+     */
+    public AsyncInvoker() {
+        this(DefaultExecutor.INSTANCE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an invoker on the given executor, with unbounded concurrency.
+     *
+     * @param executor executor to run the calls on
+     */
+    public AsyncInvoker(Executor executor) {
+        this(executor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an invoker on the given executor, with bounded concurrency.
+     *
+     * @param executor executor to run the calls on
+     * @param maxConcurrency maximum number of calls running at the same time
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     */
+    public AsyncInvoker(Executor executor, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Asynchronous version of UsingMultipleDispatch.invoke.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return a future of the object returned by the method called
+     */
+    public CompletableFuture<Object> invokeAsync(Object receiver, String name, Object... args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Method method;
+        try {
+            method = UsingMultipleDispatch.nonStaticMethodSelector.selectMethod(receiver.getClass(), name, args);
+        } catch (NoSuchMethodException e) {
+            future.completeExceptionally(new RuntimeException(e));
+            return future;
+        }
+
+        Call call = new Call(future, receiver, method, UsingMultipleDispatch.evaluateArguments(method, args));
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled() && !pending.remove(call)) {
+                call.interrupt();
+            }
+        });
+
+        pending.add(call);
+        drain();
+
+        return future;
+    }
+
+    /**
+     * Calls the same method asynchronously once per argument list.
+     *
+     * The returned future completes once every call has, with their results in
+     * order, or exceptionally if any of them fails. Cancelling it cancels every
+     * call.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param argumentLists the arguments of each call.
+     * @return a future of the objects returned by the calls
+     */
+    public CompletableFuture<List<Object>> invokeAllAsync(Object receiver, String name, List<Object[]> argumentLists) {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(argumentLists.size());
+        for (Object[] args : argumentLists) {
+            futures.add(invokeAsync(receiver, name, args));
+        }
+
+        CompletableFuture<List<Object>> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<Object> results = new ArrayList<>(futures.size());
+                for (CompletableFuture<Object> future : futures) {
+                    results.add(future.join());
+                }
+                return results;
+            });
+
+        all.whenComplete((results, e) -> {
+            if (all.isCancelled()) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+
+        return all;
+    }
+
+    /**
+     * @return the number of calls waiting for a free slot
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            int current = running.get();
+            if (current >= maxConcurrency) {
+                // a running call will drain the queue when it finishes
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Call call = pending.poll();
+            if (call == null) {
+                running.decrementAndGet();
+                continue;
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        call.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // e.g. RejectedExecutionException
+                running.decrementAndGet();
+                call.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Call {
+        private final CompletableFuture<Object> future;
+        private final Object receiver;
+        private final Method method;
+        private final Object[] args;
+        private Thread runner;
+
+        private Call(CompletableFuture<Object> future, Object receiver, Method method, Object[] args) {
+            this.future = future;
+            this.receiver = receiver;
+            this.method = method;
+            this.args = args;
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    // cancelled before it started
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+
+            try {
+                future.complete(methodInvoker.invoke(method, receiver, args));
+            } catch (Throwable e) {
+                future.completeExceptionally(e instanceof IllegalAccessException ? new RuntimeException(e) : e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // clear an interrupt from a cancellation that came too late
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Holds the default executor, created on first use.
+     */
+    private static class DefaultExecutor {
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // no virtual threads on this JVM
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "multiple-dispatch-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
+import ist.meic.pava.MultipleDispatch.MethodResolver;
+
+/**
+ * A generic function bound to a fixed receiver (or, for static methods, to a
+ * fixed class), for call sites that always dispatch on the same object.
+ *
+ * The dispatch tables of the receiver class and method name are looked up once,
+ * on creation, and every selected method is kept as a method handle with the
+ * receiver already bound to it. A call then only resolves the argument types.
+ * Exceptions thrown by the called methods are propagated unchanged.
+ *
+ * @see MultipleDispatch#bind(Object, String)
+ * @see MultipleDispatch#bindStatic(Class, String)
+ */
+public class BoundDispatcher<R> {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+
+    private final Object receiver;
+    private final String name;
+    private final MethodResolver resolver;
+    private final ConcurrentMap<Method, MethodHandle> boundHandles = new ConcurrentHashMap<>();
+
+    BoundDispatcher(Object receiver, String name, MethodResolver resolver) {
+        this.receiver = receiver;
+        this.name = name;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Calls the most specific method applicable to the given arguments, with the
+     * dispatch rules of UsingMultipleDispatch.invoke (or invokeStatic).
+     *
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called.
+     * @throws RuntimeException when the method does not exist/is inaccessible
+     */
+    @SuppressWarnings("unchecked")
+    public R invoke(Object... args) {
+        try {
+            Method method = resolver.resolve(args);
+
+            MethodHandle handle = boundHandles.get(method);
+            if (handle == null) {
+                handle = boundHandles.computeIfAbsent(method, m -> bind(m));
+            }
+
+            return (R) MethodInvoker.invokeBound(handle, UsingMultipleDispatch.evaluateArguments(method, args));
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the bound receiver, or null if bound to the static methods of a class
+     */
+    public Object getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * @return the name of the method
+     */
+    public String getName() {
+        return name;
+    }
+
+    private MethodHandle bind(Method method) {
+        try {
+            return methodInvoker.bind(method, receiver);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
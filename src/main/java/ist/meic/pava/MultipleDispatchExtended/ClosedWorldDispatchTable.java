@@ -0,0 +1,336 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
+import ist.meic.pava.MultipleDispatch.PartialComparator;
+import ist.meic.pava.MultipleDispatch.PartialOrdering;
+
+/**
+ * An exhaustive dispatch table for a generic function of fixed arity over a
+ * closed world: every receiver class and every concrete argument class the
+ * function will ever be called with is registered up front.
+ *
+ * The most specific method of every tuple of registered classes is computed
+ * when the table is created, with the overload set and ordering of the
+ * extended UsingMultipleDispatch. Calls then only find the classes of their
+ * arguments among the registered ones, comparing them with == (no
+ * isAssignableFrom), and read the selection from a flat array.
+ *
+ * Rather than breaking ties between methods by names (of unrelated parameter
+ * types, as ExtendedTypeSpecificityComparator does, or of the methods
+ * themselves, as MethodSelector.makeTotalOrder does), tuples with several most
+ * specific methods are reported as ambiguous, and tuples with no applicable
+ * method as uncovered. Those tuples have no entry: calls with them fail as
+ * calls with unregistered classes do, and requireComplete rejects tables that
+ * have any.
+ *
+ * Meant for small worlds (e.g. sealed hierarchies): classes are looked up by
+ * scanning the registered ones, and the table has one entry per receiver class
+ * and tuple of argument classes.
+ *
+ * @see CompressedDispatchTable for open worlds.
+ */
+public class ClosedWorldDispatchTable {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+    // the ordering of UsingMultipleDispatch, but for the tie-breaking of unrelated types by name
+    private static final PartialComparator<Method> comparator = new UsingMultipleDispatch.ExtendedMethodComparator(
+        new ExtendedTypeSpecificityComparator(false));
+
+    private final String name;
+    private final int arity;
+    private final boolean isStatic;
+    private final Class<?>[] receiverClasses;
+    private final Class<?>[] argumentClasses;
+    private final Method[] targets;
+    private final MethodHandle[] handles;
+    private final Map<List<Class<?>>, List<Method>> ambiguousTuples = new LinkedHashMap<>();
+    private final List<List<Class<?>>> uncoveredTuples = new ArrayList<>();
+
+    private ClosedWorldDispatchTable(Collection<Class<?>> receiverClasses, String name, Collection<Class<?>> argumentClasses,
+            int arity, boolean isStatic) {
+        if (arity < 0) {
+            throw new IllegalArgumentException("arity must not be negative");
+        }
+
+        this.name = name;
+        this.arity = arity;
+        this.isStatic = isStatic;
+        this.receiverClasses = new LinkedHashSet<>(receiverClasses).toArray(new Class<?>[0]);
+        this.argumentClasses = new LinkedHashSet<>(argumentClasses).toArray(new Class<?>[0]);
+        for (Class<?> type : this.argumentClasses) {
+            // array classes are abstract too, but their instances have them as class
+            if (type.isPrimitive() || type.isInterface() || (!type.isArray() && Modifier.isAbstract(type.getModifiers()))) {
+                throw new IllegalArgumentException(type.getName() + " is not the class of any argument");
+            }
+        }
+
+        int size = this.receiverClasses.length;
+        for (int i = 0; i < arity; i++) {
+            size = Math.multiplyExact(size, this.argumentClasses.length);
+        }
+        this.targets = new Method[size];
+        this.handles = new MethodHandle[size];
+
+        build();
+    }
+
+    /**
+     * Creates the table of the instance methods of the given receiver classes,
+     * as selected by UsingMultipleDispatch.invoke.
+     *
+     * @param receiverClasses the classes of every receiver.
+     * @param name name of the method.
+     * @param argumentClasses the classes of every argument.
+     * @param arity number of arguments of every call.
+     * @return the complete table
+     * @throws IllegalArgumentException if some argument class is abstract, or primitive (arguments are boxed)
+     */
+    public static ClosedWorldDispatchTable forMethods(Collection<Class<?>> receiverClasses, String name,
+            Collection<Class<?>> argumentClasses, int arity) {
+        return new ClosedWorldDispatchTable(receiverClasses, name, argumentClasses, arity, false);
+    }
+
+    /**
+     * Creates the table of the static methods of a class, as selected by
+     * UsingMultipleDispatch.invokeStatic.
+     *
+     * @param receiverClass the class of the methods.
+     * @param name name of the method.
+     * @param argumentClasses the classes of every argument.
+     * @param arity number of arguments of every call.
+     * @return the complete table
+     * @throws IllegalArgumentException if some argument class is abstract, or primitive (arguments are boxed)
+     */
+    public static ClosedWorldDispatchTable forStaticMethods(Class<?> receiverClass, String name,
+            Collection<Class<?>> argumentClasses, int arity) {
+        return new ClosedWorldDispatchTable(Collections.singletonList(receiverClass), name, argumentClasses, arity, true);
+    }
+
+    /**
+     * Checks that every tuple of registered classes has a most specific method.
+     *
+     * @return this table
+     * @throws IllegalStateException listing the ambiguous and uncovered tuples, if there are any
+     */
+    public ClosedWorldDispatchTable requireComplete() {
+        if (ambiguousTuples.isEmpty() && uncoveredTuples.isEmpty()) {
+            return this;
+        }
+
+        StringBuilder message = new StringBuilder("incomplete dispatch table of ").append(name).append(':');
+        for (Map.Entry<List<Class<?>>, List<Method>> ambiguous : ambiguousTuples.entrySet()) {
+            message.append("\n  ambiguous ").append(describe(ambiguous.getKey())).append(": ").append(ambiguous.getValue());
+        }
+        for (List<Class<?>> uncovered : uncoveredTuples) {
+            message.append("\n  uncovered ").append(describe(uncovered));
+        }
+
+        throw new IllegalStateException(message.toString());
+    }
+
+    /**
+     * @return the tuples (receiver class first) with several most specific methods, and those methods
+     */
+    public Map<List<Class<?>>, List<Method>> getAmbiguousTuples() {
+        return Collections.unmodifiableMap(ambiguousTuples);
+    }
+
+    /**
+     * @return the tuples (receiver class first) with no applicable method
+     */
+    public List<List<Class<?>>> getUncoveredTuples() {
+        return Collections.unmodifiableList(uncoveredTuples);
+    }
+
+    /**
+     * @return the number of entries of the table
+     */
+    public int size() {
+        return targets.length;
+    }
+
+    /**
+     * Resolves the method to call for the given receiver class and arguments.
+     *
+     * @param receiverClass the class of the receiver (or of the methods, if static).
+     * @param args call arguments.
+     * @return the selected Method
+     * @throws NoSuchMethodException if some class is not registered, or the tuple is ambiguous or uncovered.
+     * @throws IllegalArgumentException if the number of arguments is not the arity of the table.
+     */
+    public Method resolve(Class<?> receiverClass, Object[] args) throws NoSuchMethodException {
+        int index = indexOf(receiverClass, args);
+        if (index < 0 || targets[index] == null) {
+            throw buildNoSuchMethodException(receiverClass, args);
+        }
+
+        return targets[index];
+    }
+
+    /**
+     * Calls the method selected for the given receiver and arguments, as
+     * UsingMultipleDispatch.invoke (or invokeStatic, for tables of static
+     * methods) does.
+     *
+     * @param receiver receiver object (ignored for static methods).
+     * @param args call arguments.
+     * @return the object returned by the method called.
+     * @throws RuntimeException when any exceptions occur when invoking the method (wrapped in an
+     *         InvocationTargetException), and when the method is not in the table/is inaccessible
+     */
+    public Object invoke(Object receiver, Object... args) {
+        Class<?> receiverClass = isStatic ? receiverClasses[0] : receiver.getClass();
+        int index = indexOf(receiverClass, args);
+        if (index < 0 || targets[index] == null) {
+            throw new RuntimeException(buildNoSuchMethodException(receiverClass, args));
+        }
+
+        Method method = targets[index];
+        MethodHandle handle = handles[index];
+        if (handle == null) {
+            try {
+                handle = methodInvoker.handleFor(method);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        Object[] preparedArgs = UsingMultipleDispatch.evaluateArguments(method, args);
+        try {
+            return (Object) handle.invokeExact(receiver, preparedArgs);
+        } catch (Throwable e) {
+            throw new RuntimeException(new InvocationTargetException(e));
+        }
+    }
+
+    /**
+     * @return the index of the entry of the given classes, or -1 if some class is not registered
+     */
+    private int indexOf(Class<?> receiverClass, Object[] args) {
+        if (args.length != arity) {
+            throw new IllegalArgumentException("expected " + arity + " arguments, got " + args.length);
+        }
+
+        int index = indexOf(receiverClasses, receiverClass);
+        if (index < 0) {
+            return -1;
+        }
+
+        for (Object arg : args) {
+            int position = indexOf(argumentClasses, arg.getClass());
+            if (position < 0) {
+                return -1;
+            }
+
+            index = index * argumentClasses.length + position;
+        }
+
+        return index;
+    }
+
+    private static int indexOf(Class<?>[] classes, Class<?> type) {
+        for (int i = 0; i < classes.length; i++) {
+            if (classes[i] == type) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void build() {
+        Class<?>[] argTypes = new Class<?>[arity];
+
+        for (int index = 0; index < targets.length; index++) {
+            int rest = index;
+            for (int i = arity - 1; i >= 0; i--) {
+                argTypes[i] = argumentClasses[rest % argumentClasses.length];
+                rest /= argumentClasses.length;
+            }
+            Class<?> receiverClass = receiverClasses[rest];
+
+            List<Method> mostSpecific = mostSpecific(receiverClass, argTypes);
+            if (mostSpecific.size() == 1) {
+                targets[index] = mostSpecific.get(0);
+                handles[index] = handleOrNull(targets[index]);
+            } else if (mostSpecific.isEmpty()) {
+                uncoveredTuples.add(tuple(receiverClass, argTypes));
+            } else {
+                ambiguousTuples.put(tuple(receiverClass, argTypes), mostSpecific);
+            }
+        }
+    }
+
+    /**
+     * @return the applicable methods no other applicable method is more specific than
+     */
+    private List<Method> mostSpecific(Class<?> receiverClass, Class<?>[] argTypes) {
+        List<Method> applicable = new ArrayList<>();
+        for (MethodDescriptor method : MethodDescriptor.publicMethodsOf(receiverClass)) {
+            if (method.getName().equals(name) && method.isStatic() == isStatic
+                    && UsingMultipleDispatch.ExtendedCandidateMethodFinderBase.isApplicable(method, argTypes)) {
+                applicable.add(method.getMethod());
+            }
+        }
+
+        List<Method> maximal = new ArrayList<>();
+        for (Method candidate : applicable) {
+            boolean isMaximal = true;
+            for (Method other : applicable) {
+                if (other != candidate && comparator.compare(candidate, other) == PartialOrdering.LESS) {
+                    isMaximal = false;
+                    break;
+                }
+            }
+
+            if (isMaximal) {
+                maximal.add(candidate);
+            }
+        }
+
+        return maximal;
+    }
+
+    private static MethodHandle handleOrNull(Method method) {
+        try {
+            return methodInvoker.handleFor(method);
+        } catch (IllegalAccessException e) {
+            // reported by invoke, as Method.invoke would
+            return null;
+        }
+    }
+
+    private static List<Class<?>> tuple(Class<?> receiverClass, Class<?>[] argTypes) {
+        List<Class<?>> tuple = new ArrayList<>(argTypes.length + 1);
+        tuple.add(receiverClass);
+        tuple.addAll(Arrays.asList(argTypes));
+        return Collections.unmodifiableList(tuple);
+    }
+
+    private static String describe(List<Class<?>> tuple) {
+        return tuple.stream()
+            .skip(1)
+            .map(Class::getName)
+            .collect(Collectors.joining(", ", tuple.get(0).getName() + "(", ")"));
+    }
+
+    private static NoSuchMethodException buildNoSuchMethodException(Class<?> receiverClass, Object[] args) {
+        return new NoSuchMethodException(Arrays.stream(args)
+            .map(arg -> arg.getClass().getName())
+            .collect(Collectors.joining(", ", receiverClass.getName() + "(", ")")));
+    }
+}
@@ -0,0 +1,421 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+
+/**
+ * A compressed dispatch table for a generic function of fixed arity, with the
+ * overload set and ordering of the extended UsingMultipleDispatch.
+ *
+ * A full table indexed by the classes of every argument grows with the product
+ * of the number of classes at each position. This table is compressed twice:
+ *
+ *  - argument position compression: at each position, classes accepted by
+ *    exactly the same overloads are interchangeable, so they share one index
+ *    (a "pole"). The number of poles is bounded by the overload set, not by the
+ *    number of classes;
+ *  - row displacement: the table over pole tuples is seen as a two-dimensional
+ *    one (all positions but the last select a row, the last selects a column).
+ *    Identical rows are stored once, and distinct rows are overlapped in a
+ *    single array, each at an offset where its non-empty entries do not collide
+ *    with those of other rows. A check array records which row owns each slot.
+ *
+ * Lookup costs one pole lookup per argument, plus three array accesses.
+ * Poles are discovered lazily; a new pole makes the table be rebuilt, which
+ * only happens a bounded number of times. If the rows over poles no longer fit
+ * in an array, the table is kept as it is, and calls with arguments of the
+ * poles left out are selected from the overloads accepting each argument.
+ *
+ * @see UsingMultipleDispatch.ExtendedCandidateMethodFinderBase
+ * @see UsingMultipleDispatch.ExtendedMethodComparator
+ */
+public class CompressedDispatchTable {
+    private final Class<?> receiverClass;
+    private final int arity;
+    private final MethodDescriptor[] descriptors;
+    private final Method[] methods;
+    private final Comparator<Method> comparator = MethodSelector.makeTotalOrder(new UsingMultipleDispatch.ExtendedMethodComparator());
+
+    // per argument position, guarded by this (except for poleIndices reads)
+    private final List<ConcurrentMap<Class<?>, Integer>> poleIndices = new ArrayList<>();
+    private final List<List<BitSet>> poles = new ArrayList<>();
+    private final List<Map<BitSet, Integer>> poleLookup = new ArrayList<>();
+
+    private volatile Table table;
+
+    private CompressedDispatchTable(Class<?> receiverClass, String name, int arity, boolean isStatic) {
+        if (arity < 1) {
+            throw new IllegalArgumentException("arity must be positive");
+        }
+
+        this.receiverClass = receiverClass;
+        this.arity = arity;
+        this.descriptors = Arrays.stream(MethodDescriptor.publicMethodsOf(receiverClass))
+            .filter(m -> m.getName().equals(name))
+            .filter(m -> m.isStatic() == isStatic)
+            .filter(m -> m.isVarArgs() ? m.getNormalParameterCount() <= arity : m.getParameterCount() == arity)
+            .toArray(MethodDescriptor[]::new);
+        this.methods = Arrays.stream(descriptors)
+            .map(MethodDescriptor::getMethod)
+            .toArray(Method[]::new);
+
+        for (int i = 0; i < arity; i++) {
+            poleIndices.add(new ConcurrentHashMap<>());
+            poles.add(new ArrayList<>());
+            poleLookup.add(new HashMap<>());
+        }
+
+        this.table = build();
+    }
+
+    /**
+     * Creates a table for the instance methods of a class, as selected by
+     * UsingMultipleDispatch.invoke.
+     *
+     * @param receiverClass the class of the receiver.
+     * @param name name of the method.
+     * @param arity number of arguments of every call.
+     * @return an empty table
+     */
+    public static CompressedDispatchTable forMethods(Class<?> receiverClass, String name, int arity) {
+        return new CompressedDispatchTable(receiverClass, name, arity, false);
+    }
+
+    /**
+     * Creates a table for the static methods of a class, as selected by
+     * UsingMultipleDispatch.invokeStatic.
+     *
+     * @param receiverClass the class of the methods.
+     * @param name name of the method.
+     * @param arity number of arguments of every call.
+     * @return an empty table
+     */
+    public static CompressedDispatchTable forStaticMethods(Class<?> receiverClass, String name, int arity) {
+        return new CompressedDispatchTable(receiverClass, name, arity, true);
+    }
+
+    /**
+     * Resolves the method to call for the given arguments.
+     *
+     * @param args call arguments.
+     * @return the selected Method
+     * @throws NoSuchMethodException if no matching method could be found.
+     * @throws IllegalArgumentException if the number of arguments is not the arity of the table.
+     */
+    public Method resolve(Object[] args) throws NoSuchMethodException {
+        if (args.length != arity) {
+            throw new IllegalArgumentException("expected " + arity + " arguments, got " + args.length);
+        }
+
+        Method method = lookup(table, args);
+        if (method == null) {
+            method = lookupDiscovering(args);
+        }
+
+        return method;
+    }
+
+    /**
+     * @return the number of entries of the uncompressed table over poles
+     */
+    public long uncompressedSize() {
+        Table t = table;
+        return (long) t.rowPatterns.length * t.poleCounts[arity - 1];
+    }
+
+    /**
+     * @return the number of slots of the compressed table
+     */
+    public int compressedSize() {
+        return table.targets.length;
+    }
+
+    /**
+     * Estimates the memory taken by this table, in bytes.
+     *
+     * Assumes 16 bytes per array header, 4 bytes per reference and about
+     * 48 bytes per known class (one hash table node per argument position).
+     *
+     * @return estimated footprint in bytes
+     */
+    public long estimatedFootprint() {
+        Table t = table;
+        long bytes = 4 * 16;
+        bytes += 4L * (t.poleCounts.length + t.rowPatterns.length + t.offsets.length + t.check.length);
+        bytes += 4L * t.targets.length;
+
+        for (Map<Class<?>, Integer> indices : poleIndices) {
+            bytes += 48L * indices.size();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Looks up the given arguments in a table snapshot.
+     *
+     * @return the selected method, or null if some argument class is not in the snapshot
+     * @throws NoSuchMethodException if every argument class is known, but no method is applicable
+     */
+    private Method lookup(Table t, Object[] args) throws NoSuchMethodException {
+        int row = 0;
+        for (int i = 0; i < arity - 1; i++) {
+            Integer pole = poleIndices.get(i).get(args[i].getClass());
+            if (pole == null || pole >= t.poleCounts[i]) {
+                return null;
+            }
+
+            row = row * t.poleCounts[i] + pole;
+        }
+
+        Integer column = poleIndices.get(arity - 1).get(args[arity - 1].getClass());
+        if (column == null || column >= t.poleCounts[arity - 1]) {
+            return null;
+        }
+
+        int pattern = t.rowPatterns[row];
+        int slot = t.offsets[pattern] + column;
+
+        if (t.check[slot] != pattern) {
+            throw buildNoSuchMethodException(args);
+        }
+
+        return t.targets[slot];
+    }
+
+    private synchronized Method lookupDiscovering(Object[] args) throws NoSuchMethodException {
+        boolean newPoles = false;
+        for (int i = 0; i < arity; i++) {
+            newPoles |= discover(i, args[i].getClass());
+        }
+
+        if (newPoles) {
+            Table rebuilt = build();
+            if (rebuilt != null) {
+                table = rebuilt;
+            }
+        }
+
+        // every argument class is known by now
+        Method method = lookup(table, args);
+        if (method == null) {
+            // some pole did not fit in the table
+            method = lookupUncompressed(args);
+        }
+
+        return method;
+    }
+
+    private Method lookupUncompressed(Object[] args) throws NoSuchMethodException {
+        BitSet applicable = new BitSet(methods.length);
+        applicable.set(0, methods.length);
+        for (int i = 0; i < arity; i++) {
+            applicable.and(poles.get(i).get(poleIndices.get(i).get(args[i].getClass())));
+        }
+
+        Method method = select(applicable);
+        if (method == null) {
+            throw buildNoSuchMethodException(args);
+        }
+
+        return method;
+    }
+
+    private NoSuchMethodException buildNoSuchMethodException(Object[] args) {
+        return new NoSuchMethodException(Arrays.stream(args)
+            .map(arg -> arg.getClass().getName())
+            .collect(Collectors.joining(", ", receiverClass.getName() + "(", ")")));
+    }
+
+    /**
+     * Assigns a pole to the given class at the given position.
+     *
+     * @return true if a new pole was created
+     */
+    private boolean discover(int position, Class<?> type) {
+        if (poleIndices.get(position).containsKey(type)) {
+            return false;
+        }
+
+        BitSet accepting = new BitSet(methods.length);
+        for (int j = 0; j < methods.length; j++) {
+            if (accepts(descriptors[j], position, type)) {
+                accepting.set(j);
+            }
+        }
+
+        Integer pole = poleLookup.get(position).get(accepting);
+        boolean isNew = pole == null;
+        if (isNew) {
+            pole = poles.get(position).size();
+            poles.get(position).add(accepting);
+            poleLookup.get(position).put(accepting, pole);
+        }
+
+        poleIndices.get(position).put(type, pole);
+        return isNew;
+    }
+
+    /**
+     * Per-position version of the applicability check of ExtendedCandidateMethodFinderBase.
+     */
+    private boolean accepts(MethodDescriptor method, int position, Class<?> type) {
+        int varargsIndex = method.getNormalParameterCount();
+
+        if (!method.isVarArgs() || position < varargsIndex) {
+            return UsingMultipleDispatch.ExtendedCandidateMethodFinderBase.isAssignableFrom(method.getParameterType(position), type);
+        }
+
+        if (method.getParameterCount() == arity
+                && UsingMultipleDispatch.ExtendedCandidateMethodFinderBase.isAssignableFrom(method.getParameterType(varargsIndex), type)) {
+            // varargs method with args array supplied
+            return true;
+        }
+
+        return UsingMultipleDispatch.ExtendedCandidateMethodFinderBase.isAssignableFrom(method.getVarargsComponentType(), type);
+    }
+
+    /**
+     * @return a table over the poles discovered so far, or null if its rows do not fit in an array
+     */
+    private Table build() {
+        int[] poleCounts = new int[arity];
+        long rows = 1;
+        for (int i = 0; i < arity; i++) {
+            poleCounts[i] = poles.get(i).size();
+            if (i < arity - 1) {
+                rows *= poleCounts[i];
+                if (rows > Integer.MAX_VALUE - 8) {
+                    return null;
+                }
+            }
+        }
+        int rowCount = (int) rows;
+        int columnCount = poleCounts[arity - 1];
+
+        // compute every row, storing identical rows once
+        Map<BitSet, Method> selections = new HashMap<>();
+        Map<List<Method>, Integer> patternLookup = new HashMap<>();
+        List<Method[]> patterns = new ArrayList<>();
+        int[] rowPatterns = new int[rowCount];
+
+        for (int row = 0; row < rowCount; row++) {
+            BitSet prefix = new BitSet(methods.length);
+            prefix.set(0, methods.length);
+            for (int i = arity - 2, rest = row; i >= 0; i--) {
+                prefix.and(poles.get(i).get(rest % poleCounts[i]));
+                rest /= poleCounts[i];
+            }
+
+            Method[] cells = new Method[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                BitSet applicable = (BitSet) prefix.clone();
+                applicable.and(poles.get(arity - 1).get(column));
+                cells[column] = selections.computeIfAbsent(applicable, this::select);
+            }
+
+            Integer pattern = patternLookup.get(Arrays.asList(cells));
+            if (pattern == null) {
+                pattern = patterns.size();
+                patterns.add(cells);
+                patternLookup.put(Arrays.asList(cells), pattern);
+            }
+            rowPatterns[row] = pattern;
+        }
+
+        // row displacement: place the densest rows first, each at the first offset where it fits
+        Integer[] order = new Integer[patterns.size()];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer p) -> density(patterns.get(p))).reversed());
+
+        int[] offsets = new int[patterns.size()];
+        int[] check = new int[Math.max(columnCount, 1)];
+        Method[] targets = new Method[check.length];
+        Arrays.fill(check, -1);
+
+        for (int p : order) {
+            Method[] cells = patterns.get(p);
+            int offset = 0;
+            while (!fits(cells, check, offset)) {
+                offset++;
+            }
+
+            if (offset + columnCount > check.length) {
+                int oldLength = check.length;
+                check = Arrays.copyOf(check, offset + columnCount);
+                targets = Arrays.copyOf(targets, check.length);
+                Arrays.fill(check, oldLength, check.length, -1);
+            }
+
+            for (int column = 0; column < columnCount; column++) {
+                if (cells[column] != null) {
+                    check[offset + column] = p;
+                    targets[offset + column] = cells[column];
+                }
+            }
+            offsets[p] = offset;
+        }
+
+        return new Table(poleCounts, rowPatterns, offsets, check, targets);
+    }
+
+    private Method select(BitSet applicable) {
+        return applicable.stream()
+            .mapToObj(j -> methods[j])
+            .max(comparator)
+            .orElse(null);
+    }
+
+    private static int density(Method[] cells) {
+        int count = 0;
+        for (Method cell : cells) {
+            if (cell != null) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean fits(Method[] cells, int[] check, int offset) {
+        for (int column = 0; column < cells.length; column++) {
+            if (cells[column] != null && offset + column < check.length && check[offset + column] != -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * An immutable snapshot of the compressed table.
+     */
+    private static final class Table {
+        private final int[] poleCounts;
+        private final int[] rowPatterns;
+        private final int[] offsets;
+        private final int[] check;
+        private final Method[] targets;
+
+        private Table(int[] poleCounts, int[] rowPatterns, int[] offsets, int[] check, Method[] targets) {
+            this.poleCounts = poleCounts;
+            this.rowPatterns = rowPatterns;
+            this.offsets = offsets;
+            this.check = check;
+            this.targets = targets;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+import ist.meic.pava.MultipleDispatch.PartialOrdering;
+import ist.meic.pava.MultipleDispatch.TypeTuple;
+
+/**
+ * The constructor dispatch table of a class: selects constructors by the
+ * runtime types of the arguments and keeps them as method handles.
+ *
+ * Applicability is that of ExtendedCandidateMethodFinderBase and ordering that
+ * of ExtendedMethodComparator, with incomparable constructors disambiguated by
+ * their string representations (as in MethodSelector). The public constructors
+ * of the class are only listed when an argument type tuple is first seen.
+ *
+ * @see MultipleDispatch#construct(Class, Object...)
+ */
+class ConstructorTable {
+    private static final ClassValue<ConstructorTable> tables = new ClassValue<ConstructorTable>() {
+        @Override
+        protected ConstructorTable computeValue(Class<?> type) {
+            return new ConstructorTable(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final ConcurrentMap<TypeTuple, Target> targets = new ConcurrentHashMap<>();
+
+    private ConstructorTable(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * @param type class to instantiate
+     * @return the (shared) constructor table of the class
+     */
+    static ConstructorTable of(Class<?> type) {
+        return tables.get(type);
+    }
+
+    /**
+     * Creates an instance with the most specific constructor applicable to the
+     * arguments. Exceptions thrown by the constructor are propagated unchanged.
+     *
+     * @param args constructor arguments
+     * @return the new instance
+     * @throws RuntimeException when the constructor does not exist/is inaccessible
+     */
+    Object construct(Object[] args) {
+        TypeTuple key = TypeTuple.of(args);
+        Target target = targets.get(key);
+
+        if (target == null) {
+            target = targets.computeIfAbsent(key, k -> select(args));
+        }
+
+        return MethodInvoker.invokeBound(target.handle, UsingMultipleDispatch.evaluateArguments(target.constructor, args));
+    }
+
+    private Target select(Object[] args) {
+        Class<?>[] argTypes = MethodSelector.getObjectTypes(args);
+
+        Constructor<?> constructor = Arrays.stream(type.getConstructors())
+            .filter(c -> UsingMultipleDispatch.ExtendedCandidateMethodFinderBase.isApplicable(c, argTypes))
+            .max((lhs, rhs) -> {
+                PartialOrdering partialOrd = UsingMultipleDispatch.ExtendedMethodComparator.compareExecutables(lhs, rhs);
+
+                if (partialOrd == PartialOrdering.INCOMPARABLE) {
+                    // disambiguate with string representations
+                    return lhs.toString().compareTo(rhs.toString());
+                }
+                return partialOrd.asTotalOrdering();
+            })
+            .orElseThrow(() -> new RuntimeException(new NoSuchMethodException(type.getName() + ".<init>"
+                + Arrays.toString(argTypes))));
+
+        try {
+            int parameterCount = constructor.getParameterCount();
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                .asFixedArity()
+                .asType(MethodType.genericMethodType(parameterCount))
+                .asSpreader(Object[].class, parameterCount);
+
+            return new Target(constructor, handle);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Target {
+        private final Constructor<?> constructor;
+        private final MethodHandle handle;
+
+        private Target(Constructor<?> constructor, MethodHandle handle) {
+            this.constructor = constructor;
+            this.handle = handle;
+        }
+    }
+}
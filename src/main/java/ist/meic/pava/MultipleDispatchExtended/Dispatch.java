@@ -0,0 +1,50 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the parameters of a method that take part in dispatch, as done by
+ * the extended UsingMultipleDispatch.
+ *
+ * By default, every argument of a call is dispatched on. Once a method has
+ * parameters annotated with Dispatch, or is annotated with Dispatch(positions),
+ * only those parameters are: the others (contexts, loggers, buffers, ...) are
+ * left out of the specificity comparison, so a more specific type there does
+ * not make a method more specific. Their arguments must still be assignable to
+ * the parameters for the method to be applicable. The receiver is always
+ * dispatched on.
+ *
+ *     public String draw(@Dispatch Shape shape, Context context, Logger logger)
+ *
+ *     @Dispatch(positions = {0})
+ *     public String draw(Line line, Context context, Logger logger)
+ *
+ * The overloads of a method should agree on their dispatched positions: two
+ * methods are only compared at the positions both dispatch on. Overloads that
+ * only differ elsewhere are incomparable, so the one with the greater string
+ * representation is selected, whatever order they are declared in. The
+ * varargs parameter stands for every argument from its position on.
+ *
+ * Since undispatched arguments still decide applicability, their classes are
+ * still part of the keys of resolution caches and of type projections: the
+ * annotation changes which method is selected, not how selections are cached.
+ *
+ * Invalid positions make the method fail every call to its name with an
+ * IllegalArgumentException. Other methods of the class are not affected.
+ *
+ * @see UsingMultipleDispatch.ExtendedCandidateMethodFinderBase
+ * @see UsingMultipleDispatch.ExtendedMethodComparator
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.PARAMETER })
+public @interface Dispatch {
+    /**
+     * @return the indices of the dispatched parameters, when annotating a method (ignored on parameters)
+     */
+    int[] positions() default {};
+}
@@ -9,9 +9,24 @@ import ist.meic.pava.MultipleDispatch.PartialOrdering;
  * Primitives are considered more specific than their boxed counterparts.
  *
  * When two types have no relationship between them, if only one of them is an interface,
- * it is considered less specific; if both are interfaces/classes, they are compared by name.
+ * it is considered less specific; if both are interfaces/classes, they are compared by name
+ * (unless told to leave them incomparable).
  */
 public class ExtendedTypeSpecificityComparator extends ist.meic.pava.MultipleDispatch.TypeSpecificityComparator {
+    private final boolean disambiguatesByName;
+
+    public ExtendedTypeSpecificityComparator() {
+        this(true);
+    }
+
+    /**
+     * @param disambiguatesByName whether unrelated types that are both classes or both interfaces
+     *                            are compared by name, rather than left incomparable
+     */
+    public ExtendedTypeSpecificityComparator(boolean disambiguatesByName) {
+        this.disambiguatesByName = disambiguatesByName;
+    }
+
     public PartialOrdering compare(Class<?> lhsOrig, Class<?> rhsOrig) {
         Class<?> lhs = TypeNormalizer.boxed(lhsOrig);
         Class<?> rhs = TypeNormalizer.boxed(rhsOrig);
@@ -39,7 +54,9 @@ public class ExtendedTypeSpecificityComparator extends ist.meic.pava.MultipleDis
             })
             .mapIncomparable(() -> {
                 // disambiguate by name
-                return PartialOrdering.fromTotalOrdering(lhs.getName().compareTo(rhs.getName()));
+                return disambiguatesByName
+                    ? PartialOrdering.fromTotalOrdering(lhs.getName().compareTo(rhs.getName()))
+                    : PartialOrdering.INCOMPARABLE;
             });
     }
 
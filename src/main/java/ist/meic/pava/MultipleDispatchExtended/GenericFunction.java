@@ -0,0 +1,51 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.reflect.Method;
+
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+
+/**
+ * A handle to a generic function with the dispatch rules of the extended
+ * UsingMultipleDispatch: variadic calls and automatic boxing/unboxing.
+ *
+ * @see ist.meic.pava.MultipleDispatch.GenericFunction
+ * @see StaticGenericFunction for generic functions made of static methods.
+ */
+public class GenericFunction<R> extends ist.meic.pava.MultipleDispatch.GenericFunction<R> {
+
+    private GenericFunction(Class<?> receiverType, String name) {
+        super(receiverType, name, new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+                new UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder()));
+    }
+
+    /**
+     * Creates a generic function handle with the same dispatch rules as
+     * UsingMultipleDispatch.invoke.
+     *
+     * @param receiverType the type every receiver must be an instance of.
+     * @param name name of the method.
+     * @param <R> return type of the generic function.
+     * @return the generic function handle
+     */
+    public static <R> GenericFunction<R> of(Class<?> receiverType, String name) {
+        return new GenericFunction<>(receiverType, name);
+    }
+
+    /**
+     * Creates a generic function handle over the static methods of a class, with
+     * the same dispatch rules as UsingMultipleDispatch.invokeStatic.
+     *
+     * @param receiverClass the class of the methods.
+     * @param name name of the method.
+     * @param <R> return type of the generic function.
+     * @return the generic function handle
+     */
+    public static <R> StaticGenericFunction<R> ofStatic(Class<?> receiverClass, String name) {
+        return new StaticGenericFunction<>(receiverClass, name);
+    }
+
+    @Override
+    protected Object[] prepareArguments(Method method, Object[] args) {
+        return UsingMultipleDispatch.evaluateArguments(method, args);
+    }
+}
@@ -0,0 +1,31 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Invokes methods with the dispatch rules of the extended UsingMultipleDispatch
+ * (static methods included) and the access rights of the caller.
+ *
+ * @see ist.meic.pava.MultipleDispatch.LookupInvoker
+ * @see UsingMultipleDispatch#withLookup(MethodHandles.Lookup)
+ */
+public class LookupInvoker extends ist.meic.pava.MultipleDispatch.LookupInvoker {
+
+    LookupInvoker(MethodHandles.Lookup caller) {
+        super(caller, UsingMultipleDispatch.nonStaticMethodSelector, UsingMultipleDispatch::evaluateArguments);
+    }
+
+    /**
+     * Invokes a static method by class, name and arguments, as UsingMultipleDispatch.invokeStatic.
+     *
+     * @param receiverClass the class of the method.
+     * @param name name of the method to call.
+     * @param args call arguments.
+     * @return object returned by the method call.
+     * @throws RuntimeException when any exceptions occur when invoking the method (wrapped in an
+     *         InvocationTargetException), and when the method does not exist/is inaccessible
+     */
+    public Object invokeStatic(Class<?> receiverClass, String name, Object... args) {
+        return call(UsingMultipleDispatch.staticMethodSelector, receiverClass, null, name, args);
+    }
+}
@@ -0,0 +1,271 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The reflective metadata of a method or constructor that method selection
+ * looks at, computed once.
+ *
+ * Executable.getParameterTypes returns a fresh copy on every call, so the
+ * candidate finders and comparators of UsingMultipleDispatch work on descriptors
+ * instead. Descriptors are cached per declaring class, and the public methods
+ * of each class are kept as an array of descriptors. Descriptors also record
+ * which parameters are compared for specificity (see Dispatch), or why the
+ * annotations that select them are invalid.
+ *
+ * @see UsingMultipleDispatch.ExtendedMethodComparator
+ * @see UsingMultipleDispatch.ExtendedCandidateMethodFinderBase
+ */
+final class MethodDescriptor {
+    private static final ClassValue<ConcurrentMap<Executable, MethodDescriptor>> descriptors = new ClassValue<ConcurrentMap<Executable, MethodDescriptor>>() {
+        @Override
+        protected ConcurrentMap<Executable, MethodDescriptor> computeValue(Class<?> declaringClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final ClassValue<MethodDescriptor[]> publicMethods = new ClassValue<MethodDescriptor[]>() {
+        @Override
+        protected MethodDescriptor[] computeValue(Class<?> type) {
+            Method[] methods = type.getMethods();
+            MethodDescriptor[] result = new MethodDescriptor[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                result[i] = of(methods[i]);
+            }
+
+            return result;
+        }
+    };
+
+    private final Executable executable;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+    private final Class<?>[] boxedParameterTypes;
+    private final int normalParameterCount;
+    private final Class<?> varargsComponentType;
+    private final Class<?> boxedVarargsComponentType;
+    private final boolean isStatic;
+    private final int declaringClassDepth;
+    // null if every parameter is dispatched on
+    private final boolean[] dispatched;
+    // null unless the Dispatch annotations are invalid
+    private final String dispatchError;
+
+    private MethodDescriptor(Executable executable) {
+        this.executable = executable;
+        this.name = executable.getName();
+        this.parameterTypes = executable.getParameterTypes();
+        this.boxedParameterTypes = new Class<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            boxedParameterTypes[i] = TypeNormalizer.boxed(parameterTypes[i]);
+        }
+
+        if (executable.isVarArgs()) {
+            this.normalParameterCount = parameterTypes.length - 1;
+            this.varargsComponentType = parameterTypes[normalParameterCount].getComponentType();
+            this.boxedVarargsComponentType = TypeNormalizer.boxed(varargsComponentType);
+        } else {
+            this.normalParameterCount = parameterTypes.length;
+            this.varargsComponentType = null;
+            this.boxedVarargsComponentType = null;
+        }
+
+        this.isStatic = Modifier.isStatic(executable.getModifiers());
+        this.declaringClassDepth = depth(executable.getDeclaringClass());
+
+        // a method with invalid annotations must not break the method table of its class
+        boolean[] dispatched = null;
+        String dispatchError = null;
+        try {
+            dispatched = dispatchedParameters(executable);
+        } catch (IllegalArgumentException e) {
+            dispatchError = e.getMessage();
+        }
+        this.dispatched = dispatched;
+        this.dispatchError = dispatchError;
+    }
+
+    /**
+     * @param executable a method or constructor
+     * @return the (shared) descriptor of the method or constructor
+     */
+    static MethodDescriptor of(Executable executable) {
+        ConcurrentMap<Executable, MethodDescriptor> declared = descriptors.get(executable.getDeclaringClass());
+        MethodDescriptor descriptor = declared.get(executable);
+
+        if (descriptor == null) {
+            descriptor = declared.computeIfAbsent(executable, MethodDescriptor::new);
+        }
+
+        return descriptor;
+    }
+
+    /**
+     * @param type a class
+     * @return descriptors of the public methods of the class (as Class.getMethods), which must not be modified
+     */
+    static MethodDescriptor[] publicMethodsOf(Class<?> type) {
+        return publicMethods.get(type);
+    }
+
+    /**
+     * @return the described method or constructor
+     */
+    Executable getExecutable() {
+        return executable;
+    }
+
+    /**
+     * @return the described method
+     * @throws ClassCastException if this describes a constructor
+     */
+    Method getMethod() {
+        return (Method) executable;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getDeclaringClass() {
+        return executable.getDeclaringClass();
+    }
+
+    /**
+     * @return the number of superclasses of the declaring class (0 for interfaces)
+     */
+    int getDeclaringClassDepth() {
+        return declaringClassDepth;
+    }
+
+    boolean isStatic() {
+        return isStatic;
+    }
+
+    boolean isVarArgs() {
+        return varargsComponentType != null;
+    }
+
+    /**
+     * @return the number of formal parameters, the varargs array included
+     */
+    int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * @return the number of formal parameters before the varargs array, if any
+     */
+    int getNormalParameterCount() {
+        return normalParameterCount;
+    }
+
+    Class<?> getParameterType(int i) {
+        return parameterTypes[i];
+    }
+
+    Class<?> getBoxedParameterType(int i) {
+        return boxedParameterTypes[i];
+    }
+
+    /**
+     * @return the component type of the varargs array, or null if not varargs
+     */
+    Class<?> getVarargsComponentType() {
+        return varargsComponentType;
+    }
+
+    /**
+     * @return the boxed component type of the varargs array, or null if not varargs
+     */
+    Class<?> getBoxedVarargsComponentType() {
+        return boxedVarargsComponentType;
+    }
+
+    /**
+     * The type of the i-th parameter once varargs are treated as any other
+     * parameters: the varargs component type from the varargs array on.
+     *
+     * @param i index of the parameter, which may exceed the parameter count if varargs
+     * @return the normalized type of the i-th parameter
+     */
+    Class<?> getNormalizedParameterType(int i) {
+        return i < normalParameterCount ? parameterTypes[i] : varargsComponentType;
+    }
+
+    /**
+     * @param position index of an argument, which may exceed the parameter count if varargs
+     * @return true if the argument at the given position is dispatched on
+     */
+    boolean isDispatched(int position) {
+        if (dispatched == null) {
+            return true;
+        }
+
+        return dispatched[Math.min(position, dispatched.length - 1)];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the Dispatch annotations of the method are invalid
+     */
+    void checkDispatchAnnotations() {
+        if (dispatchError != null) {
+            throw new IllegalArgumentException(dispatchError);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return executable.toString();
+    }
+
+    /**
+     * @return which parameters the Dispatch annotations select, or null if there are none
+     */
+    private static boolean[] dispatchedParameters(Executable executable) {
+        Dispatch methodAnnotation = executable.getAnnotation(Dispatch.class);
+        Annotation[][] parameterAnnotations = executable.getParameterAnnotations();
+        boolean[] dispatched = new boolean[parameterAnnotations.length];
+        boolean isAnnotated = methodAnnotation != null;
+
+        if (methodAnnotation != null) {
+            for (int position : methodAnnotation.positions()) {
+                if (position < 0 || position >= dispatched.length) {
+                    throw new IllegalArgumentException("no parameter " + position + " to dispatch on in " + executable);
+                }
+                dispatched[position] = true;
+            }
+        }
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof Dispatch) {
+                    dispatched[i] = true;
+                    isAnnotated = true;
+                }
+            }
+        }
+
+        for (boolean isDispatched : dispatched) {
+            if (isAnnotated && !isDispatched) {
+                return dispatched;
+            }
+        }
+
+        return null;
+    }
+
+    private static int depth(Class<?> type) {
+        int depth = 0;
+        for (Class<?> c = type.getSuperclass(); c != null; c = c.getSuperclass()) {
+            depth++;
+        }
+
+        return depth;
+    }
+}
@@ -0,0 +1,24 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+/**
+ * An open multimethod with the extended type rules: primitive parameter types
+ * accept their boxed counterparts, and implementations are ordered with
+ * ExtendedTypeSpecificityComparator (so ambiguities are resolved the same way
+ * as in the extended UsingMultipleDispatch).
+ *
+ * @see ist.meic.pava.MultipleDispatch.MultiMethod
+ */
+public class MultiMethod<R> extends ist.meic.pava.MultipleDispatch.MultiMethod<R> {
+
+    /**
+     * Creates an empty multimethod, ordering implementations with ExtendedTypeSpecificityComparator.
+     */
+    public MultiMethod() {
+        super(new ExtendedTypeSpecificityComparator());
+    }
+
+    @Override
+    protected boolean isAssignableFrom(Class<?> paramType, Class<?> argType) {
+        return TypeNormalizer.boxed(paramType).isAssignableFrom(TypeNormalizer.boxed(argType));
+    }
+}
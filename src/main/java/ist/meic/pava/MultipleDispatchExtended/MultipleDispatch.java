@@ -0,0 +1,98 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+/**
+ * Typed entry points to multiple dispatch, as an alternative to calling
+ * UsingMultipleDispatch with method names and argument arrays.
+ *
+ * @see UsingMultipleDispatch
+ */
+public class MultipleDispatch {
+    private MultipleDispatch() {
+    }
+
+    /**
+     * Creates an implementation of the given interface that routes each of its
+     * methods to the most specific method of impl with the same name, chosen by
+     * the runtime types of the arguments (with the dispatch rules of
+     * UsingMultipleDispatch.invoke). For example:
+     *
+     *     interface Visitor { String visit(Node node); }
+     *     class Printer { String visit(Node n) {...} String visit(Leaf l) {...} }
+     *     ...
+     *     Visitor visitor = MultipleDispatch.proxy(Visitor.class, new Printer());
+     *     visitor.visit(leaf); // calls Printer.visit(Leaf)
+     *
+     * The implementation is an instance of a class generated once per
+     * interface, in which each abstract method of the interface has its own
+     * resolution cache (see ProxyClassGenerator). Default methods are not
+     * dispatched. Exceptions thrown by impl are propagated unchanged. A call
+     * with no applicable method throws a RuntimeException.
+     *
+     * @param interfaceType the interface to implement.
+     * @param impl the object whose methods are called.
+     * @param <T> the interface type.
+     * @return the interface implementation
+     * @throws IllegalArgumentException if interfaceType is not a public interface, or its methods return non-public classes
+     */
+    public static <T> T proxy(Class<T> interfaceType, Object impl) {
+        if (!interfaceType.isInterface()) {
+            throw new IllegalArgumentException(interfaceType.getName() + " is not an interface");
+        }
+
+        return interfaceType.cast(ProxyClassGenerator.newProxy(interfaceType, impl));
+    }
+
+    /**
+     * Binds a generic function to a fixed receiver, for repeated calls on it:
+     *
+     *     BoundDispatcher&lt;String&gt; draw = MultipleDispatch.bind(screen, "draw");
+     *     ...
+     *     String res = draw.invoke(shape, brush);
+     *
+     * Calls follow the dispatch rules of UsingMultipleDispatch.invoke.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param <R> return type of the generic function.
+     * @return the bound dispatcher
+     */
+    public static <R> BoundDispatcher<R> bind(Object receiver, String name) {
+        return new BoundDispatcher<>(receiver, name,
+                UsingMultipleDispatch.nonStaticMethodSelector.resolverFor(receiver.getClass(), name));
+    }
+
+    /**
+     * Binds a generic function made of the static methods of a class, with the
+     * dispatch rules of UsingMultipleDispatch.invokeStatic.
+     *
+     * @param receiverClass the class of the methods.
+     * @param name the name of the method.
+     * @param <R> return type of the generic function.
+     * @return the bound dispatcher
+     */
+    public static <R> BoundDispatcher<R> bindStatic(Class<?> receiverClass, String name) {
+        return new BoundDispatcher<>(null, name,
+                UsingMultipleDispatch.staticMethodSelector.resolverFor(receiverClass, name));
+    }
+
+    /**
+     * Creates an instance of a class with the most specific of its public
+     * constructors applicable to the runtime types of the arguments, with the
+     * dispatch rules of UsingMultipleDispatch.invoke (boxing, varargs):
+     *
+     *     Shape shape = MultipleDispatch.construct(Shape.class, parsedValue);
+     *
+     * Selected constructors are cached per class and argument types, as method
+     * handles. Exceptions thrown by the constructor are propagated unchanged.
+     *
+     * @param type the class to instantiate.
+     * @param args the arguments to pass to the constructor.
+     * @param <T> the class type.
+     * @return the new instance
+     * @throws RuntimeException when the constructor does not exist/is inaccessible
+     */
+    public static <T> T construct(Class<T> type, Object... args) {
+        return type.cast(ConstructorTable.of(type).construct(args));
+    }
+}
@@ -0,0 +1,484 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the proxy classes of MultipleDispatch.proxy.
+ *
+ * The proxy class of an interface is a final class implementing it, with a
+ * final field holding a ProxyMethod for each of its abstract methods. Each
+ * method boxes its arguments into an array, calls its own ProxyMethod and
+ * unboxes or casts the result, so that callers make plain interface calls.
+ * Default methods keep their bodies, and the methods of Object keep the
+ * implementations of Object (but for toString, which describes the proxy).
+ *
+ * There being no bytecode library around, class files are written directly.
+ * Each proxy class is defined by a class loader of its own, a child of the
+ * interface's, so the interface and the classes its methods return must be
+ * public. Proxy classes are generated once per interface.
+ */
+final class ProxyClassGenerator {
+    private static final String PACKAGE = "ist.meic.pava.MultipleDispatchExtended";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String PROXY_METHOD = internalName(ProxyMethod.class);
+    private static final String CALL_DESCRIPTOR = "([Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String DESCRIPTION_DESCRIPTOR = "Ljava/lang/String;";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int FLOAD = 0x17;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int AALOAD = 0x32;
+    private static final int AASTORE = 0x53;
+    private static final int POP = 0x57;
+    private static final int DUP = 0x59;
+    private static final int IRETURN = 0xac;
+    private static final int LRETURN = 0xad;
+    private static final int FRETURN = 0xae;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int ANEWARRAY = 0xbd;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final AtomicInteger classCount = new AtomicInteger();
+    private static final ClassValue<ProxyClass> proxyClasses = new ClassValue<ProxyClass>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> interfaceType) {
+            return generate(interfaceType);
+        }
+    };
+
+    private ProxyClassGenerator() {
+    }
+
+    /**
+     * @param interfaceType the interface to implement.
+     * @param impl the object whose methods are called.
+     * @return a new instance of the proxy class of the interface
+     * @throws IllegalArgumentException if the interface or the classes its methods return are not public
+     */
+    static Object newProxy(Class<?> interfaceType, Object impl) {
+        return proxyClasses.get(interfaceType).newInstance(impl, interfaceType.getSimpleName() + " dispatching to " + impl);
+    }
+
+    private static ProxyClass generate(Class<?> interfaceType) {
+        if (!isPublic(interfaceType)) {
+            throw new IllegalArgumentException(interfaceType.getName() + " is not public");
+        }
+
+        List<Method> methods = dispatchedMethods(interfaceType);
+        for (Method method : methods) {
+            if (!isPublic(method.getReturnType())) {
+                throw new IllegalArgumentException(method + " returns a class that is not public");
+            }
+        }
+
+        String className = PACKAGE + ".DispatchProxy" + classCount.incrementAndGet();
+        byte[] classFile = write(internalName(className), interfaceType, methods);
+        Class<?> proxyClass = new ProxyClassLoader(interfaceType.getClassLoader()).define(className, classFile);
+
+        String[] methodNames = new String[methods.size()];
+        for (int i = 0; i < methodNames.length; i++) {
+            methodNames[i] = methods.get(i).getName();
+        }
+
+        try {
+            return new ProxyClass(proxyClass.getConstructor(ProxyMethod[].class, String.class), methodNames);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param interfaceType an interface
+     * @return its abstract methods, one per name and descriptor, but for those of Object
+     */
+    private static List<Method> dispatchedMethods(Class<?> interfaceType) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+
+        for (Method method : interfaceType.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers()) && !isObjectMethod(method)) {
+                methods.putIfAbsent(method.getName() + methodDescriptor(method), method);
+            }
+        }
+
+        return new ArrayList<>(methods.values());
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    private static byte[] write(String className, Class<?> interfaceType, List<Method> methods) {
+        ClassFile classFile = new ClassFile();
+        String proxyMethodDescriptor = descriptor(ProxyMethod.class);
+
+        // the constructor, (ProxyMethod[] methods, String description)
+        Bytes code = new Bytes().u1(ALOAD_0).u1(INVOKESPECIAL).u2(classFile.methodRef(OBJECT, "<init>", "()V"));
+        for (int i = 0; i < methods.size(); i++) {
+            classFile.field(ACC_PRIVATE | ACC_FINAL, "m" + i, proxyMethodDescriptor);
+            code.u1(ALOAD_0).u1(ALOAD_1);
+            pushInt(code, i);
+            code.u1(AALOAD).u1(PUTFIELD).u2(classFile.fieldRef(className, "m" + i, proxyMethodDescriptor));
+        }
+        classFile.field(ACC_PRIVATE | ACC_FINAL, "description", DESCRIPTION_DESCRIPTOR);
+        code.u1(ALOAD_0).u1(ALOAD_2).u1(PUTFIELD).u2(classFile.fieldRef(className, "description", DESCRIPTION_DESCRIPTOR));
+        code.u1(RETURN);
+        classFile.method(ACC_PUBLIC, "<init>", "([" + proxyMethodDescriptor + DESCRIPTION_DESCRIPTOR + ")V", 3, 3, code);
+
+        code = new Bytes().u1(ALOAD_0).u1(GETFIELD).u2(classFile.fieldRef(className, "description", DESCRIPTION_DESCRIPTOR));
+        code.u1(ARETURN);
+        classFile.method(ACC_PUBLIC, "toString", "()" + DESCRIPTION_DESCRIPTOR, 1, 1, code);
+
+        for (int i = 0; i < methods.size(); i++) {
+            writeMethod(classFile, className, "m" + i, methods.get(i));
+        }
+
+        return classFile.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, OBJECT, internalName(interfaceType));
+    }
+
+    /**
+     * Writes a method that boxes its arguments, calls the ProxyMethod of the
+     * given field with them, and returns the result as the method's type.
+     */
+    private static void writeMethod(ClassFile classFile, String className, String field, Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Bytes code = new Bytes().u1(ALOAD_0).u1(GETFIELD).u2(classFile.fieldRef(className, field, descriptor(ProxyMethod.class)));
+        pushInt(code, parameterTypes.length);
+        code.u1(ANEWARRAY).u2(classFile.classRef(OBJECT));
+
+        int slot = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            code.u1(DUP);
+            pushInt(code, i);
+            code.u1(loadOpcode(type)).u1(slot);
+            if (type.isPrimitive()) {
+                Class<?> boxed = TypeNormalizer.boxed(type);
+                code.u1(INVOKESTATIC).u2(classFile.methodRef(internalName(boxed), "valueOf",
+                        "(" + descriptor(type) + ")" + descriptor(boxed)));
+            }
+            code.u1(AASTORE);
+            slot += type == long.class || type == double.class ? 2 : 1;
+        }
+
+        code.u1(INVOKEVIRTUAL).u2(classFile.methodRef(PROXY_METHOD, "call", CALL_DESCRIPTOR));
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            code.u1(POP).u1(RETURN);
+        } else if (returnType.isPrimitive()) {
+            String boxed = internalName(TypeNormalizer.boxed(returnType));
+            code.u1(CHECKCAST).u2(classFile.classRef(boxed));
+            code.u1(INVOKEVIRTUAL).u2(classFile.methodRef(boxed, returnType.getName() + "Value", "()" + descriptor(returnType)));
+            code.u1(returnOpcode(returnType));
+        } else {
+            if (returnType != Object.class) {
+                code.u1(CHECKCAST).u2(classFile.classRef(internalName(returnType)));
+            }
+            code.u1(ARETURN);
+        }
+
+        // receiver, array, array, index and a value of up to two words
+        classFile.method(ACC_PUBLIC, method.getName(), methodDescriptor(method), 6, slot, code);
+    }
+
+    private static void pushInt(Bytes code, int value) {
+        if (value <= 5) {
+            code.u1(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.u1(BIPUSH).u1(value);
+        } else {
+            code.u1(SIPUSH).u2(value);
+        }
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (type == long.class) {
+            return LLOAD;
+        } else if (type == float.class) {
+            return FLOAD;
+        } else if (type == double.class) {
+            return DLOAD;
+        } else {
+            return type.isPrimitive() ? ILOAD : ALOAD;
+        }
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == long.class) {
+            return LRETURN;
+        } else if (type == float.class) {
+            return FRETURN;
+        } else if (type == double.class) {
+            return DRETURN;
+        } else {
+            return IRETURN;
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return internalName(type.getName());
+    }
+
+    private static String internalName(String className) {
+        return className.replace('.', '/');
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            descriptor.append(descriptor(type));
+        }
+
+        return descriptor.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type);
+        } else if (!type.isPrimitive()) {
+            return "L" + internalName(type) + ";";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == void.class) {
+            return "V";
+        } else {
+            // B, C, D, F, I and S
+            return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+        }
+    }
+
+    /**
+     * A generated proxy class, and the names of the methods of its ProxyMethod fields.
+     */
+    private static final class ProxyClass {
+        private final Constructor<?> constructor;
+        private final String[] methodNames;
+
+        ProxyClass(Constructor<?> constructor, String[] methodNames) {
+            this.constructor = constructor;
+            this.methodNames = methodNames;
+        }
+
+        Object newInstance(Object impl, String description) {
+            ProxyMethod[] methods = new ProxyMethod[methodNames.length];
+            for (int i = 0; i < methods.length; i++) {
+                methods[i] = new ProxyMethod(impl, methodNames[i]);
+            }
+
+            try {
+                return constructor.newInstance(methods, description);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Defines a single proxy class, which sees the classes of the interface's
+     * loader, and ProxyMethod.
+     */
+    private static final class ProxyClassLoader extends ClassLoader {
+        ProxyClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            return name.equals(ProxyMethod.class.getName()) ? ProxyMethod.class : super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+
+    /**
+     * The parts of a class file: the constant pool (without duplicate
+     * entries), the fields and the methods.
+     */
+    private static final class ClassFile {
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_FIELDREF = 9;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final Bytes pool = new Bytes();
+        private final Map<String, Integer> constants = new HashMap<>();
+        private int poolCount = 1;
+        private final Bytes fields = new Bytes();
+        private int fieldCount;
+        private final Bytes methods = new Bytes();
+        private int methodCount;
+
+        int utf8(String value) {
+            String key = CONSTANT_UTF8 + " " + value;
+            Integer index = constants.get(key);
+            if (index == null) {
+                index = poolCount++;
+                constants.put(key, index);
+                pool.u1(CONSTANT_UTF8).utf8(value);
+            }
+
+            return index;
+        }
+
+        int classRef(String internalName) {
+            return constant(CONSTANT_CLASS, utf8(internalName));
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return constant(CONSTANT_FIELDREF, classRef(owner), nameAndType(name, descriptor));
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return constant(CONSTANT_METHODREF, classRef(owner), nameAndType(name, descriptor));
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            return constant(CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+        }
+
+        private int constant(int tag, int... references) {
+            String key = tag + " " + Arrays.toString(references);
+            Integer index = constants.get(key);
+            if (index == null) {
+                index = poolCount++;
+                constants.put(key, index);
+                pool.u1(tag);
+                for (int reference : references) {
+                    pool.u2(reference);
+                }
+            }
+
+            return index;
+        }
+
+        void field(int access, String name, String descriptor) {
+            fields.u2(access).u2(utf8(name)).u2(utf8(descriptor)).u2(0);
+            fieldCount++;
+        }
+
+        void method(int access, String name, String descriptor, int maxStack, int maxLocals, Bytes code) {
+            methods.u2(access).u2(utf8(name)).u2(utf8(descriptor))
+                .u2(1).u2(utf8("Code")).u4(12 + code.length)
+                .u2(maxStack).u2(maxLocals).u4(code.length).append(code)
+                .u2(0).u2(0);
+            methodCount++;
+        }
+
+        byte[] toByteArray(int access, String name, String superName, String interfaceName) {
+            int thisClass = classRef(name);
+            int superClass = classRef(superName);
+            int interfaceClass = classRef(interfaceName);
+
+            // version 52 (Java 8): no branches are generated, so no stack map frames are needed
+            return new Bytes().u4(0xcafebabe).u2(0).u2(52)
+                .u2(poolCount).append(pool)
+                .u2(access).u2(thisClass).u2(superClass).u2(1).u2(interfaceClass)
+                .u2(fieldCount).append(fields)
+                .u2(methodCount).append(methods)
+                .u2(0)
+                .toByteArray();
+        }
+    }
+
+    /**
+     * A growable byte array, written in the big-endian order of class files.
+     */
+    private static final class Bytes {
+        private byte[] data = new byte[64];
+        private int length;
+
+        Bytes u1(int value) {
+            if (length == data.length) {
+                data = Arrays.copyOf(data, 2 * length);
+            }
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        Bytes u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Bytes u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Bytes append(Bytes other) {
+            for (int i = 0; i < other.length; i++) {
+                u1(other.data[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Writes a string in the modified UTF-8 of class files, preceded by its length.
+         */
+        Bytes utf8(String value) {
+            Bytes encoded = new Bytes();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    encoded.u1(c);
+                } else if (c < 0x800) {
+                    encoded.u1(0xc0 | c >> 6).u1(0x80 | c & 0x3f);
+                } else {
+                    encoded.u1(0xe0 | c >> 12).u1(0x80 | c >> 6 & 0x3f).u1(0x80 | c & 0x3f);
+                }
+            }
+
+            return u2(encoded.length).append(encoded);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, length);
+        }
+    }
+}
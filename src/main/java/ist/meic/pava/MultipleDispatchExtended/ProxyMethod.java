@@ -0,0 +1,50 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+import ist.meic.pava.MultipleDispatch.ResolutionCache;
+
+/**
+ * Routes the calls of one method of a proxy to the most specific overload of
+ * the implementation object, chosen by the runtime types of the arguments.
+ *
+ * Each method of a proxy holds its own ProxyMethod, and so its own resolution
+ * cache. Exceptions thrown by the implementation are propagated unchanged.
+ *
+ * Public only because the generated proxy classes, which are defined by
+ * their own class loaders, call it. It is not meant to be used directly.
+ *
+ * @see MultipleDispatch#proxy(Class, Object)
+ * @see ProxyClassGenerator
+ */
+public final class ProxyMethod {
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+
+    private final Object target;
+    private final ResolutionCache cache;
+
+    ProxyMethod(Object target, String name) {
+        this.target = target;
+        this.cache = new ResolutionCache(new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+                new UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder()), name);
+    }
+
+    /**
+     * Selects and calls the method of the implementation object.
+     *
+     * @param args call arguments, boxed.
+     * @return the object returned by the method called.
+     * @throws RuntimeException when the method does not exist/is inaccessible
+     */
+    public Object call(Object[] args) {
+        try {
+            Method selected = cache.resolve(target.getClass(), args);
+            return methodInvoker.invoke(selected, target, UsingMultipleDispatch.evaluateArguments(selected, args));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import java.lang.invoke.MethodHandles;
+
+import ist.meic.pava.MultipleDispatch.DispatchEngine;
+import ist.meic.pava.MultipleDispatch.DispatchEngines;
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+
+/**
+ * A handle to a generic function made of the static methods of a class.
+ *
+ * This is the static counterpart of GenericFunction: the receiver class is
+ * fixed on creation, so invocation only takes the call arguments. Like
+ * GenericFunction, calls go through a replaceable DispatchEngine.
+ *
+ * @see GenericFunction#ofStatic(Class, String)
+ */
+public class StaticGenericFunction<R> {
+    private final Class<?> receiverClass;
+    private final String name;
+    private final MethodSelector selector;
+    private volatile DispatchEngine engine;
+    private volatile DispatchEngine.Dispatcher dispatcher;
+    private MethodHandles.Lookup caller;
+
+    StaticGenericFunction(Class<?> receiverClass, String name) {
+        this.receiverClass = receiverClass;
+        this.name = name;
+        this.selector = new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+                new UsingMultipleDispatch.StaticExtendedCandidateMethodFinder());
+        setEngine(DispatchEngines.getDefault());
+    }
+
+    /**
+     * Invokes the generic function with the given arguments. Implements dynamic
+     * dispatch for the arguments. Throws RuntimeException on illegal access,
+     * missing method, or exception of the invoked method.
+     *
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called.
+     */
+    @SuppressWarnings("unchecked")
+    public R invoke(Object... args) {
+        return (R) dispatcher.invoke(receiverClass, null, args);
+    }
+
+    /**
+     * Makes further calls go through the given engine.
+     *
+     * @param engine dispatch engine
+     * @see ist.meic.pava.MultipleDispatch.GenericFunction#setEngine(DispatchEngine)
+     */
+    public synchronized void setEngine(DispatchEngine engine) {
+        this.dispatcher = caller == null
+            ? engine.dispatcherFor(selector, name, UsingMultipleDispatch::evaluateArguments)
+            : engine.dispatcherFor(selector, name, UsingMultipleDispatch::evaluateArguments, caller);
+        this.engine = engine;
+    }
+
+    /**
+     * Makes further calls use the access rights of the given lookup, with
+     * any engine (see DispatchEngine), e.g. to call methods of non-public
+     * classes of the caller's package.
+     *
+     * @param caller lookup of the caller, e.g. MethodHandles.lookup().
+     * @return this generic function
+     * @see ist.meic.pava.MultipleDispatch.GenericFunction#withLookup(MethodHandles.Lookup)
+     */
+    public synchronized StaticGenericFunction<R> withLookup(MethodHandles.Lookup caller) {
+        this.caller = caller;
+        setEngine(engine);
+        return this;
+    }
+
+    /**
+     * Makes further calls go through the engine with the given name.
+     *
+     * @param engineName name of the dispatch engine
+     * @throws IllegalArgumentException if there is no such engine
+     */
+    public void setEngine(String engineName) {
+        setEngine(DispatchEngines.get(engineName));
+    }
+
+    /**
+     * @return the engine calls go through
+     */
+    public DispatchEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the class of the methods
+     */
+    public Class<?> getReceiverClass() {
+        return receiverClass;
+    }
+
+    /**
+     * @return the name of the method
+     */
+    public String getName() {
+        return name;
+    }
+}
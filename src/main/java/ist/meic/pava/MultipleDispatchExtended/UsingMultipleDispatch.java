@@ -1,18 +1,32 @@
 
 package ist.meic.pava.MultipleDispatchExtended;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Array;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Stream;
 
+import ist.meic.pava.MultipleDispatch.CachingMethodSelector;
+import ist.meic.pava.MultipleDispatch.DispatchEngines;
+import ist.meic.pava.MultipleDispatch.DispatcherTable;
+import ist.meic.pava.MultipleDispatch.MethodInvoker;
 import ist.meic.pava.MultipleDispatch.MethodSelector;
 import ist.meic.pava.MultipleDispatch.PartialComparator;
 import ist.meic.pava.MultipleDispatch.PartialOrdering;
-import ist.meic.pava.MultipleDispatch.SimpleCandidateMethodFinder;
-import ist.meic.pava.MultipleDispatch.SimpleMethodSpecificityComparator;
+import ist.meic.pava.MultipleDispatch.TypeProjection;
+import ist.meic.pava.MultipleDispatch.TypeTuple;
 
 /**
  * Implements dynamic dispatch on the arguments of a method call.
@@ -26,14 +40,27 @@ import ist.meic.pava.MultipleDispatch.SimpleMethodSpecificityComparator;
  *
  * Will automatically box/unbox arguments.
  *
+ * When the system property DispatchEngines.PROPERTY is set, invoke and
+ * invokeStatic go through the engine it names instead.
+ *
+ * Every entry point calls methods with the access rights of this class, and
+ * never suppresses access checks. Methods of classes it cannot access (e.g.
+ * non-public classes of other packages) are reached with withLookup, which
+ * uses the rights of the caller instead.
+ *
  * See ist.meic.pava.MultipleDispatchExtended.VariadicArgumentTest for an
  *      example of this edge case (varargsPassArrayTest).
  */
 public class UsingMultipleDispatch {
-    private static MethodSelector staticMethodSelector = new MethodSelector(new ExtendedMethodComparator(),
+    static final CachingMethodSelector staticMethodSelector = new CachingMethodSelector(new ExtendedMethodComparator(),
             new StaticExtendedCandidateMethodFinder());
-    private static MethodSelector nonStaticMethodSelector = new MethodSelector(new ExtendedMethodComparator(),
+    static final CachingMethodSelector nonStaticMethodSelector = new CachingMethodSelector(new ExtendedMethodComparator(),
             new NonStaticExtendedCandidateMethodFinder());
+    private static final MethodInvoker methodInvoker = new MethodInvoker(MethodHandles.lookup());
+    private static final DispatcherTable dispatchers = DispatchEngines.isDefaultConfigured()
+            ? new DispatcherTable(DispatchEngines.getDefault(), nonStaticMethodSelector, UsingMultipleDispatch::evaluateArguments) : null;
+    private static final DispatcherTable staticDispatchers = DispatchEngines.isDefaultConfigured()
+            ? new DispatcherTable(DispatchEngines.getDefault(), staticMethodSelector, UsingMultipleDispatch::evaluateArguments) : null;
 
     /**
      * Invokes the method with name and args of the receiver. Implements dynamic
@@ -47,6 +74,10 @@ public class UsingMultipleDispatch {
      * @return the object returned by the method called.
      */
     public static Object invoke(Object receiver, String name, Object... args) {
+        if (dispatchers != null) {
+            return dispatchers.get(name).invoke(receiver.getClass(), receiver, args);
+        }
+
         try {
             Method method = nonStaticMethodSelector.selectMethod(receiver.getClass(), name, args);
             return method.invoke(receiver, evaluateArguments(method, args));
@@ -64,6 +95,10 @@ public class UsingMultipleDispatch {
      * @return the object returned by the method called.
      */
     public static Object invokeStatic(Class<?> receiverClass, String name, Object... args) {
+        if (staticDispatchers != null) {
+            return staticDispatchers.get(name).invoke(receiverClass, null, args);
+        }
+
         try {
             Method method = staticMethodSelector.selectMethod(receiverClass, name, args);
             return method.invoke(null, evaluateArguments(method, args));
@@ -73,6 +108,151 @@ public class UsingMultipleDispatch {
         }
     }
 
+    /**
+     * Same as invoke, but lets any exception thrown by the method propagate
+     * unchanged (even checked ones). Only missing or inaccessible methods are
+     * reported with a RuntimeException. Methods are called with the access
+     * rights of this front-end, as invoke does.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called.
+     */
+    public static Object invokeUnwrapped(Object receiver, String name, Object... args) {
+        try {
+            Method method = nonStaticMethodSelector.selectMethod(receiver.getClass(), name, args);
+            return methodInvoker.invoke(method, receiver, evaluateArguments(method, args));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates an invoker with the same dispatch rules, for both non-static and
+     * static methods, which calls methods with the access rights of the given
+     * lookup, without access checks on every call.
+     *
+     * @param caller lookup of the caller, e.g. MethodHandles.lookup().
+     * @return the invoker, meant to be kept around
+     */
+    public static LookupInvoker withLookup(MethodHandles.Lookup caller) {
+        return new LookupInvoker(caller);
+    }
+
+    /**
+     * Asynchronous version of invoke: selects the method on the calling thread
+     * and calls it on virtual threads (or daemon threads, if the JVM has no
+     * virtual threads). Use an AsyncInvoker to choose the executor or bound
+     * the number of concurrent calls.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return a future of the object returned by the method called
+     * @see AsyncInvoker
+     */
+    public static CompletableFuture<Object> invokeAsync(Object receiver, String name, Object... args) {
+        return DefaultAsyncInvoker.INSTANCE.invokeAsync(receiver, name, args);
+    }
+
+    /**
+     * Calls the same method asynchronously once per argument list, as invokeAsync.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param argumentLists the arguments of each call.
+     * @return a future of the objects returned by the calls, in order
+     * @see AsyncInvoker#invokeAllAsync(Object, String, List)
+     */
+    public static CompletableFuture<List<Object>> invokeAllAsync(Object receiver, String name, List<Object[]> argumentLists) {
+        return DefaultAsyncInvoker.INSTANCE.invokeAllAsync(receiver, name, argumentLists);
+    }
+
+    /**
+     * Same as invokeStatic, but lets any exception thrown by the method
+     * propagate unchanged (even checked ones).
+     * @param receiverClass the class of the method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called.
+     */
+    public static Object invokeStaticUnwrapped(Class<?> receiverClass, String name, Object... args) {
+        try {
+            Method method = staticMethodSelector.selectMethod(receiverClass, name, args);
+            return methodInvoker.invoke(method, null, evaluateArguments(method, args));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Invokes the method with name and args of the receiver, if there is one
+     * applicable to the arguments. Throws RuntimeException on illegal access
+     * or exception of the invoked method.
+     *
+     * Unlike invoke, a missing method is not an error: no exception is built,
+     * and repeated probes of the same argument types only cost a table lookup.
+     *
+     * @param receiver the receiver object, that is, the object that contains the
+     *                 method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called (empty if null), or empty if there is no applicable method.
+     * @see #findMethod(Object, String, Object...) to tell a null result apart from a missing method.
+     */
+    public static Optional<Object> tryInvoke(Object receiver, String name, Object... args) {
+        return tryInvoke(receiver, findMethod(receiver, name, args), args);
+    }
+
+    /**
+     * Similar to tryInvoke, but is intended to be used to call static methods.
+     * @param receiverClass the class of the method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the object returned by the method called (empty if null), or empty if there is no applicable method.
+     */
+    public static Optional<Object> tryInvokeStatic(Class<?> receiverClass, String name, Object... args) {
+        return tryInvoke(null, findStaticMethod(receiverClass, name, args), args);
+    }
+
+    /**
+     * Finds the method invoke would call.
+     * @param receiver the receiver object.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the selected method, or null if there is no applicable method.
+     */
+    public static Method findMethod(Object receiver, String name, Object... args) {
+        return nonStaticMethodSelector.findMethod(receiver.getClass(), name, args);
+    }
+
+    /**
+     * Finds the method invokeStatic would call.
+     * @param receiverClass the class of the method.
+     * @param name the name of the method.
+     * @param args the arguments to pass to the method.
+     * @return the selected method, or null if there is no applicable method.
+     */
+    public static Method findStaticMethod(Class<?> receiverClass, String name, Object... args) {
+        return staticMethodSelector.findMethod(receiverClass, name, args);
+    }
+
+    private static Optional<Object> tryInvoke(Object receiver, Method method, Object[] args) {
+        if (method == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(method.invoke(receiver, evaluateArguments(method, args)));
+        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 
     /**
      * Determines if the arguments list when calling a given method must be
@@ -83,7 +263,7 @@ public class UsingMultipleDispatch {
      * @param args   arguments list
      * @return true if the arguments list has to be rewritten
      */
-    private static boolean shouldBuildVarargsArray(Method method, Object[] args) {
+    private static boolean shouldBuildVarargsArray(MethodDescriptor method, Object[] args) {
         int k = args.length;
         int n = method.getParameterCount();
 
@@ -92,7 +272,7 @@ public class UsingMultipleDispatch {
         }
 
         // k == n
-        Class<?> lastParamType = method.getParameterTypes()[n - 1];
+        Class<?> lastParamType = method.getParameterType(n - 1);
         Class<?> lastArgType = args[k - 1].getClass();
 
         // we don't have access to the declared argument type before passing it to
@@ -109,17 +289,21 @@ public class UsingMultipleDispatch {
      * to support variadic method calls.
      *
      * See https://docs.oracle.com/javase/specs/jls/se7/html/jls-15.html#jls-15.12.4.2
-     * @param method method to call
+     * @param executable method to call
      * @param args   arguments list
      * @return transformed arguments list as per JLS 15.12.4.2
      */
-    private static Object[] evaluateArguments(Method method, Object[] args) {
-        if (method.isVarArgs() && shouldBuildVarargsArray(method, args)) {
-            int nonVarargsCount = method.getParameterCount() - 1;
+    static Object[] evaluateArguments(Executable executable, Object[] args) {
+        if (!executable.isVarArgs()) {
+            return args;
+        }
+
+        MethodDescriptor method = MethodDescriptor.of(executable);
+        if (shouldBuildVarargsArray(method, args)) {
+            int nonVarargsCount = method.getNormalParameterCount();
             int varargsCount = args.length - nonVarargsCount;
 
-            Class<?> varargsType = method.getParameterTypes()[nonVarargsCount];
-            Object varargsArray = Array.newInstance(varargsType.getComponentType(), varargsCount);
+            Object varargsArray = Array.newInstance(method.getVarargsComponentType(), varargsCount);
             for (int argsI = nonVarargsCount, varargsI = 0; argsI < args.length; argsI++, varargsI++) {
                 // can't use System.arraycopy when varargsArray is an array of primitives (args is always an array of objects)
                 Array.set(varargsArray, varargsI, args[argsI]);
@@ -135,6 +319,13 @@ public class UsingMultipleDispatch {
         return args;
     }
 
+    /**
+     * Holds the AsyncInvoker of invokeAsync, created on first use.
+     */
+    private static class DefaultAsyncInvoker {
+        private static final AsyncInvoker INSTANCE = new AsyncInvoker();
+    }
+
     /**
      * The ExtendedMethodComparator extends the ordering defined by
      * SimpleMethodSpecificityComparator with variadic arguments-specific details,
@@ -149,30 +340,65 @@ public class UsingMultipleDispatch {
      * - if so far both methods are equally specific, but method b has more non-varargs
      *   formal parameters, then b is more specific;
      * - if so far both methods are equally specific, but method b is varargs and
-     *   a is not, then b is more specific.
+     *   a is not, then b is more specific;
+     * - if so far both methods are equally specific, but their parameter types
+     *   differ (at positions one of them does not dispatch on), they are incomparable.
      *
      * @see ExtendedTypeSpecificityComparator
      * @see ist.meic.pava.MultipleDispatch.SimpleMethodSpecificityComparator
      */
     public static class ExtendedMethodComparator implements PartialComparator<Method> {
-        private static PartialComparator<Class<?>> typeComparator = new ExtendedTypeSpecificityComparator();
+        private static final PartialComparator<Class<?>> defaultTypeComparator = new ExtendedTypeSpecificityComparator();
+
+        private final PartialComparator<Class<?>> typeComparator;
+
+        public ExtendedMethodComparator() {
+            this(defaultTypeComparator);
+        }
+
+        /**
+         * @param typeComparator comparator of the declaring classes and the parameter types
+         */
+        public ExtendedMethodComparator(PartialComparator<Class<?>> typeComparator) {
+            this.typeComparator = typeComparator;
+        }
 
         public PartialOrdering compare(Method lhs, Method rhs) {
             if (lhs == rhs) {
                 return PartialOrdering.EQUAL;
             }
 
+            return compareDescriptors(MethodDescriptor.of(lhs), MethodDescriptor.of(rhs), typeComparator);
+        }
+
+        /**
+         * Compares two methods or constructors with the criteria above.
+         *
+         * @param lhs a method or constructor
+         * @param rhs a method or constructor
+         * @return the partial ordering of lhs relative to rhs
+         */
+        static PartialOrdering compareExecutables(Executable lhs, Executable rhs) {
+            if (lhs == rhs) {
+                return PartialOrdering.EQUAL;
+            }
+
+            return compareDescriptors(MethodDescriptor.of(lhs), MethodDescriptor.of(rhs), defaultTypeComparator);
+        }
+
+        private static PartialOrdering compareDescriptors(MethodDescriptor lhs, MethodDescriptor rhs,
+                PartialComparator<Class<?>> typeComparator) {
+            if (lhs == rhs) {
+                return PartialOrdering.EQUAL;
+            }
+
             // if the declaring class of lhs is a subtype of the declaring class of rhs,
-            // then lhs is less specific than rhs
-            PartialOrdering p = typeComparator.compare(lhs.getDeclaringClass(), rhs.getDeclaringClass())
-                .mapEqual(() -> {
-                    Class<?>[] lhsNormalParams = getNormalizedParameterTypes(lhs, rhs);
-                    Class<?>[] rhsNormalParams = getNormalizedParameterTypes(rhs, lhs);
-                    return SimpleMethodSpecificityComparator.compareParameters(lhsNormalParams, rhsNormalParams, typeComparator);
-                })
+            // then lhs is more specific than rhs
+            PartialOrdering p = compareDeclaringClasses(lhs, rhs, typeComparator)
+                .mapEqual(() -> compareNormalizedParameters(lhs, rhs, typeComparator))
                 // if lhs accepts less (non-varargs) parameters than rhs, then lhs is less
                 // specific
-                .mapEqual(() -> PartialOrdering.fromTotalOrdering(Integer.compare(getNormalParameterCount(lhs), getNormalParameterCount(rhs))))
+                .mapEqual(() -> PartialOrdering.fromTotalOrdering(Integer.compare(lhs.getNormalParameterCount(), rhs.getNormalParameterCount())))
                 .mapEqual(() -> {
                     // if lhs is varargs and rhs is not, lhs is less specific
                     if (lhs.isVarArgs() && !rhs.isVarArgs()) {
@@ -182,51 +408,80 @@ public class UsingMultipleDispatch {
                     }
 
                     return PartialOrdering.EQUAL;
-                });
+                })
+                // overloads that only differ where they do not dispatch must not tie, or
+                // the choice between them would depend on the order of Class.getMethods
+                .mapEqual(() -> haveSameParameterTypes(lhs, rhs) ? PartialOrdering.EQUAL : PartialOrdering.INCOMPARABLE);
 
             return p;
         }
 
-        /**
-         * Normalizes a method parameter list to erase varargs presence.
-         *
-         * The resulting parameter list will have at least as many parameters as
-         * the other method, and all parameters after the normal ones will the
-         * varargs type.
-         *
-         * @param method a method
-         * @param other the other method
-         * @return normalized parameter list of method
-         */
-        private static Class<?>[] getNormalizedParameterTypes(Method method, Method other) {
-            Class<?>[] parameterTypes = method.getParameterTypes();
-            int lastIdx = parameterTypes.length - 1;
+        private static boolean haveSameParameterTypes(MethodDescriptor lhs, MethodDescriptor rhs) {
+            if (lhs.getParameterCount() != rhs.getParameterCount()) {
+                return false;
+            }
 
-            if (method.isVarArgs()) {
-                // treat varargs as any other args
-                parameterTypes[lastIdx] = parameterTypes[lastIdx].getComponentType();
-
-                // expand method arguments list to match size of the other (varargs may have
-                // that many)
-                if (parameterTypes.length < other.getParameterCount()) {
-                    Class<?>[] newTypes = new Class<?>[other.getParameterCount()];
-                    System.arraycopy(parameterTypes, 0, newTypes, 0, lastIdx);
-                    Arrays.fill(newTypes, lastIdx, newTypes.length, parameterTypes[lastIdx]);
-                    parameterTypes = newTypes;
+            for (int i = 0; i < lhs.getParameterCount(); i++) {
+                if (lhs.getParameterType(i) != rhs.getParameterType(i)) {
+                    return false;
                 }
             }
 
-            return parameterTypes;
+            return true;
         }
 
-        private static int getNormalParameterCount(Method method) {
-            int paramCount = method.getParameterCount();
+        private static PartialOrdering compareDeclaringClasses(MethodDescriptor lhs, MethodDescriptor rhs,
+                PartialComparator<Class<?>> typeComparator) {
+            Class<?> lhsClass = lhs.getDeclaringClass();
+            Class<?> rhsClass = rhs.getDeclaringClass();
 
-            if (method.isVarArgs()) {
-                paramCount--;
+            if (lhsClass == rhsClass) {
+                return PartialOrdering.EQUAL;
+            }
+
+            // two classes in the same superclass chain are ordered by their depth
+            if (!lhsClass.isInterface() && !rhsClass.isInterface()) {
+                int depthOrd = Integer.compare(lhs.getDeclaringClassDepth(), rhs.getDeclaringClassDepth());
+                if (depthOrd > 0 && rhsClass.isAssignableFrom(lhsClass)) {
+                    return PartialOrdering.GREATER;
+                } else if (depthOrd < 0 && lhsClass.isAssignableFrom(rhsClass)) {
+                    return PartialOrdering.LESS;
+                }
+            }
+
+            return typeComparator.compare(lhsClass, rhsClass);
+        }
+
+        /**
+         * Compares the parameter lists of two methods once varargs presence is
+         * erased: the shorter list is extended with the varargs component type
+         * (if any) to the length of the other, and both are compared from left
+         * to right up to the length of the shorter one, at the positions both
+         * methods dispatch on.
+         *
+         * @param lhs a method
+         * @param rhs the other method
+         * @param typeComparator comparator of the parameter types
+         * @return the partial ordering of the normalized parameter lists
+         */
+        private static PartialOrdering compareNormalizedParameters(MethodDescriptor lhs, MethodDescriptor rhs,
+                PartialComparator<Class<?>> typeComparator) {
+            int lhsLength = lhs.isVarArgs() ? Math.max(lhs.getParameterCount(), rhs.getParameterCount()) : lhs.getParameterCount();
+            int rhsLength = rhs.isVarArgs() ? Math.max(rhs.getParameterCount(), lhs.getParameterCount()) : rhs.getParameterCount();
+
+            for (int i = 0; i < lhsLength && i < rhsLength; i++) {
+                if (!lhs.isDispatched(i) || !rhs.isDispatched(i)) {
+                    continue;
+                }
+
+                PartialOrdering partialOrd = typeComparator.compare(lhs.getNormalizedParameterType(i), rhs.getNormalizedParameterType(i));
+
+                if (partialOrd != PartialOrdering.EQUAL) {
+                    return partialOrd;
+                }
             }
 
-            return paramCount;
+            return PartialOrdering.EQUAL;
         }
     }
 
@@ -246,64 +501,92 @@ public class UsingMultipleDispatch {
      *
      * Primitive method parameter and argument types are normalized to their boxed
      * versions before comparison (so they are indistinguishable).
+     *
+     * With ExtendedMethodComparator, exact matches are found through an index of
+     * the non-varargs methods by boxed parameter types, per receiver class and
+     * name. A method is only indexed if ExtendedMethodComparator ranks it above
+     * every other method applicable to arguments of those very classes (e.g. not
+     * f(C[]) next to f(B...), nor f(Integer) next to f(int)).
      */
     public abstract static class ExtendedCandidateMethodFinderBase implements MethodSelector.CandidateMethodFinder {
+        private final ClassValue<ConcurrentMap<String, Map<TypeTuple, Method>>> exactMatches = new ClassValue<ConcurrentMap<String, Map<TypeTuple, Method>>>() {
+            @Override
+            protected ConcurrentMap<String, Map<TypeTuple, Method>> computeValue(Class<?> receiverClass) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
         public Stream<Method> findCandidates(Class<?> receiverClass, String name, Object[] args) {
             Class<?>[] argTypes = MethodSelector.getObjectTypes(args);
 
-            return Arrays.stream(receiverClass.getMethods())
-                    .filter(SimpleCandidateMethodFinder.NAME_FILTER.apply(name))
-                    .filter(method -> {
-                        Class<?>[] paramTypes = method.getParameterTypes();
-
-                        if ((method.isVarArgs() && paramTypes.length - 1 > argTypes.length)
-                                || (!method.isVarArgs() && paramTypes.length != argTypes.length)) {
-                            // normal case: argument and parameter count mismatch
-                            // if varargs: not enough non-vararg arguments
-                            return false;
-                        }
-
-                        // Check regular argument compatibility
-                        int regularArgCount = method.isVarArgs() ? paramTypes.length - 1 : paramTypes.length;
-                        if (!isAssignableFrom(paramTypes, argTypes, 0, regularArgCount)) {
-                            return false;
-                        }
-
-                        // Check varargs compatibility
-                        if (method.isVarArgs()) {
-                            int varargFirstIndex = paramTypes.length - 1;
-
-                            if (varargFirstIndex == argTypes.length) {
-                                // varargs method with no varargs supplied
-                                return true;
-                            }
-
-                            if (paramTypes.length == argTypes.length
-                                    && isAssignableFrom(paramTypes[varargFirstIndex], argTypes[varargFirstIndex])) {
-                                // varargs method with args array supplied
-                                return true;
-                            }
-
-                            Class<?> varargType = paramTypes[varargFirstIndex].getComponentType();
-                            if (!isAssignableFrom(varargType, argTypes, varargFirstIndex)) {
-                                return false;
-                            }
-                        }
-
-                        return true;
-                    });
-        }
-
-        private static boolean isAssignableFrom(Class<?> lhs, Class<?> rhs) {
-            lhs = TypeNormalizer.boxed(lhs);
-            rhs = TypeNormalizer.boxed(rhs);
+            return Arrays.stream(MethodDescriptor.publicMethodsOf(receiverClass))
+                    .filter(method -> method.getName().equals(name) && accepts(method))
+                    .filter(method -> isApplicable(method, argTypes))
+                    .map(MethodDescriptor::getMethod);
+        }
 
-            return lhs.isAssignableFrom(rhs);
+        /**
+         * Restricts the candidates further, before applicability is checked.
+         *
+         * @param method a public method of the receiver class, with the right name
+         * @return true if the method may be a candidate
+         */
+        boolean accepts(MethodDescriptor method) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsExactMatches(PartialComparator<Method> ordering) {
+            return ordering.getClass() == ExtendedMethodComparator.class
+                && ((ExtendedMethodComparator) ordering).typeComparator == ExtendedMethodComparator.defaultTypeComparator;
         }
 
-        private static boolean isAssignableFrom(Class<?> lhs, Class<?>[] rhs, int fromIndex) {
-            for (int i = fromIndex; i < rhs.length; i++) {
-                if (!isAssignableFrom(lhs, rhs[i])) {
+        @Override
+        public Method findExactMatch(Class<?> receiverClass, String name, Object[] args) {
+            Map<TypeTuple, Method> methods = exactMatches.get(receiverClass).get(name);
+            if (methods == null) {
+                methods = exactMatches.get(receiverClass).computeIfAbsent(name, n -> buildExactMatches(receiverClass, n));
+            }
+
+            // arguments are boxed already
+            return methods.isEmpty() ? null : methods.get(TypeTuple.of(args));
+        }
+
+        private Map<TypeTuple, Method> buildExactMatches(Class<?> receiverClass, String name) {
+            List<MethodDescriptor> methods = new ArrayList<>();
+            for (MethodDescriptor method : MethodDescriptor.publicMethodsOf(receiverClass)) {
+                if (method.getName().equals(name) && accepts(method)) {
+                    method.checkDispatchAnnotations();
+                    methods.add(method);
+                }
+            }
+
+            Map<TypeTuple, Method> exactMatches = new HashMap<>();
+            for (MethodDescriptor method : methods) {
+                if (method.isVarArgs()) {
+                    continue;
+                }
+
+                Class<?>[] boxedTypes = new Class<?>[method.getParameterCount()];
+                for (int i = 0; i < boxedTypes.length; i++) {
+                    boxedTypes[i] = method.getBoxedParameterType(i);
+                }
+
+                if (isGreatestFor(method, methods, boxedTypes)) {
+                    exactMatches.put(TypeTuple.ofTypes(boxedTypes), method.getMethod());
+                }
+            }
+
+            return exactMatches;
+        }
+
+        /**
+         * @return true if the given method is greater than every other method applicable to arguments of the given classes
+         */
+        private static boolean isGreatestFor(MethodDescriptor method, List<MethodDescriptor> methods, Class<?>[] argTypes) {
+            for (MethodDescriptor other : methods) {
+                if (other != method && isApplicable(other, argTypes) && ExtendedMethodComparator.compareDescriptors(method, other,
+                        ExtendedMethodComparator.defaultTypeComparator) != PartialOrdering.GREATER) {
                     return false;
                 }
             }
@@ -311,15 +594,106 @@ public class UsingMultipleDispatch {
             return true;
         }
 
-        private static boolean isAssignableFrom(Class<?>[] lhs, Class<?>[] rhs, int fromIndex, int toIndex) {
-            for (int i = fromIndex; i < toIndex; i++) {
-                if (!isAssignableFrom(lhs[i], rhs[i])) {
+        @Override
+        public TypeProjection projectionFor(Class<?> receiverClass, String name, int arity) {
+            List<Set<Class<?>>> dispatchTypes = TypeProjection.emptyDispatchTypes(arity);
+
+            // static and non-static methods alike: extra dispatch types only make projections finer
+            for (MethodDescriptor method : MethodDescriptor.publicMethodsOf(receiverClass)) {
+                if (!method.getName().equals(name)) {
+                    continue;
+                }
+
+                int regularArgCount = method.getNormalParameterCount();
+                if (regularArgCount > arity || (!method.isVarArgs() && regularArgCount != arity)) {
+                    continue;
+                }
+
+                for (int i = 0; i < regularArgCount; i++) {
+                    dispatchTypes.get(i).add(method.getParameterType(i));
+                }
+
+                if (method.isVarArgs()) {
+                    for (int i = regularArgCount; i < arity; i++) {
+                        dispatchTypes.get(i).add(method.getVarargsComponentType());
+                    }
+                    if (arity == method.getParameterCount()) {
+                        // the last argument may be the varargs array itself
+                        dispatchTypes.get(regularArgCount).add(method.getParameterType(regularArgCount));
+                    }
+                }
+            }
+
+            return new TypeProjection(dispatchTypes, ExtendedCandidateMethodFinderBase::isAssignableFrom);
+        }
+
+        /**
+         * Determines whether a method or constructor applies to arguments of the
+         * given classes, as described above.
+         *
+         * @param method a method or constructor
+         * @param argTypes classes of the call arguments
+         * @return true if it is applicable
+         * @throws IllegalArgumentException if the method has invalid Dispatch annotations
+         */
+        static boolean isApplicable(Executable method, Class<?>[] argTypes) {
+            return isApplicable(MethodDescriptor.of(method), argTypes);
+        }
+
+        static boolean isApplicable(MethodDescriptor method, Class<?>[] argTypes) {
+            method.checkDispatchAnnotations();
+            int regularArgCount = method.getNormalParameterCount();
+
+            if ((method.isVarArgs() && regularArgCount > argTypes.length)
+                    || (!method.isVarArgs() && regularArgCount != argTypes.length)) {
+                // normal case: argument and parameter count mismatch
+                // if varargs: not enough non-vararg arguments
+                return false;
+            }
+
+            // Check regular argument compatibility
+            for (int i = 0; i < regularArgCount; i++) {
+                if (!isAssignableFromBoxed(method.getBoxedParameterType(i), argTypes[i])) {
                     return false;
                 }
             }
 
+            // Check varargs compatibility
+            if (method.isVarArgs()) {
+                int varargFirstIndex = regularArgCount;
+
+                if (varargFirstIndex == argTypes.length) {
+                    // varargs method with no varargs supplied
+                    return true;
+                }
+
+                if (method.getParameterCount() == argTypes.length
+                        && isAssignableFromBoxed(method.getBoxedParameterType(varargFirstIndex), argTypes[varargFirstIndex])) {
+                    // varargs method with args array supplied
+                    return true;
+                }
+
+                Class<?> varargType = method.getBoxedVarargsComponentType();
+                for (int i = varargFirstIndex; i < argTypes.length; i++) {
+                    if (!isAssignableFromBoxed(varargType, argTypes[i])) {
+                        return false;
+                    }
+                }
+            }
+
             return true;
         }
+
+        static boolean isAssignableFrom(Class<?> lhs, Class<?> rhs) {
+            lhs = TypeNormalizer.boxed(lhs);
+            rhs = TypeNormalizer.boxed(rhs);
+
+            return lhs.isAssignableFrom(rhs);
+        }
+
+        private static boolean isAssignableFromBoxed(Class<?> boxedLhs, Class<?> rhs) {
+            return boxedLhs.isAssignableFrom(TypeNormalizer.boxed(rhs));
+        }
     }
 
     /**
@@ -327,9 +701,8 @@ public class UsingMultipleDispatch {
      */
     public static class StaticExtendedCandidateMethodFinder extends ExtendedCandidateMethodFinderBase {
         @Override
-        public Stream<Method> findCandidates(Class<?> receiverClass, String name, Object[] args) {
-            return super.findCandidates(receiverClass, name, args)
-                .filter(m -> Modifier.isStatic(m.getModifiers()));
+        boolean accepts(MethodDescriptor method) {
+            return method.isStatic();
         }
     }
 
@@ -338,9 +711,8 @@ public class UsingMultipleDispatch {
      */
     public static class NonStaticExtendedCandidateMethodFinder extends ExtendedCandidateMethodFinderBase {
         @Override
-        public Stream<Method> findCandidates(Class<?> receiverClass, String name, Object[] args) {
-            return super.findCandidates(receiverClass, name, args)
-                .filter(m -> !Modifier.isStatic(m.getModifiers()));
+        boolean accepts(MethodDescriptor method) {
+            return !method.isStatic();
         }
     }
 }
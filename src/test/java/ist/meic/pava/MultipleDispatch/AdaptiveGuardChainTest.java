@@ -0,0 +1,79 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest.*;
+
+public class AdaptiveGuardChainTest {
+    private static final MethodSelector uncached = new MethodSelector(new SimpleMethodSpecificityComparator());
+
+    @Test
+    public void hottestTupleFirst() throws NoSuchMethodException {
+        AdaptiveGuardChain chain = new AdaptiveGuardChain();
+        Object[] cold = { new Line(), new Pencil() };
+        Object[] hot = { new Circle(), new Crayon() };
+
+        assertNull(chain.lookup(cold));
+        chain.offer(cold, uncached.selectMethod(Screen.class, "draw", cold));
+        chain.offer(hot, uncached.selectMethod(Screen.class, "draw", hot));
+        assertEquals(TypeTuple.of(cold), chain.guardedTypes()[0]);
+
+        for (int i = 0; i < AdaptiveGuardChain.SAMPLE_PERIOD * AdaptiveGuardChain.REORDER_PERIOD; i++) {
+            chain.lookup(i % 10 == 0 ? cold : hot);
+        }
+
+        assertEquals(TypeTuple.of(hot), chain.guardedTypes()[0]);
+        assertEquals(uncached.selectMethod(Screen.class, "draw", hot), chain.lookup(hot));
+    }
+
+    @Test
+    public void staysWithinCapacity() throws NoSuchMethodException {
+        AdaptiveGuardChain chain = new AdaptiveGuardChain();
+        Method target = Object.class.getMethod("toString");
+        Object[] shapes = { new Shape(), new Line(), new Circle() };
+        Object[] brushes = { new Brush(), new Pencil(), new Crayon() };
+
+        for (Object shape : shapes) {
+            for (Object brush : brushes) {
+                for (Object[] args : new Object[][] { { shape, brush }, { brush, shape } }) {
+                    // the last of these lookups is sampled
+                    for (int i = 0; i < AdaptiveGuardChain.SAMPLE_PERIOD; i++) {
+                        chain.lookup(args);
+                    }
+                    chain.offer(args, target);
+
+                    assertTrue(chain.guardedTypes().length <= AdaptiveGuardChain.CAPACITY);
+                    assertTrue(Arrays.asList(chain.guardedTypes()).contains(TypeTuple.of(args)));
+                }
+            }
+        }
+
+        assertEquals(AdaptiveGuardChain.CAPACITY, chain.guardedTypes().length);
+    }
+
+    @Test
+    public void sameSelectionAsMethodSelector() throws NoSuchMethodException {
+        MethodSelector adaptive = new AdaptiveMethodSelector(new SimpleMethodSpecificityComparator());
+        Object[] devices = { new Device(), new Screen(), new Printer() };
+        Object[] shapes = { new Shape(), new Line(), new Circle() };
+        Object[] brushes = { new Brush(), new Pencil(), new Crayon() };
+
+        for (int round = 0; round < 100; round++) {
+            for (Object device : devices) {
+                for (Object shape : shapes) {
+                    for (Object brush : brushes) {
+                        Method expected = uncached.selectMethod(device.getClass(), "draw", shape, brush);
+                        assertEquals(expected, adaptive.selectMethod(device.getClass(), "draw", shape, brush));
+                    }
+                }
+            }
+        }
+    }
+}
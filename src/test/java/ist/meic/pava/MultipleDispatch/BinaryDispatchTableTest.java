@@ -0,0 +1,43 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest.*;
+
+public class BinaryDispatchTableTest {
+    private static final MethodSelector selector = new MethodSelector(new SimpleMethodSpecificityComparator());
+
+    @Test
+    public void fillsLazily() throws NoSuchMethodException {
+        AtomicInteger misses = new AtomicInteger();
+        BinaryDispatchTable table = new BinaryDispatchTable(args -> {
+            misses.incrementAndGet();
+            return selector.selectMethod(Screen.class, "draw", args);
+        });
+
+        Object[][] calls = {
+            { new Line(), new Pencil() },
+            { new Line(), new Crayon() },
+            { new Circle(), new Pencil() },
+            { new Circle(), new Crayon() },
+            { new Circle(), new Brush() },
+        };
+
+        for (Object[] args : calls) {
+            Method expected = selector.selectMethod(Screen.class, "draw", args);
+            Method resolved = table.resolve(args);
+            assertEquals(expected, resolved);
+            assertSame(resolved, table.resolve(args));
+        }
+
+        assertEquals(calls.length, misses.get());
+        assertEquals(2, table.rowCount());
+        assertEquals(3, table.columnCount());
+    }
+}
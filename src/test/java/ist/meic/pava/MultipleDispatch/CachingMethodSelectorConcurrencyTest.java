@@ -0,0 +1,130 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Races many threads on fresh caches, in the spirit of jcstress: every thread
+ * must observe exactly the selection of an uncached MethodSelector, no matter
+ * how its lookups interleave with the other threads' table updates.
+ */
+public class CachingMethodSelectorConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 200;
+
+    private static final MethodSelector uncached = new MethodSelector(new SimpleMethodSpecificityComparator());
+
+    @Test
+    public void racingSelections() throws Exception {
+        List<Object[]> calls = new ArrayList<>();
+        Object[] devices = { new TwoArgumentsTest.Device(), new TwoArgumentsTest.Screen(), new TwoArgumentsTest.Printer() };
+        Object[] shapes = { new TwoArgumentsTest.Shape(), new TwoArgumentsTest.Line(), new TwoArgumentsTest.Circle() };
+        Object[] brushes = { new TwoArgumentsTest.Brush(), new TwoArgumentsTest.Pencil(), new TwoArgumentsTest.Crayon() };
+        for (Object device : devices) {
+            for (Object shape : shapes) {
+                for (Object brush : brushes) {
+                    calls.add(new Object[] { device, shape, brush });
+                }
+            }
+        }
+
+        List<Method> expected = new ArrayList<>();
+        for (Object[] call : calls) {
+            expected.add(uncached.selectMethod(call[0].getClass(), "draw", call[1], call[2]));
+        }
+
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            CachingMethodSelector selector = new CachingMethodSelector(new SimpleMethodSpecificityComparator());
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Thread> threads = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                long seed = round * THREADS + t;
+                Thread thread = new Thread(() -> {
+                    List<Integer> order = new ArrayList<>();
+                    for (int i = 0; i < calls.size(); i++) {
+                        order.add(i);
+                    }
+                    Collections.shuffle(order, new Random(seed));
+
+                    try {
+                        start.await();
+                        for (int i : order) {
+                            Object[] call = calls.get(i);
+                            Method selected = selector.selectMethod(call[0].getClass(), "draw", call[1], call[2]);
+                            if (!expected.get(i).equals(selected)) {
+                                failures.add(i + ": expected " + expected.get(i) + " but saw " + selected);
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.add(e.toString());
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+    @Test
+    public void racingBinaryTableGrowth() throws Exception {
+        // every thread introduces its own rows and columns, forcing concurrent copy-on-write growth
+        Object[] shapes = { new TwoArgumentsTest.Shape(), new TwoArgumentsTest.Line(), new TwoArgumentsTest.Circle() };
+        Object[] brushes = { new TwoArgumentsTest.Brush(), new TwoArgumentsTest.Pencil(), new TwoArgumentsTest.Crayon() };
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            BinaryDispatchTable table = new BinaryDispatchTable(args -> uncached.selectMethod(TwoArgumentsTest.Screen.class, "draw", args));
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Thread> threads = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                Object shape = shapes[t % shapes.length];
+                Object brush = brushes[(t / shapes.length) % brushes.length];
+                Thread thread = new Thread(() -> {
+                    try {
+                        Object[] args = { shape, brush };
+                        Method expected = uncached.selectMethod(TwoArgumentsTest.Screen.class, "draw", args);
+                        start.await();
+                        for (int i = 0; i < 100; i++) {
+                            Method selected = table.resolve(args);
+                            if (!expected.equals(selected)) {
+                                failures.add("expected " + expected + " but saw " + selected);
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.add(e.toString());
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(3, table.rowCount());
+        }
+
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+}
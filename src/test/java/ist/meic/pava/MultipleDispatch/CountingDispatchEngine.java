@@ -0,0 +1,37 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * A dispatch engine registered as a service (see META-INF/services in the test
+ * resources): the cached engine, counting the calls it dispatches.
+ */
+public class CountingDispatchEngine implements DispatchEngine {
+    static final AtomicLong calls = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "counting";
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer) {
+        return counting(DispatchEngines.get(DispatchEngines.CACHED).dispatcherFor(selector, name, argumentPreparer));
+    }
+
+    @Override
+    public Dispatcher dispatcherFor(MethodSelector selector, String name, BiFunction<Method, Object[], Object[]> argumentPreparer,
+            MethodHandles.Lookup caller) {
+        return counting(DispatchEngines.get(DispatchEngines.CACHED).dispatcherFor(selector, name, argumentPreparer, caller));
+    }
+
+    private static Dispatcher counting(Dispatcher cached) {
+        return (receiverClass, receiver, args) -> {
+            calls.incrementAndGet();
+            return cached.invoke(receiverClass, receiver, args);
+        };
+    }
+}
@@ -0,0 +1,252 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import ist.meic.pava.MultipleDispatchExtended.ClosedWorldDispatchTable;
+import ist.meic.pava.MultipleDispatchExtended.CompressedDispatchTable;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.ExtendedMethodComparator;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.StaticExtendedCandidateMethodFinder;
+
+/**
+ * Checks that every optimized dispatch engine selects the very same method as
+ * the plain, uncached MethodSelector pipeline it stands for, over randomly
+ * generated hierarchies (see HierarchyGenerator) and random calls.
+ *
+ * Each call is resolved twice, in a different order, so that engines answer
+ * both from scratch and from their tables. Calls are also made through every
+ * DispatchEngine. Failures report the seed, which
+ * reproduces the hierarchy and the calls.
+ */
+public class DifferentialDispatchTest {
+    private static final int CALLS = 300;
+    private static final int CLOSED_WORLD_MAX_ARITY = 2;
+
+    @BeforeAll
+    public static void requireCompiler() {
+        Assumptions.assumeTrue(HierarchyGenerator.isAvailable(), "no Java compiler to generate hierarchies with");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3, 5, 8, 13, 21, 34 })
+    public void simpleRules(long seed) {
+        HierarchyGenerator.Hierarchy hierarchy = new HierarchyGenerator(seed).generate();
+        // a total order leaves out exact matches: the reference always goes through the full candidate search
+        MethodSelector reference = new MethodSelector(MethodSelector.makeTotalOrder(new SimpleMethodSpecificityComparator()),
+            new SimpleCandidateMethodFinder());
+
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("MethodSelector", new MethodSelector(new SimpleMethodSpecificityComparator())::findMethod);
+        CachingMethodSelector caching = new CachingMethodSelector(new SimpleMethodSpecificityComparator());
+        engines.put("CachingMethodSelector", caching::findMethod);
+        AdaptiveMethodSelector adaptive = new AdaptiveMethodSelector(new SimpleMethodSpecificityComparator());
+        engines.put("AdaptiveMethodSelector", adaptive::findMethod);
+        engines.put("resolverFor", resolvers(caching));
+        engines.put("ResolutionCache", resolutionCaches(reference));
+        engines.put("UsingMultipleDispatch", (receiverClass, name, args) ->
+            ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.findMethod(instanceOf(hierarchy, receiverClass), name, args));
+
+        check(hierarchy, seed, HierarchyGenerator.INSTANCE_METHOD, reference, engines);
+        checkInvocations(hierarchy, seed, reference, ist.meic.pava.MultipleDispatch.UsingMultipleDispatch::invoke);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3, 5, 8, 13, 21, 34 })
+    public void extendedRules(long seed) {
+        HierarchyGenerator.Hierarchy hierarchy = new HierarchyGenerator(seed).generate();
+        MethodSelector reference = new MethodSelector(MethodSelector.makeTotalOrder(new ExtendedMethodComparator()),
+            new NonStaticExtendedCandidateMethodFinder());
+
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("MethodSelector", new MethodSelector(new ExtendedMethodComparator(), new NonStaticExtendedCandidateMethodFinder())::findMethod);
+        CachingMethodSelector caching = new CachingMethodSelector(new ExtendedMethodComparator(), new NonStaticExtendedCandidateMethodFinder());
+        engines.put("CachingMethodSelector", caching::findMethod);
+        engines.put("resolverFor", resolvers(caching));
+        engines.put("ResolutionCache", resolutionCaches(reference));
+        engines.put("CompressedDispatchTable", compressedTables(false));
+        engines.put("ClosedWorldDispatchTable", closedWorldTables(hierarchy, reference, false));
+        engines.put("UsingMultipleDispatch", (receiverClass, name, args) ->
+            ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.findMethod(instanceOf(hierarchy, receiverClass), name, args));
+
+        check(hierarchy, seed, HierarchyGenerator.INSTANCE_METHOD, reference, engines);
+        checkInvocations(hierarchy, seed, reference, ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch::invoke);
+        for (String engine : DispatchEngines.names()) {
+            ist.meic.pava.MultipleDispatchExtended.GenericFunction<Object> function =
+                ist.meic.pava.MultipleDispatchExtended.GenericFunction.of(Object.class, HierarchyGenerator.INSTANCE_METHOD);
+            function.setEngine(engine);
+            checkInvocations(hierarchy, seed, reference, (receiver, name, args) -> function.invoke(receiver, args));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3, 5, 8, 13, 21, 34 })
+    public void extendedStaticRules(long seed) {
+        HierarchyGenerator.Hierarchy hierarchy = new HierarchyGenerator(seed).generate();
+        MethodSelector reference = new MethodSelector(MethodSelector.makeTotalOrder(new ExtendedMethodComparator()),
+            new StaticExtendedCandidateMethodFinder());
+
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("MethodSelector", new MethodSelector(new ExtendedMethodComparator(), new StaticExtendedCandidateMethodFinder())::findMethod);
+        CachingMethodSelector caching = new CachingMethodSelector(new ExtendedMethodComparator(), new StaticExtendedCandidateMethodFinder());
+        engines.put("CachingMethodSelector", caching::findMethod);
+        engines.put("CompressedDispatchTable", compressedTables(true));
+        engines.put("ClosedWorldDispatchTable", closedWorldTables(hierarchy, reference, true));
+        engines.put("UsingMultipleDispatch", ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch::findStaticMethod);
+
+        check(hierarchy, seed, HierarchyGenerator.STATIC_METHOD, reference, engines);
+    }
+
+    private static void check(HierarchyGenerator.Hierarchy hierarchy, long seed, String name, MethodSelector reference, Map<String, Engine> engines) {
+        Random random = new Random(seed);
+        List<Object[]> calls = new ArrayList<>(Arrays.asList(hierarchy.randomCalls(random, CALLS, name)));
+        List<Object[]> replay = new ArrayList<>(calls);
+        Collections.shuffle(replay, random);
+        calls.addAll(replay);
+
+        int selected = 0;
+        for (Object[] call : calls) {
+            Class<?> receiverClass = receiverClass(call[0]);
+            Object[] args = Arrays.copyOfRange(call, 1, call.length);
+            Method expected = reference.findMethod(receiverClass, name, args);
+            if (expected != null) {
+                selected++;
+            }
+
+            for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+                Method actual;
+                try {
+                    actual = engine.getValue().find(receiverClass, name, args);
+                } catch (NoSuchMethodException e) {
+                    actual = null;
+                } catch (RuntimeException e) {
+                    throw new AssertionError(describe(engine.getKey(), seed, receiverClass, args), e);
+                }
+
+                assertEquals(expected, actual, () -> describe(engine.getKey(), seed, receiverClass, args));
+            }
+        }
+
+        // the generated calls are aimed at methods, so most of them must find one
+        if (selected < calls.size() / 4) {
+            fail("only " + selected + " of " + calls.size() + " calls selected a method (seed " + seed + ")");
+        }
+    }
+
+    private static void checkInvocations(HierarchyGenerator.Hierarchy hierarchy, long seed, MethodSelector reference, Invoker invoker) {
+        for (Object[] call : hierarchy.randomCalls(new Random(seed), CALLS, HierarchyGenerator.INSTANCE_METHOD)) {
+            Object[] args = Arrays.copyOfRange(call, 1, call.length);
+            Method expected = reference.findMethod(call[0].getClass(), HierarchyGenerator.INSTANCE_METHOD, args);
+
+            if (expected == null) {
+                assertThrows(RuntimeException.class, () -> invoker.invoke(call[0], HierarchyGenerator.INSTANCE_METHOD, args));
+            } else {
+                assertEquals(HierarchyGenerator.Hierarchy.describe(expected), invoker.invoke(call[0], HierarchyGenerator.INSTANCE_METHOD, args),
+                    () -> describe("invoke", seed, call[0].getClass(), args));
+            }
+        }
+    }
+
+    private static Engine resolvers(CachingMethodSelector selector) {
+        Map<List<Object>, MethodResolver> resolvers = new HashMap<>();
+        return (receiverClass, name, args) -> resolvers
+            .computeIfAbsent(Arrays.asList(receiverClass, name), k -> selector.resolverFor(receiverClass, name))
+            .resolve(args);
+    }
+
+    private static Engine resolutionCaches(MethodSelector selector) {
+        Map<String, ResolutionCache> caches = new HashMap<>();
+        return (receiverClass, name, args) -> caches
+            .computeIfAbsent(name, n -> new ResolutionCache(selector, n))
+            .find(receiverClass, args);
+    }
+
+    private static Engine compressedTables(boolean isStatic) {
+        Map<List<Object>, CompressedDispatchTable> tables = new HashMap<>();
+        return (receiverClass, name, args) -> {
+            if (args.length == 0) {
+                // compressed tables need at least one argument: compare with the reference itself
+                return new MethodSelector(new ExtendedMethodComparator(), isStatic ? new StaticExtendedCandidateMethodFinder()
+                    : new NonStaticExtendedCandidateMethodFinder()).findMethod(receiverClass, name, args);
+            }
+
+            return tables.computeIfAbsent(Arrays.asList(receiverClass, name, args.length), k -> isStatic
+                    ? CompressedDispatchTable.forStaticMethods(receiverClass, name, args.length)
+                    : CompressedDispatchTable.forMethods(receiverClass, name, args.length))
+                .resolve(args);
+        };
+    }
+
+    /**
+     * Closed worlds made of the receiver classes and the classes of the
+     * argument pool. Ambiguous tuples have no entry, so the reference breaks
+     * their ties, as it answers calls of more than CLOSED_WORLD_MAX_ARITY
+     * arguments (the tables grow exponentially with the arity).
+     */
+    private static Engine closedWorldTables(HierarchyGenerator.Hierarchy hierarchy, MethodSelector reference, boolean isStatic) {
+        List<Class<?>> argumentClasses = hierarchy.getArgumentPool().stream()
+            .map(Object::getClass)
+            .distinct()
+            .collect(Collectors.toList());
+        Map<List<Object>, ClosedWorldDispatchTable> tables = new HashMap<>();
+
+        return (receiverClass, name, args) -> {
+            if (args.length > CLOSED_WORLD_MAX_ARITY) {
+                return reference.findMethod(receiverClass, name, args);
+            }
+
+            ClosedWorldDispatchTable table = tables.computeIfAbsent(Arrays.asList(isStatic ? receiverClass : null, name, args.length), k -> isStatic
+                ? ClosedWorldDispatchTable.forStaticMethods(receiverClass, name, argumentClasses, args.length)
+                : ClosedWorldDispatchTable.forMethods(hierarchy.getReceiverClasses(), name, argumentClasses, args.length));
+
+            List<Class<?>> tuple = new ArrayList<>();
+            tuple.add(receiverClass);
+            tuple.addAll(Arrays.asList(MethodSelector.getObjectTypes(args)));
+            if (table.getAmbiguousTuples().containsKey(tuple)) {
+                return reference.findMethod(receiverClass, name, args);
+            }
+
+            return table.resolve(receiverClass, args);
+        };
+    }
+
+    private static Object instanceOf(HierarchyGenerator.Hierarchy hierarchy, Class<?> receiverClass) {
+        return hierarchy.getReceivers().get(hierarchy.getReceiverClasses().indexOf(receiverClass));
+    }
+
+    private static Class<?> receiverClass(Object receiver) {
+        return receiver instanceof Class ? (Class<?>) receiver : receiver.getClass();
+    }
+
+    private static String describe(String engine, long seed, Class<?> receiverClass, Object[] args) {
+        return engine + " disagrees with the reference for seed " + seed + ", " + receiverClass.getSimpleName()
+            + Arrays.stream(args).map(arg -> arg.getClass().getSimpleName()).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    @FunctionalInterface
+    private static interface Engine {
+        Method find(Class<?> receiverClass, String name, Object[] args) throws NoSuchMethodException;
+    }
+
+    @FunctionalInterface
+    private static interface Invoker {
+        Object invoke(Object receiver, String name, Object[] args);
+    }
+}
@@ -0,0 +1,133 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+
+import ist.meic.pava.MultipleDispatchExtended.StaticGenericFunction;
+
+public class DispatchEngineTest {
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape { }
+
+    public static class Device {
+        public String draw(Shape s) {
+            return "device shape";
+        }
+
+        public String draw(Line l) {
+            return "device line";
+        }
+
+        public String draw(Shape s, Shape t) {
+            return "two shapes";
+        }
+
+        public int count(int n, Shape... shapes) {
+            return n + shapes.length;
+        }
+
+        public void fail(Circle c) {
+            throw new IllegalStateException("circle");
+        }
+
+        public static String describe(Line l, long width) {
+            return "line " + width;
+        }
+    }
+
+    public static class Screen extends Device {
+        @Override
+        public String draw(Line l) {
+            return "screen line";
+        }
+    }
+
+    @Test
+    public void registry() {
+        assertTrue(DispatchEngines.names().containsAll(java.util.Arrays.asList(DispatchEngines.REFLECTIVE,
+            DispatchEngines.CACHED, DispatchEngines.METHOD_HANDLE, DispatchEngines.GENERATED)));
+        assertInstanceOf(CountingDispatchEngine.class, DispatchEngines.get("counting"));
+        assertEquals(DispatchEngines.CACHED, DispatchEngines.getDefault().getName());
+        assertFalse(DispatchEngines.isDefaultConfigured());
+        assertThrows(IllegalArgumentException.class, () -> DispatchEngines.get("missing"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { DispatchEngines.REFLECTIVE, DispatchEngines.CACHED, DispatchEngines.METHOD_HANDLE, DispatchEngines.GENERATED, "counting" })
+    public void engines(String engineName) {
+        GenericFunction<String> draw = GenericFunction.of(Device.class, "draw");
+        draw.setEngine(engineName);
+
+        assertEquals(engineName, draw.getEngine().getName());
+        for (int i = 0; i < 2; i++) {
+            assertEquals("device shape", draw.invoke(new Device(), new Circle()));
+            assertEquals("device line", draw.invoke(new Device(), new Line()));
+            assertEquals("screen line", draw.invoke(new Screen(), new Line()));
+            assertEquals("two shapes", draw.invoke(new Screen(), new Line(), new Circle()));
+        }
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> draw.invoke(new Device(), "text"));
+        assertInstanceOf(NoSuchMethodException.class, missing.getCause());
+
+        GenericFunction<Void> fail = GenericFunction.of(Device.class, "fail");
+        fail.setEngine(engineName);
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> fail.invoke(new Device(), new Circle()));
+        assertInstanceOf(InvocationTargetException.class, failure.getCause());
+        assertInstanceOf(IllegalStateException.class, failure.getCause().getCause());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { DispatchEngines.REFLECTIVE, DispatchEngines.CACHED, DispatchEngines.METHOD_HANDLE, DispatchEngines.GENERATED })
+    public void extendedEngines(String engineName) {
+        ist.meic.pava.MultipleDispatchExtended.GenericFunction<Integer> count =
+            ist.meic.pava.MultipleDispatchExtended.GenericFunction.of(Device.class, "count");
+        count.setEngine(engineName);
+        StaticGenericFunction<String> describe = ist.meic.pava.MultipleDispatchExtended.GenericFunction.ofStatic(Device.class, "describe");
+        describe.setEngine(engineName);
+
+        assertEquals(1, count.invoke(new Device(), 1));
+        assertEquals(4, count.invoke(new Device(), 2, new Line(), new Circle()));
+        assertEquals(3, count.invoke(new Device(), 2, (Object) new Shape[] { new Line() }));
+        assertEquals("line 3", describe.invoke(new Line(), 3L));
+    }
+
+    @Test
+    public void switchingEngines() {
+        GenericFunction<String> draw = GenericFunction.of(Device.class, "draw");
+        assertSame(DispatchEngines.getDefault(), draw.getEngine());
+
+        long before = CountingDispatchEngine.calls.get();
+        draw.setEngine("counting");
+        draw.invoke(new Device(), new Line());
+        draw.invoke(new Device(), new Circle());
+        draw.setEngine(DispatchEngines.GENERATED);
+        draw.invoke(new Device(), new Line());
+
+        assertEquals(before + 2, CountingDispatchEngine.calls.get());
+        assertThrows(IllegalArgumentException.class, () -> draw.setEngine("missing"));
+        assertEquals(DispatchEngines.GENERATED, draw.getEngine().getName());
+    }
+
+    @Test
+    public void generatedClasses() throws NoSuchMethodException {
+        assertTrue(GeneratedDispatchEngine.isGenerated(Device.class.getMethod("draw", Shape.class, Shape.class)));
+        assertTrue(GeneratedDispatchEngine.isGenerated(Device.class.getMethod("count", int.class, Shape[].class)));
+        assertTrue(GeneratedDispatchEngine.isGenerated(Device.class.getMethod("describe", Line.class, long.class)));
+        // void methods are called through method handles
+        assertFalse(GeneratedDispatchEngine.isGenerated(Device.class.getMethod("fail", Circle.class)));
+        // with the caller's lookup, classes are generated in the caller's package
+        assertTrue(GeneratedDispatchEngine.isGenerated(Device.class.getMethod("draw", Shape.class, Shape.class), MethodHandles.lookup()));
+    }
+}
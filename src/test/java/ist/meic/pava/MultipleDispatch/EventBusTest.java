@@ -0,0 +1,228 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventBusTest {
+    public static class Event { }
+    public static class ErrorEvent extends Event { }
+    public static class ClickEvent extends Event { }
+
+    public static class Logger {
+        final List<String> log = new ArrayList<>();
+
+        public void on(Event e) {
+            log.add("event");
+        }
+
+        public void on(ErrorEvent e) {
+            log.add("error");
+        }
+    }
+
+    public static class Counter {
+        final AtomicInteger count = new AtomicInteger();
+
+        public void on(Object o) {
+            count.incrementAndGet();
+        }
+    }
+
+    public static class Failing {
+        public void on(ClickEvent e) {
+            throw new IllegalStateException("click");
+        }
+    }
+
+    @Test
+    public void dispatchToMostSpecificHandlers() {
+        EventBus bus = new EventBus();
+        Logger logger = new Logger();
+        Counter counter = new Counter();
+        bus.register(logger);
+        bus.register(counter);
+        bus.register(logger);
+
+        bus.dispatch(new ErrorEvent());
+        bus.dispatch(new ClickEvent());
+        bus.dispatch("not an event");
+
+        assertEquals(Arrays.asList("error", "event"), logger.log);
+        assertEquals(3, counter.count.get());
+        assertEquals(3, bus.routeCount());
+    }
+
+    @Test
+    public void publishAndDrain() {
+        EventBus bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", 4, (e, event) -> { });
+        Logger logger = new Logger();
+        bus.register(logger);
+
+        for (int round = 0; round < 3; round++) {
+            assertTrue(bus.publish(new Event()));
+            assertTrue(bus.publish(new ErrorEvent()));
+            assertTrue(bus.publish(new ErrorEvent()));
+            assertTrue(bus.publish(new Event()));
+            assertFalse(bus.publish(new Event()));
+            assertEquals(4, bus.pendingCount());
+
+            assertEquals(4, bus.drain());
+            assertEquals(0, bus.pendingCount());
+        }
+
+        assertEquals(12, logger.log.size());
+        assertEquals("error", logger.log.get(1));
+        assertEquals("event", logger.log.get(3));
+    }
+
+    @Test
+    public void incrementalRouteUpdates() {
+        EventBus bus = new EventBus();
+        Logger logger = new Logger();
+        Counter counter = new Counter();
+        Event event = new ErrorEvent();
+
+        bus.register(logger);
+        bus.dispatch(event);
+        bus.register(counter);
+        bus.dispatch(event);
+        assertTrue(bus.unregister(logger));
+        assertFalse(bus.unregister(logger));
+        bus.dispatch(event);
+
+        assertEquals(2, logger.log.size());
+        assertEquals(2, counter.count.get());
+        assertEquals(1, bus.routeCount());
+    }
+
+    @Test
+    public void handlerExceptions() {
+        List<Throwable> errors = new ArrayList<>();
+        EventBus bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", 16, (e, event) -> errors.add(e));
+        Counter counter = new Counter();
+        bus.register(new Failing());
+        bus.register(counter);
+
+        bus.publish(new ClickEvent());
+        bus.publish(new ClickEvent());
+        bus.drain();
+
+        assertEquals(2, errors.size());
+        assertEquals("click", errors.get(0).getMessage());
+        assertEquals(2, counter.count.get());
+    }
+
+    @Test
+    public void collectedHandlerExceptions() {
+        EventBus bus = new EventBus();
+        Counter counter = new Counter();
+        bus.register(new Failing());
+        bus.register(counter);
+
+        bus.publish(new ClickEvent());
+        bus.publish(new ClickEvent());
+        RuntimeException e = assertThrows(RuntimeException.class, bus::drain);
+
+        // every event was delivered before throwing
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals(2, counter.count.get());
+        assertEquals(0, bus.pendingCount());
+
+        assertThrows(RuntimeException.class, () -> bus.dispatch(new ClickEvent()));
+        bus.dispatch(new Event());
+        assertEquals(4, counter.count.get());
+    }
+
+    public static class Start { }
+
+    public static class Chain {
+        final List<String> log = new ArrayList<>();
+        EventBus bus;
+
+        public void on(Start start) {
+            log.add("start");
+            bus.publish(new Event());
+            assertEquals(0, bus.drain());
+        }
+
+        public void on(Event event) {
+            log.add("event");
+        }
+    }
+
+    @Test
+    public void nestedDrain() {
+        EventBus bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", 8, (e, event) -> { throw new AssertionError(e); });
+        Chain chain = new Chain();
+        chain.bus = bus;
+        bus.register(chain);
+
+        bus.publish(new Start());
+        bus.publish(new Start());
+        assertEquals(4, bus.drain());
+
+        assertEquals(Arrays.asList("start", "start", "event", "event"), chain.log);
+    }
+
+    public static class Batcher {
+        final List<String> log = new ArrayList<>();
+
+        public void on(Event... events) {
+            log.add(events.length + " events");
+        }
+
+        public void on(int code) {
+            log.add("code " + code);
+        }
+    }
+
+    @Test
+    public void extendedRules() {
+        EventBus bus = new EventBus(new MethodSelector(new ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.ExtendedMethodComparator(),
+            new ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder()), "on", 16, (e, event) -> { });
+        Batcher batcher = new Batcher();
+        bus.register(batcher);
+
+        bus.dispatch(new ClickEvent());
+        bus.dispatch(new Event[] { new Event(), new Event() });
+        bus.dispatch(404);
+
+        assertEquals(Arrays.asList("1 events", "2 events", "code 404"), batcher.log);
+    }
+
+    @Test
+    public void concurrentPublishers() throws InterruptedException {
+        EventBus bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "on", 64, (e, event) -> { });
+        Counter counter = new Counter();
+        bus.register(counter);
+
+        Thread[] publishers = new Thread[4];
+        for (int t = 0; t < publishers.length; t++) {
+            publishers[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    while (!bus.publish(new Event())) {
+                        bus.drain();
+                    }
+                }
+            });
+            publishers[t].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        bus.drain();
+
+        assertEquals(40_000, counter.count.get());
+    }
+}
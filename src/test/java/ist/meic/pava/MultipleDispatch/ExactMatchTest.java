@@ -0,0 +1,179 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Method;
+
+import ist.meic.pava.MultipleDispatchExtended.Dispatch;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.ExtendedMethodComparator;
+import ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder;
+
+public class ExactMatchTest {
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape { }
+
+    public static class Device {
+        public String draw(Shape s) {
+            return "device shape";
+        }
+
+        public String draw(Line l) {
+            return "device line";
+        }
+
+        public String draw(Shape s, Shape t) {
+            return "two shapes";
+        }
+
+        public String draw(Line l, Shape s) {
+            return "line and shape";
+        }
+
+        public String scale(int factor) {
+            return "int";
+        }
+
+        public String scale(Integer factor, Shape s) {
+            return "Integer and shape";
+        }
+
+        public String scale(int factor, Object o) {
+            return "int and object";
+        }
+
+        public String resize(int size) {
+            return "int";
+        }
+
+        public String resize(Integer size) {
+            return "Integer";
+        }
+
+        public String join(Line l, Line m) {
+            return "two lines";
+        }
+
+        public String join(Line l, Line... rest) {
+            return "lines";
+        }
+
+        public String mark(@Dispatch Shape s, Shape context) {
+            return "mark shape";
+        }
+
+        public String mark(@Dispatch Line l, Line context) {
+            return "mark line";
+        }
+
+        public String fill(Line[] lines) {
+            return "array";
+        }
+
+        public String fill(Shape... shapes) {
+            return "varargs";
+        }
+    }
+
+    public static class Screen extends Device {
+        // a subclass method beats any superclass method, exact or not
+        public String draw(Shape s) {
+            return "screen shape";
+        }
+    }
+
+    @Test
+    public void simple() throws NoSuchMethodException {
+        MethodSelector selector = new MethodSelector(new SimpleMethodSpecificityComparator());
+        MethodSelector reference = new MethodSelector(MethodSelector.makeTotalOrder(new SimpleMethodSpecificityComparator()),
+            new SimpleCandidateMethodFinder());
+
+        assertSelects(selector, reference, Device.class, "draw", new Line());
+        assertSelects(selector, reference, Device.class, "draw", new Line(), new Shape());
+        assertHitsAndFallThroughs(selector, 2, 0);
+
+        assertSelects(selector, reference, Device.class, "draw", new Circle());
+        assertSelects(selector, reference, Device.class, "draw", new Line(), new Circle());
+        assertHitsAndFallThroughs(selector, 2, 2);
+
+        assertEquals("screen shape", invoke(selector, new Screen(), "draw", new Line()));
+        assertSelects(selector, reference, Screen.class, "draw", new Line());
+        assertHitsAndFallThroughs(selector, 2, 4);
+
+        assertEquals(0, reference.getExactMatchHits());
+        assertEquals(0, reference.getExactMatchFallThroughs());
+    }
+
+    @Test
+    public void extended() throws NoSuchMethodException {
+        MethodSelector selector = new MethodSelector(new ExtendedMethodComparator(), new NonStaticExtendedCandidateMethodFinder());
+        MethodSelector reference = new MethodSelector(MethodSelector.makeTotalOrder(new ExtendedMethodComparator()),
+            new NonStaticExtendedCandidateMethodFinder());
+
+        // exact after boxing
+        assertSelects(selector, reference, Device.class, "scale", 2);
+        assertSelects(selector, reference, Device.class, "draw", new Line(), new Shape());
+        assertSelects(selector, reference, Device.class, "join", new Line(), new Line());
+        assertHitsAndFallThroughs(selector, 3, 0);
+
+        // primitives are preferred to their wrapper classes
+        assertEquals("int and object", invoke(selector, new Device(), "scale", 2, new Line()));
+        assertSelects(selector, reference, Device.class, "scale", 2, new Line());
+        assertEquals("int", invoke(selector, new Device(), "resize", 2));
+        assertSelects(selector, reference, Device.class, "resize", 2);
+        assertHitsAndFallThroughs(selector, 5, 2);
+
+        assertSelects(selector, reference, Device.class, "join", new Line(), new Line(), new Line());
+        assertSelects(selector, reference, Device.class, "mark", new Line(), new Line());
+        assertSelects(selector, reference, Device.class, "mark", new Line(), new Circle());
+        assertHitsAndFallThroughs(selector, 6, 4);
+
+        // the varargs method takes the array as its varargs array, and its component type wins by name
+        Object[] lines = { new Line[0] };
+        assertEquals("varargs", invoke(selector, new Device(), "fill", lines));
+        assertEquals("varargs", ist.meic.pava.MultipleDispatchExtended.UsingMultipleDispatch.invoke(new Device(), "fill", lines));
+        assertSelects(selector, reference, Device.class, "fill", lines);
+        assertHitsAndFallThroughs(selector, 6, 6);
+
+        assertEquals("screen shape", invoke(selector, new Screen(), "draw", new Line()));
+        assertSelects(selector, reference, Screen.class, "draw", new Line());
+        // only methods applicable to the same arguments matter
+        assertSelects(selector, reference, Screen.class, "draw", new Line(), new Shape());
+        assertHitsAndFallThroughs(selector, 7, 8);
+    }
+
+    @Test
+    public void caching() throws NoSuchMethodException {
+        CachingMethodSelector selector = new CachingMethodSelector(new ExtendedMethodComparator(),
+            new NonStaticExtendedCandidateMethodFinder());
+
+        for (int i = 0; i < 3; i++) {
+            selector.selectMethod(Device.class, "draw", new Line());
+            selector.selectMethod(Device.class, "draw", new Circle());
+        }
+
+        // only misses are selected
+        assertHitsAndFallThroughs(selector, 1, 1);
+    }
+
+    private static void assertSelects(MethodSelector selector, MethodSelector reference, Class<?> receiverClass, String name,
+            Object... args) throws NoSuchMethodException {
+        assertEquals(reference.selectMethod(receiverClass, name, args), selector.selectMethod(receiverClass, name, args));
+    }
+
+    private static void assertHitsAndFallThroughs(MethodSelector selector, long hits, long fallThroughs) {
+        assertEquals(hits, selector.getExactMatchHits());
+        assertEquals(fallThroughs, selector.getExactMatchFallThroughs());
+    }
+
+    private static Object invoke(MethodSelector selector, Object receiver, String name, Object... args) throws NoSuchMethodException {
+        Method method = selector.selectMethod(receiver.getClass(), name, args);
+        try {
+            return method.invoke(receiver, args);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
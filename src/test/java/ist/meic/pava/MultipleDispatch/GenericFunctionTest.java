@@ -0,0 +1,57 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest.*;
+
+public class GenericFunctionTest {
+    private static final GenericFunction<String> DRAW = GenericFunction.of(Device.class, "draw");
+    private static final ist.meic.pava.MultipleDispatchExtended.GenericFunction<String> DRAW_EXTENDED =
+        ist.meic.pava.MultipleDispatchExtended.GenericFunction.of(Device.class, "draw");
+
+    @ParameterizedTest
+    @MethodSource("secondExampleTestCaseProvider")
+    public void testProjectStatementSecondExample(Device device, Shape shape, Brush brush, String expected) {
+        // twice: the second call is served from the cache
+        assertEquals(expected, DRAW.invoke(device, shape, brush));
+        assertEquals(expected, DRAW.invoke(device, shape, brush));
+    }
+
+    @ParameterizedTest
+    @MethodSource("secondExampleTestCaseProvider")
+    public void testProjectStatementSecondExampleExtended(Device device, Shape shape, Brush brush, String expected) {
+        assertEquals(expected, DRAW_EXTENDED.invoke(device, shape, brush));
+        assertEquals(expected, DRAW_EXTENDED.invoke(device, shape, brush));
+    }
+
+    @Test
+    public void wrongReceiverType() {
+        assertThrows(IllegalArgumentException.class, () -> DRAW.invoke(new Object(), new Line(), new Pencil()));
+    }
+
+    @Test
+    public void noSuchMethod() {
+        assertThrows(RuntimeException.class, () -> DRAW.invoke(new Screen(), new Line()));
+    }
+
+    private static Stream<Arguments> secondExampleTestCaseProvider() {
+        return Stream.of(
+            Arguments.of(new Screen(), new Line(), new Pencil(), "drawing a line on screen with pencil!"),
+            Arguments.of(new Screen(), new Line(), new Crayon(), "drawing a line on screen with crayon!"),
+            Arguments.of(new Screen(), new Circle(), new Pencil(), "drawing a circle on screen with pencil!"),
+            Arguments.of(new Screen(), new Circle(), new Crayon(), "drawing a circle on screen with what?"),
+            Arguments.of(new Printer(), new Line(), new Pencil(), "drawing a line on printer with what?"),
+            Arguments.of(new Printer(), new Line(), new Crayon(), "drawing a line on printer with what?"),
+            Arguments.of(new Printer(), new Circle(), new Pencil(), "drawing a circle on printer with pencil!"),
+            Arguments.of(new Printer(), new Circle(), new Crayon(), "drawing a circle on printer with crayon!")
+        );
+    }
+}
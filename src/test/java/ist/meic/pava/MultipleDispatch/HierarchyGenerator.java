@@ -0,0 +1,419 @@
+package ist.meic.pava.MultipleDispatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import ist.meic.pava.MultipleDispatchExtended.TypeNormalizer;
+
+/**
+ * Generates random class and interface hierarchies, with random overload sets,
+ * and loads them at runtime.
+ *
+ * A hierarchy is made of interfaces and argument classes, which implement and
+ * extend each other at random, and of receiver classes, which extend each other
+ * and declare instance methods named INSTANCE_METHOD and static methods named
+ * STATIC_METHOD. Parameters are drawn from the generated types, Object, a few
+ * JDK types, primitives and their boxes, and the last one may be varargs.
+ * Every method returns a string naming itself.
+ *
+ * There being no bytecode library around, hierarchies are generated as Java
+ * source and compiled in memory with the system Java compiler, so generation
+ * needs a JDK (see isAvailable). The same seed always yields the same hierarchy
+ * and the same calls.
+ *
+ * Used by the differential dispatch tests and by the benchmark workloads.
+ */
+public class HierarchyGenerator {
+    public static final String INSTANCE_METHOD = "m";
+    public static final String STATIC_METHOD = "s";
+
+    private static final String PACKAGE = "ist.meic.pava.generated";
+    private static final String[] JDK_TYPES = {
+        "Object", "Number", "Comparable", "CharSequence", "String", "Integer", "Long", "Double", "Boolean",
+        "int", "long", "double", "boolean",
+    };
+
+    private final long seed;
+    private int interfaceCount = 4;
+    private int classCount = 8;
+    private int receiverCount = 3;
+    private int overloadCount = 10;
+    private int maxArity = 4;
+
+    /**
+     * @param seed random seed
+     */
+    public HierarchyGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param interfaceCount number of generated interfaces
+     * @param classCount number of generated argument classes
+     * @return this generator
+     */
+    public HierarchyGenerator types(int interfaceCount, int classCount) {
+        this.interfaceCount = interfaceCount;
+        this.classCount = classCount;
+        return this;
+    }
+
+    /**
+     * @param receiverCount number of generated receiver classes
+     * @param overloadCount number of methods declared by each receiver class (of each kind)
+     * @param maxArity maximum number of formal parameters of the methods
+     * @return this generator
+     */
+    public HierarchyGenerator methods(int receiverCount, int overloadCount, int maxArity) {
+        this.receiverCount = receiverCount;
+        this.overloadCount = overloadCount;
+        this.maxArity = maxArity;
+        return this;
+    }
+
+    /**
+     * @return true if the running JVM comes with a Java compiler
+     */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Generates, compiles and loads a hierarchy.
+     *
+     * @return the loaded hierarchy
+     * @throws IllegalStateException if there is no Java compiler, or the generated source does not compile
+     */
+    public Hierarchy generate() {
+        Random random = new Random(seed);
+        String outerName = "Hierarchy" + Long.toHexString(seed);
+        List<String> typeNames = new ArrayList<>(Arrays.asList(JDK_TYPES));
+        StringBuilder source = new StringBuilder()
+            .append("package ").append(PACKAGE).append(";\n\n")
+            .append("public class ").append(outerName).append(" {\n");
+
+        for (int i = 0; i < interfaceCount; i++) {
+            source.append("    public interface I").append(i)
+                .append(supertypes(random, " extends ", "I", i))
+                .append(" { }\n");
+            typeNames.add("I" + i);
+        }
+
+        for (int i = 0; i < classCount; i++) {
+            source.append("    public static class T").append(i);
+            if (i > 0 && random.nextBoolean()) {
+                source.append(" extends T").append(random.nextInt(i));
+            }
+            source.append(supertypes(random, " implements ", "I", interfaceCount)).append(" { }\n");
+            typeNames.add("T" + i);
+        }
+
+        for (int i = 0; i < receiverCount; i++) {
+            source.append("    public static class R").append(i);
+            if (i > 0 && random.nextBoolean()) {
+                source.append(" extends R").append(random.nextInt(i));
+            }
+            source.append(" {\n");
+            appendMethods(source, random, "R" + i, typeNames, false);
+            appendMethods(source, random, "R" + i, typeNames, true);
+            source.append("    }\n");
+        }
+
+        source.append("}\n");
+
+        ClassLoader loader = compile(PACKAGE + "." + outerName, source.toString());
+        try {
+            List<Class<?>> argumentClasses = new ArrayList<>();
+            for (int i = 0; i < classCount; i++) {
+                argumentClasses.add(loader.loadClass(PACKAGE + "." + outerName + "$T" + i));
+            }
+
+            List<Class<?>> receiverClasses = new ArrayList<>();
+            for (int i = 0; i < receiverCount; i++) {
+                receiverClasses.add(loader.loadClass(PACKAGE + "." + outerName + "$R" + i));
+            }
+
+            return new Hierarchy(seed, source.toString(), argumentClasses, receiverClasses);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void appendMethods(StringBuilder source, Random random, String receiverName, List<String> typeNames, boolean isStatic) {
+        Set<String> signatures = new HashSet<>();
+
+        for (int j = 0; j < overloadCount; j++) {
+            int arity = random.nextInt(maxArity + 1);
+            boolean varargs = arity > 0 && random.nextInt(4) == 0;
+
+            List<String> params = new ArrayList<>();
+            for (int k = 0; k < arity; k++) {
+                params.add(typeNames.get(random.nextInt(typeNames.size())));
+            }
+
+            // overloads must differ in their erased signature
+            String signature = params + (varargs ? "..." : "");
+            if (!signatures.add(params.toString())) {
+                continue;
+            }
+
+            String name = isStatic ? STATIC_METHOD : INSTANCE_METHOD;
+            StringJoiner formals = new StringJoiner(", ");
+            for (int k = 0; k < arity; k++) {
+                boolean last = varargs && k == arity - 1;
+                formals.add(params.get(k) + (last ? "... a" : " a") + k);
+            }
+
+            source.append("        public ").append(isStatic ? "static " : "").append("String ").append(name)
+                .append("(").append(formals).append(") { return \"")
+                .append(receiverName).append(".").append(name).append(signature)
+                .append("\"; }\n");
+        }
+    }
+
+    private static String supertypes(Random random, String keyword, String prefix, int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(3) == 0) {
+                names.add(prefix + i);
+            }
+        }
+
+        return names.isEmpty() ? "" : keyword + String.join(", ", names);
+    }
+
+    private static ClassLoader compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("generating hierarchies requires a JDK");
+        }
+
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+        StandardJavaFileManager standardManager = compiler.getStandardFileManager(null, null, null);
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standardManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        classFiles.put(name, out);
+                        return out;
+                    }
+                };
+            }
+        };
+
+        JavaFileObject unit = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        StringWriter diagnostics = new StringWriter();
+        boolean compiled = compiler.getTask(diagnostics, fileManager, null, Collections.singletonList("-nowarn"), null,
+            Collections.singletonList(unit)).call();
+        if (!compiled) {
+            throw new IllegalStateException("generated hierarchy does not compile:\n" + diagnostics + "\n" + source);
+        }
+
+        return new ClassLoader(HierarchyGenerator.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream classFile = classFiles.get(name);
+                if (classFile == null) {
+                    throw new ClassNotFoundException(name);
+                }
+
+                byte[] bytes = classFile.toByteArray();
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+    }
+
+    /**
+     * A generated hierarchy, along with a pool of arguments to call its methods with.
+     */
+    public static class Hierarchy {
+        private final long seed;
+        private final String source;
+        private final List<Class<?>> argumentClasses;
+        private final List<Class<?>> receiverClasses;
+        private final List<Object> receivers = new ArrayList<>();
+        private final List<Object> argumentPool = new ArrayList<>();
+
+        private Hierarchy(long seed, String source, List<Class<?>> argumentClasses, List<Class<?>> receiverClasses) {
+            this.seed = seed;
+            this.source = source;
+            this.argumentClasses = argumentClasses;
+            this.receiverClasses = receiverClasses;
+
+            for (Class<?> receiverClass : receiverClasses) {
+                receivers.add(newInstance(receiverClass));
+            }
+
+            argumentPool.addAll(Arrays.asList(new Object(), "text", 1, 2L, 3.0, true, 'c'));
+            for (Class<?> argumentClass : argumentClasses) {
+                Object argument = newInstance(argumentClass);
+                argumentPool.add(argument);
+
+                // arrays, to be passed as varargs arrays
+                Object array = Array.newInstance(argumentClass, 1);
+                Array.set(array, 0, argument);
+                argumentPool.add(array);
+            }
+            argumentPool.add(new Object[] { "text" });
+            argumentPool.add(new int[] { 1 });
+        }
+
+        /**
+         * @return the seed the hierarchy was generated with
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return the generated source, for reporting failures
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public List<Class<?>> getArgumentClasses() {
+            return argumentClasses;
+        }
+
+        public List<Class<?>> getReceiverClasses() {
+            return receiverClasses;
+        }
+
+        /**
+         * @return one instance of each receiver class
+         */
+        public List<Object> getReceivers() {
+            return receivers;
+        }
+
+        /**
+         * @return the objects calls draw their arguments from
+         */
+        public List<Object> getArgumentPool() {
+            return argumentPool;
+        }
+
+        /**
+         * Draws random calls of the methods named name. Most calls are aimed at
+         * some method of the receiver: each argument is picked among those its
+         * parameter accepts (after boxing), when there are any. The rest have
+         * random arguments, and usually no applicable method.
+         *
+         * @param random source of randomness
+         * @param count number of calls
+         * @param name INSTANCE_METHOD or STATIC_METHOD
+         * @return calls, each made of a receiver (an instance, or a class for
+         *         static methods) followed by the arguments
+         */
+        public Object[][] randomCalls(Random random, int count, String name) {
+            boolean isStatic = STATIC_METHOD.equals(name);
+            Object[][] calls = new Object[count][];
+
+            for (int i = 0; i < count; i++) {
+                Object receiver = receivers.get(random.nextInt(receivers.size()));
+                List<Method> methods = Arrays.stream(receiver.getClass().getMethods())
+                    .filter(m -> m.getName().equals(name) && Modifier.isStatic(m.getModifiers()) == isStatic)
+                    .collect(Collectors.toList());
+
+                Object[] args;
+                if (methods.isEmpty() || random.nextInt(5) == 0) {
+                    args = new Object[random.nextInt(5)];
+                    for (int k = 0; k < args.length; k++) {
+                        args[k] = argumentPool.get(random.nextInt(argumentPool.size()));
+                    }
+                } else {
+                    args = argumentsFor(random, methods.get(random.nextInt(methods.size())));
+                }
+
+                calls[i] = new Object[args.length + 1];
+                calls[i][0] = isStatic ? receiver.getClass() : receiver;
+                System.arraycopy(args, 0, calls[i], 1, args.length);
+            }
+
+            return calls;
+        }
+
+        /**
+         * @param method a generated method
+         * @return the string returned by the method
+         */
+        public static String describe(Method method) {
+            Class<?>[] paramTypes = method.getParameterTypes();
+            StringJoiner params = new StringJoiner(", ", "[", "]");
+            for (int k = 0; k < paramTypes.length; k++) {
+                boolean last = method.isVarArgs() && k == paramTypes.length - 1;
+                params.add((last ? paramTypes[k].getComponentType() : paramTypes[k]).getSimpleName());
+            }
+
+            return method.getDeclaringClass().getSimpleName() + "." + method.getName() + params
+                + (method.isVarArgs() ? "..." : "");
+        }
+
+        private Object[] argumentsFor(Random random, Method method) {
+            Class<?>[] paramTypes = method.getParameterTypes();
+            int normalCount = method.isVarArgs() ? paramTypes.length - 1 : paramTypes.length;
+            int varargsCount = method.isVarArgs() ? random.nextInt(3) : 0;
+
+            Object[] args = new Object[normalCount + varargsCount];
+            for (int k = 0; k < args.length; k++) {
+                Class<?> paramType = k < normalCount ? paramTypes[k] : paramTypes[normalCount].getComponentType();
+                args[k] = argumentFor(random, paramType);
+            }
+
+            return args;
+        }
+
+        private Object argumentFor(Random random, Class<?> paramType) {
+            Class<?> boxedType = TypeNormalizer.boxed(paramType);
+            List<Object> accepted = argumentPool.stream()
+                .filter(arg -> boxedType.isInstance(arg))
+                .collect(Collectors.toList());
+            List<Object> pool = accepted.isEmpty() || random.nextInt(8) == 0 ? argumentPool : accepted;
+
+            return pool.get(random.nextInt(pool.size()));
+        }
+
+        private static Object newInstance(Class<?> type) {
+            try {
+                return type.getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest.*;
+
+public class MultiMethodTest {
+    @Test
+    public void mostSpecificImplementation() {
+        MultiMethod<String> draw = new MultiMethod<String>()
+            .register(Shape.class, Brush.class, (s, b) -> "shape with brush")
+            .register(Line.class, Brush.class, (l, b) -> "line with brush")
+            .register(Line.class, Pencil.class, (l, p) -> "line with pencil");
+
+        assertEquals("shape with brush", draw.invoke(new Circle(), new Crayon()));
+        assertEquals("line with brush", draw.invoke(new Line(), new Crayon()));
+        assertEquals("line with pencil", draw.invoke(new Line(), new Pencil()));
+        assertEquals("shape with brush", draw.invoke(new Shape(), new Pencil()));
+    }
+
+    @Test
+    public void registrationUpdatesTable() {
+        MultiMethod<String> draw = new MultiMethod<String>()
+            .register(Shape.class, Brush.class, (s, b) -> "shape with brush");
+
+        assertEquals("shape with brush", draw.invoke(new Circle(), new Crayon()));
+        assertEquals("shape with brush", draw.invoke(new Line(), new Crayon()));
+
+        draw.register(Circle.class, Brush.class, (c, b) -> "circle with brush");
+        assertEquals("circle with brush", draw.invoke(new Circle(), new Crayon()));
+        assertEquals("shape with brush", draw.invoke(new Line(), new Crayon()));
+
+        draw.register(Circle.class, Brush.class, (c, b) -> "circle with any brush");
+        assertEquals("circle with any brush", draw.invoke(new Circle(), new Crayon()));
+        assertEquals(2, draw.tableSize());
+    }
+
+    @Test
+    public void differentArities() {
+        MultiMethod<Integer> count = new MultiMethod<Integer>()
+            .register(Shape.class, s -> 1)
+            .register(Shape.class, Shape.class, (a, b) -> 2)
+            .register(Shape.class, Shape.class, Shape.class, (a, b, c) -> 3);
+
+        assertEquals(1, count.invoke(new Line()));
+        assertEquals(2, count.invoke(new Line(), new Circle()));
+        assertEquals(3, count.invoke(new Line(), new Circle(), new Shape()));
+    }
+
+    @Test
+    public void noApplicableImplementation() {
+        MultiMethod<String> draw = new MultiMethod<String>()
+            .register(Line.class, Brush.class, (l, b) -> "line with brush");
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> draw.invoke(new Circle(), new Pencil()));
+        assertEquals(NoSuchMethodException.class, e.getCause().getClass());
+    }
+}
@@ -0,0 +1,73 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+
+public class PackedTypeTableTest {
+    private static final Object[] VALUES = { "a", 1, 2L, 3.0, 4.0f, 'c', (short) 5, (byte) 6, true, new Object(), new StringBuilder() };
+
+    @Test
+    public void tuplesOfDifferentLengths() throws NoSuchMethodException {
+        PackedTypeTable table = new PackedTypeTable();
+        Method m1 = Object.class.getMethod("toString");
+        Method m2 = Object.class.getMethod("hashCode");
+
+        table.put(null, new Object[] { "a" }, m1);
+        table.put(null, new Object[] { "a", "b" }, m2);
+
+        assertSame(m1, table.get(null, new Object[] { "x" }));
+        assertSame(m2, table.get(null, new Object[] { "x", "y" }));
+        assertNull(table.get(null, new Object[] {}));
+        assertNull(table.get(null, new Object[] { "x", "y", "z" }));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void receiverIsPartOfTheTuple() throws NoSuchMethodException {
+        PackedTypeTable table = new PackedTypeTable();
+        Method method = Object.class.getMethod("toString");
+
+        table.put(String.class, new Object[] { 1 }, method);
+
+        assertSame(method, table.get(String.class, new Object[] { 2 }));
+        assertNull(table.get(Integer.class, new Object[] { 2 }));
+    }
+
+    @Test
+    public void growsAndReplaces() throws NoSuchMethodException {
+        PackedTypeTable table = new PackedTypeTable();
+        Method m1 = Object.class.getMethod("toString");
+        Method m2 = Object.class.getMethod("hashCode");
+
+        for (Object a : VALUES) {
+            for (Object b : VALUES) {
+                table.put(null, new Object[] { a, b, a }, m1);
+            }
+        }
+        table.put(null, new Object[] { "a", 1, "a" }, m2);
+
+        assertEquals(VALUES.length * VALUES.length, table.size());
+        for (Object a : VALUES) {
+            for (Object b : VALUES) {
+                Method expected = a instanceof String && b instanceof Integer ? m2 : m1;
+                assertSame(expected, table.get(null, new Object[] { a, b, a }));
+                assertNull(table.get(null, new Object[] { a, b, new int[0] }));
+            }
+        }
+    }
+
+    @Test
+    public void fits() {
+        assertTrue(PackedTypeTable.fits(null, new Object[4]));
+        assertFalse(PackedTypeTable.fits(null, new Object[5]));
+        assertTrue(PackedTypeTable.fits(Object.class, new Object[3]));
+        assertFalse(PackedTypeTable.fits(Object.class, new Object[4]));
+    }
+}
@@ -0,0 +1,109 @@
+package ist.meic.pava.MultipleDispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+    private static final int WAITERS = 8;
+
+    @Test
+    public void resolvesOnce() throws Exception {
+        Method expected = Object.class.getMethod("toString");
+        Queue<Object> outcomes = race(() -> expected);
+
+        assertEquals(WAITERS + 1, outcomes.size());
+        for (Object outcome : outcomes) {
+            assertSame(expected, outcome);
+        }
+    }
+
+    @Test
+    public void publishesFailures() throws Exception {
+        NoSuchMethodException failure = new NoSuchMethodException("nothing applicable");
+        Queue<Object> outcomes = race(() -> {
+            throw failure;
+        });
+
+        assertEquals(WAITERS + 1, outcomes.size());
+        for (Object outcome : outcomes) {
+            assertSame(failure, outcome);
+        }
+    }
+
+    /**
+     * Runs one resolution, blocked until WAITERS other threads are waiting for the same key.
+     *
+     * @return the outcome (method or exception) seen by every thread
+     */
+    private static Queue<Object> race(Resolution resolution) throws Exception {
+        SingleFlight<String> flights = new SingleFlight<>();
+        AtomicInteger resolutions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Queue<Object> outcomes = new ConcurrentLinkedQueue<>();
+
+        Runnable call = () -> {
+            try {
+                outcomes.add(flights.resolve("key", new Object[0], args -> {
+                    resolutions.incrementAndGet();
+                    started.countDown();
+                    awaitQuietly(release);
+                    return resolution.get();
+                }));
+            } catch (NoSuchMethodException e) {
+                outcomes.add(e);
+            }
+        };
+
+        Thread leader = new Thread(call);
+        leader.start();
+        started.await();
+
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            Thread waiter = new Thread(call);
+            waiters.add(waiter);
+            waiter.start();
+        }
+
+        // every waiter parks on the pending resolution
+        for (Thread waiter : waiters) {
+            while (waiter.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+
+        release.countDown();
+        leader.join();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+
+        assertEquals(1, resolutions.get());
+        assertEquals(0, flights.pendingCount());
+        return outcomes;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Resolution {
+        Method get() throws NoSuchMethodException;
+    }
+}
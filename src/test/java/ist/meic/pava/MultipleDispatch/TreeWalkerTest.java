@@ -0,0 +1,162 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TreeWalkerTest {
+    public static class Node {
+        final List<Node> children;
+
+        Node(Node... children) {
+            this.children = Arrays.asList(children);
+        }
+
+        List<Node> getChildren() {
+            return children;
+        }
+    }
+
+    public static class Num extends Node {
+        final int value;
+
+        Num(int value) {
+            this.value = value;
+        }
+    }
+
+    public static class Add extends Node {
+        Add(Node lhs, Node rhs) {
+            super(lhs, rhs);
+        }
+    }
+
+    public static class Neg extends Node {
+        Neg(Node operand) {
+            super(operand);
+        }
+    }
+
+    public static class Comment extends Node {
+        Comment(Node... children) {
+            super(children);
+        }
+    }
+
+    public static class Printer {
+        final List<String> out = new ArrayList<>();
+
+        public void visit(Node n) {
+            out.add("node");
+        }
+
+        public void visit(Num n) {
+            out.add(Integer.toString(n.value));
+        }
+
+        public void visit(Add a) {
+            out.add("+");
+        }
+
+        public boolean visit(Comment c) {
+            return false;
+        }
+    }
+
+    public static class NumberSummer {
+        final AtomicLong sum = new AtomicLong();
+
+        public void visit(Num n) {
+            sum.addAndGet(n.value);
+        }
+    }
+
+    public static class Failing {
+        public void visit(Neg n) {
+            throw new ArithmeticException("negation");
+        }
+    }
+
+    private final TreeWalker<Node> walker = new TreeWalker<>(Node::getChildren);
+
+    @Test
+    public void preOrder() {
+        Node tree = new Add(new Num(1), new Add(new Neg(new Num(2)), new Comment(new Num(3))));
+        Printer printer = new Printer();
+
+        walker.walk(printer, tree);
+        walker.walk(printer, tree);
+
+        List<String> once = Arrays.asList("+", "1", "+", "node", "2");
+        List<String> twice = new ArrayList<>(once);
+        twice.addAll(once);
+        assertEquals(twice, printer.out);
+    }
+
+    @Test
+    public void nodesWithoutVisitAreTraversed() {
+        NumberSummer summer = new NumberSummer();
+
+        walker.walk(summer, new Neg(new Add(new Num(1), new Neg(new Num(2)))));
+
+        assertEquals(3, summer.sum.get());
+    }
+
+    @Test
+    public void deepTrees() {
+        Node tree = new Num(1);
+        for (int i = 0; i < 200_000; i++) {
+            tree = new Neg(tree);
+        }
+        NumberSummer summer = new NumberSummer();
+
+        walker.walk(summer, tree);
+
+        assertEquals(1, summer.sum.get());
+    }
+
+    @Test
+    public void parallelWalk() {
+        Node tree = balanced(12);
+        NumberSummer sequential = new NumberSummer();
+        NumberSummer parallel = new NumberSummer();
+
+        walker.walk(sequential, tree);
+        walker.walkParallel(parallel, tree, ForkJoinPool.commonPool(), 6);
+
+        assertEquals(1 << 12, sequential.sum.get());
+        assertEquals(sequential.sum.get(), parallel.sum.get());
+    }
+
+    @Test
+    public void exceptionsArePropagated() {
+        Node tree = new Add(new Num(1), new Neg(new Num(2)));
+
+        assertThrows(ArithmeticException.class, () -> walker.walk(new Failing(), tree));
+        assertThrows(ArithmeticException.class, () -> walker.walkParallel(new Failing(), tree, ForkJoinPool.commonPool(), 2));
+    }
+
+    @Test
+    public void leavesWithoutChildren() {
+        TreeWalker<Node> nullChildren = new TreeWalker<>(n -> n instanceof Num ? null : n.getChildren());
+        NumberSummer summer = new NumberSummer();
+
+        nullChildren.walk(summer, new Add(new Num(4), new Num(5)));
+        walker.walk(summer, new Comment());
+
+        assertEquals(9, summer.sum.get());
+        assertEquals(Collections.emptyList(), new Comment().getChildren());
+    }
+
+    private static Node balanced(int depth) {
+        return depth == 0 ? new Num(1) : new Add(balanced(depth - 1), balanced(depth - 1));
+    }
+}
@@ -0,0 +1,26 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Optional;
+
+public class TryInvokeTest {
+    @Test
+    public void probeApplicability() {
+        TwoArgumentsTest.Device printer = new TwoArgumentsTest.Printer();
+
+        for (int i = 0; i < 2; i++) {
+            // the second round is answered from the (negative) cache
+            assertEquals(Optional.of("drawing a circle on printer with pencil!"),
+                UsingMultipleDispatch.tryInvoke(printer, "draw", new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Pencil()));
+            assertEquals(Optional.empty(),
+                UsingMultipleDispatch.tryInvoke(printer, "draw", new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Line()));
+            assertNotNull(UsingMultipleDispatch.findMethod(printer, "draw", new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Pencil()));
+            assertNull(UsingMultipleDispatch.findMethod(printer, "paint", new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Pencil()));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ist.meic.pava.MultipleDispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.function.Supplier;
+
+public class TypeProjectionTest {
+    public interface Drawable { }
+    public interface Printable { }
+
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape implements Drawable, Printable { }
+
+    public static class Device {
+        public String draw(Shape s, Object o) {
+            return "shape";
+        }
+
+        public String draw(Line l, Object o) {
+            return "line";
+        }
+
+        public String draw(Drawable d, Object o) {
+            return "drawable";
+        }
+
+        public String draw(Printable p, Object o) {
+            return "printable";
+        }
+
+        public String draw(Shape s, Object o, Object p) {
+            return "shape, 3";
+        }
+    }
+
+    @Test
+    public void projectOntoParameterTypes() {
+        TypeProjection projection = new SimpleCandidateMethodFinder().projectionFor(Device.class, "draw", 2);
+
+        assertSame(Line.class, projection.project(0, Line.class));
+        assertSame(Line.class, projection.project(0, new Line() { }.getClass()));
+        assertSame(Shape.class, projection.project(0, new Shape() { }.getClass()));
+        assertSame(Object.class, projection.project(1, String.class));
+        assertSame(Drawable.class, projection.project(0, new Drawable() { }.getClass()));
+        // accepted by Shape, Drawable and Printable, none of which is the most specific
+        assertSame(Circle.class, projection.project(0, Circle.class));
+        // accepted by nothing
+        assertEquals(projection.project(0, String.class), projection.project(0, Integer.class));
+        assertNotEquals(String.class, projection.project(0, String.class));
+    }
+
+    @Test
+    public void tableEntriesAreBoundedByOverloads() throws NoSuchMethodException {
+        TypeProjection projection = new SimpleCandidateMethodFinder().projectionFor(Device.class, "draw", 2);
+        MethodSelector selector = new MethodSelector(new SimpleMethodSpecificityComparator());
+        BinaryDispatchTable table = new BinaryDispatchTable(args -> selector.selectMethod(Device.class, "draw", args), projection);
+
+        Supplier<?>[] arguments = {
+            () -> new Line() { }, () -> new Line() { }, () -> new Shape() { }, () -> new Shape() { }
+        };
+        for (Supplier<?> argument : arguments) {
+            // each lambda has a class of its own
+            Supplier<Object> other = () -> argument;
+            Object shape = argument.get();
+            Class<?> expectedType = shape instanceof Line ? Line.class : Shape.class;
+
+            assertEquals(Device.class.getMethod("draw", expectedType, Object.class), table.resolve(new Object[] { shape, other }));
+        }
+
+        assertEquals(2, table.rowCount());
+        assertEquals(1, table.columnCount());
+    }
+
+    @Test
+    public void dispatchWithProjections() {
+        Device device = new Device();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("line", UsingMultipleDispatch.invoke(device, "draw", new Line() { }, "a"));
+            assertEquals("shape", UsingMultipleDispatch.invoke(device, "draw", new Shape() { }, 1));
+            assertEquals("drawable", UsingMultipleDispatch.invoke(device, "draw", new Drawable() { }, 1));
+            assertEquals("printable", UsingMultipleDispatch.invoke(device, "draw", new Printable() { }, 1));
+            assertEquals("shape, 3", UsingMultipleDispatch.invoke(device, "draw", new Line() { }, 1, 2));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import ist.meic.pava.MultipleDispatch.OneArgumentTest;
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest;
+
+/**
+ * Bytes allocated per warmed-up call (cache hit) on the dispatch hot path, for
+ * the scenarios of OneArgumentTest, TwoArgumentsTest, VariadicArgumentTest,
+ * BoxingUnboxingTest and StaticMethodTest.
+ *
+ * Argument arrays are built once, outside of the measured calls, and the
+ * called methods return constants, so anything allocated comes from dispatch.
+ * Only variadic calls have a non-zero budget, for the arrays they are passed.
+ */
+public class AllocationBudgetTest {
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 50_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    public static void checkSupport() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+    }
+
+    @Test
+    public void oneArgument() {
+        OneArgumentTest.Device screen = new OneArgumentTest.Screen();
+        Object[] args = { new OneArgumentTest.Line() };
+
+        assertWithinBudget("simple invoke", 0, () -> ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.invoke(screen, "draw", args));
+        assertWithinBudget("extended invoke", 0, () -> UsingMultipleDispatch.invoke(screen, "draw", args));
+    }
+
+    @Test
+    public void twoArguments() {
+        TwoArgumentsTest.Device printer = new TwoArgumentsTest.Printer();
+        Object[] args = { new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Pencil() };
+
+        assertWithinBudget("simple invoke", 0, () -> ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.invoke(printer, "draw", args));
+        assertWithinBudget("extended invoke", 0, () -> UsingMultipleDispatch.invoke(printer, "draw", args));
+    }
+
+    @Test
+    public void variadicArguments() {
+        VariadicArgumentTest.Drawer drawer = new VariadicArgumentTest.Drawer();
+        Object[] fixed = { new VariadicArgumentTest.Printer(), new VariadicArgumentTest.Line(), new VariadicArgumentTest.Circle(), new VariadicArgumentTest.Line() };
+        VariadicArgumentTest.VarargsPassArray counter = new VariadicArgumentTest.VarargsPassArray();
+        Object[] variadic = { "asd", "asd" };
+
+        assertWithinBudget("fixed arity", 0, () -> UsingMultipleDispatch.invoke(drawer, "draw", fixed));
+        // the varargs array, the new argument array and a copy of the parameter types
+        assertWithinBudget("variable arity", 96, () -> UsingMultipleDispatch.invoke(counter, "countArgs", variadic));
+    }
+
+    @Test
+    public void boxingUnboxing() {
+        BoxingUnboxingTest.Functions functions = new BoxingUnboxingTest.Functions();
+        Object[] boxed = { 1 };
+        Object[] variadic = { 1, 2, 3 };
+
+        assertWithinBudget("unboxed parameter", 0, () -> UsingMultipleDispatch.invoke(functions, "f", boxed));
+        // the int[] varargs array, the new argument array and a copy of the parameter types
+        assertWithinBudget("unboxed varargs", 96, () -> UsingMultipleDispatch.invoke(functions, "g", variadic));
+    }
+
+    @Test
+    public void staticMethods() {
+        Object[] args = { "2" };
+
+        assertWithinBudget("invokeStatic", 0, () -> UsingMultipleDispatch.invokeStatic(StaticMethodTest.Functions.class, "f", args));
+    }
+
+    private static void assertWithinBudget(String scenario, long bytesPerCall, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        long allocated = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+
+        assertTrue(allocated <= bytesPerCall,
+            scenario + " allocated " + allocated + " bytes per call, over the budget of " + bytesPerCall);
+    }
+}
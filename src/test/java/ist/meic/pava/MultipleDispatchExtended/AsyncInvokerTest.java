@@ -0,0 +1,132 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest;
+
+public class AsyncInvokerTest {
+    public static class Handler {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        public String handle(String request) throws InterruptedException {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return "string " + request;
+        }
+
+        public String handle(Integer request) {
+            return "integer " + request;
+        }
+
+        public String handle(Double request) {
+            throw new IllegalStateException("no doubles");
+        }
+
+        public String block(Object request) {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "woke up";
+        }
+    }
+
+    @Test
+    public void invokeAsync() throws Exception {
+        TwoArgumentsTest.Device printer = new TwoArgumentsTest.Printer();
+
+        CompletableFuture<Object> future = UsingMultipleDispatch.invokeAsync(printer, "draw", new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Crayon());
+        assertEquals("drawing a circle on printer with crayon!", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void invokeAllAsync() throws Exception {
+        Handler handler = new Handler();
+        List<Object[]> requests = Arrays.asList(new Object[] { "a" }, new Object[] { 1 }, new Object[] { "b" });
+
+        assertEquals(Arrays.asList("string a", "integer 1", "string b"),
+            UsingMultipleDispatch.invokeAllAsync(handler, "handle", requests).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failures() {
+        Handler handler = new Handler();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> UsingMultipleDispatch.invokeAsync(handler, "handle", 1.0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        CompletableFuture<Object> missing = UsingMultipleDispatch.invokeAsync(handler, "handle", 'c');
+        assertTrue(missing.isCompletedExceptionally());
+        e = assertThrows(ExecutionException.class, missing::get);
+        assertInstanceOf(NoSuchMethodException.class, e.getCause().getCause());
+    }
+
+    @Test
+    public void boundedConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AsyncInvoker invoker = new AsyncInvoker(executor, 2);
+            Handler handler = new Handler();
+            Object[][] requests = new Object[10][];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new Object[] { "r" + i };
+            }
+
+            List<Object> results = invoker.invokeAllAsync(handler, "handle", Arrays.asList(requests)).get(5, TimeUnit.SECONDS);
+            assertEquals(10, results.size());
+            assertEquals("string r9", results.get(9));
+            assertTrue(handler.maxRunning.get() <= 2);
+            assertEquals(0, invoker.pendingCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void cancellation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncInvoker invoker = new AsyncInvoker(executor, 1);
+            Handler handler = new Handler();
+
+            CompletableFuture<Object> running = invoker.invokeAsync(handler, "block", 1);
+            CompletableFuture<Object> queued = invoker.invokeAsync(handler, "handle", 2);
+            assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+            assertEquals(1, invoker.pendingCount());
+
+            queued.cancel(true);
+            // cancelled calls do not wait for a slot to leave the queue
+            assertEquals(0, invoker.pendingCount());
+            running.cancel(true);
+            assertTrue(handler.interrupted.await(5, TimeUnit.SECONDS));
+
+            // the queued call was skipped, and the executor is free again
+            assertEquals("integer 3", invoker.invokeAsync(handler, "handle", 3).get(5, TimeUnit.SECONDS));
+            assertTrue(queued.isCancelled());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
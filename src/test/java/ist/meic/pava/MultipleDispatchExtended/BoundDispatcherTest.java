@@ -0,0 +1,70 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import ist.meic.pava.MultipleDispatch.TwoArgumentsTest;
+
+public class BoundDispatcherTest {
+    @Test
+    public void bindReceiver() {
+        TwoArgumentsTest.Device printer = new TwoArgumentsTest.Printer();
+        BoundDispatcher<String> draw = MultipleDispatch.bind(printer, "draw");
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("drawing a circle on printer with pencil!", draw.invoke(new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Pencil()));
+            assertEquals("drawing a circle on printer with crayon!", draw.invoke(new TwoArgumentsTest.Circle(), new TwoArgumentsTest.Crayon()));
+            assertEquals("drawing a line on printer with what?", draw.invoke(new TwoArgumentsTest.Line(), new TwoArgumentsTest.Pencil()));
+        }
+
+        assertSame(printer, draw.getReceiver());
+        assertEquals("draw", draw.getName());
+    }
+
+    @Test
+    public void bindVariadic() {
+        BoundDispatcher<String> draw = MultipleDispatch.bind(new VariadicArgumentTest.Drawer(), "draw");
+        VariadicArgumentTest.Screen screen = new VariadicArgumentTest.Screen();
+        VariadicArgumentTest.Line line = new VariadicArgumentTest.Line();
+
+        assertEquals("screen with 0 lines", draw.invoke(screen));
+        assertEquals("screen with 2 lines", draw.invoke(screen, line, line));
+        assertEquals("screen with 3 lines", draw.invoke(screen, line, line, line));
+        assertEquals("screen with line and 1 shapes", draw.invoke(screen, line, new VariadicArgumentTest.Circle()));
+    }
+
+    @Test
+    public void bindBoxing() {
+        BoundDispatcher<String> f = MultipleDispatch.bind(new BoxingUnboxingTest.Functions(), "f");
+
+        assertEquals("int", f.invoke(1));
+        assertEquals("varargs boxed", f.invoke(1, 2, 3));
+    }
+
+    @Test
+    public void bindStatic() {
+        BoundDispatcher<Integer> f = MultipleDispatch.bindStatic(StaticMethodTest.Functions.class, "f");
+
+        assertEquals(1, f.invoke(1));
+        assertEquals(2, f.invoke("2"));
+        assertNull(f.getReceiver());
+    }
+
+    @Test
+    public void failures() {
+        BoundDispatcher<String> check = MultipleDispatch.bind(new ExceptionPropagationTest.Validator(), "check");
+
+        assertThrows(IOException.class, () -> check.invoke(2.0));
+        assertThrows(ExceptionPropagationTest.Failure.class, () -> check.invoke("text"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> MultipleDispatch.bind(new Object(), "check").invoke(1));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+}
@@ -0,0 +1,173 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+public class ClosedWorldDispatchTableTest {
+    public static abstract class Shape { }
+    public static final class Line extends Shape { }
+    public static final class Circle extends Shape { }
+    public static final class Square extends Shape { }
+
+    public interface Red { }
+    public interface Round { }
+    public static final class Ball implements Red, Round { }
+    public static final class Apple implements Red { }
+
+    public static class Device {
+        public String draw(Shape s) {
+            return "device shape";
+        }
+
+        public String draw(Line l) {
+            return "device line";
+        }
+
+        public String draw(Shape s, Shape t) {
+            return "two shapes";
+        }
+
+        public String draw(Line l, Shape s) {
+            return "line and shape";
+        }
+
+        public String draw(Shape s, Line l) {
+            return "shape and line";
+        }
+
+        public String width(Line l, int width) {
+            return "width " + width;
+        }
+
+        public String paint(Red r) {
+            return "red";
+        }
+
+        public String paint(Round r) {
+            return "round";
+        }
+
+        public String fail(Circle c) {
+            throw new IllegalStateException("circle");
+        }
+
+        public static String describe(Shape s) {
+            return "static shape";
+        }
+
+        public static String describe(Circle c) {
+            return "static circle";
+        }
+    }
+
+    public static class Screen extends Device {
+        @Override
+        public String draw(Line l) {
+            return "screen line";
+        }
+    }
+
+    private static final List<Class<?>> RECEIVERS = Arrays.asList(Device.class, Screen.class);
+    private static final List<Class<?>> SHAPES = Arrays.asList(Line.class, Circle.class, Square.class);
+
+    @Test
+    public void selectsAsInvoke() {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(RECEIVERS, "draw", SHAPES, 1).requireComplete();
+
+        assertEquals(6, table.size());
+        for (Object receiver : new Object[] { new Device(), new Screen() }) {
+            for (Object shape : new Object[] { new Line(), new Circle(), new Square() }) {
+                assertEquals(UsingMultipleDispatch.invoke(receiver, "draw", shape), table.invoke(receiver, shape));
+            }
+        }
+        assertEquals("screen line", table.invoke(new Screen(), new Line()));
+    }
+
+    @Test
+    public void leftToRight() {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(RECEIVERS, "draw", SHAPES, 2).requireComplete();
+
+        // the extended rules compare parameters from left to right, so these are not ambiguous
+        assertEquals("line and shape", table.invoke(new Device(), new Line(), new Line()));
+        assertEquals("shape and line", table.invoke(new Screen(), new Circle(), new Line()));
+        assertEquals("two shapes", table.invoke(new Device(), new Square(), new Circle()));
+    }
+
+    @Test
+    public void reportsAmbiguousTuples() throws NoSuchMethodException {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(RECEIVERS, "paint",
+            Arrays.asList(Ball.class, Apple.class), 1);
+
+        assertTrue(table.getUncoveredTuples().isEmpty());
+        assertEquals(2, table.getAmbiguousTuples().size());
+        List<Method> methods = table.getAmbiguousTuples().get(Arrays.asList(Device.class, Ball.class));
+        assertEquals(2, methods.size());
+        assertTrue(methods.contains(Device.class.getMethod("paint", Red.class)));
+        assertTrue(methods.contains(Device.class.getMethod("paint", Round.class)));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, table::requireComplete);
+        assertTrue(e.getMessage().contains("ambiguous"));
+
+        // invoke breaks the tie by the names of the interfaces, the table does not
+        assertEquals("round", UsingMultipleDispatch.invoke(new Device(), "paint", new Ball()));
+        assertThrows(NoSuchMethodException.class, () -> table.resolve(Device.class, new Object[] { new Ball() }));
+        assertEquals("red", table.invoke(new Screen(), new Apple()));
+    }
+
+    @Test
+    public void reportsUncoveredTuples() {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(RECEIVERS, "fail", SHAPES, 1);
+
+        assertEquals(4, table.getUncoveredTuples().size());
+        assertTrue(table.getUncoveredTuples().contains(Arrays.asList(Screen.class, Square.class)));
+        IllegalStateException e = assertThrows(IllegalStateException.class, table::requireComplete);
+        assertTrue(e.getMessage().contains("uncovered"));
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> table.invoke(new Device(), new Circle()));
+        assertInstanceOf(InvocationTargetException.class, failure.getCause());
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> table.invoke(new Device(), new Line()));
+        assertInstanceOf(NoSuchMethodException.class, missing.getCause());
+    }
+
+    @Test
+    public void unregisteredClasses() {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(Arrays.asList(Device.class), "draw", SHAPES, 1);
+
+        // subclasses are not registered just because their superclass is
+        assertThrows(NoSuchMethodException.class, () -> table.resolve(Screen.class, new Object[] { new Line() }));
+        assertThrows(NoSuchMethodException.class, () -> table.resolve(Device.class, new Object[] { "text" }));
+        assertThrows(IllegalArgumentException.class, () -> table.resolve(Device.class, new Object[0]));
+        assertThrows(IllegalArgumentException.class,
+            () -> ClosedWorldDispatchTable.forMethods(RECEIVERS, "draw", Arrays.asList(Shape.class), 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> ClosedWorldDispatchTable.forMethods(RECEIVERS, "width", Arrays.asList(Line.class, int.class), 2));
+    }
+
+    @Test
+    public void boxedArguments() {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forMethods(RECEIVERS, "width",
+            Arrays.asList(Line.class, Integer.class), 2);
+
+        assertEquals("width 3", table.invoke(new Screen(), new Line(), 3));
+        assertEquals(6, table.getUncoveredTuples().size());
+    }
+
+    @Test
+    public void staticMethods() throws NoSuchMethodException {
+        ClosedWorldDispatchTable table = ClosedWorldDispatchTable.forStaticMethods(Device.class, "describe", SHAPES, 1)
+            .requireComplete();
+
+        assertEquals("static circle", table.invoke(null, new Circle()));
+        assertEquals("static shape", table.invoke(null, new Square()));
+        assertEquals(Device.class.getMethod("describe", Shape.class), table.resolve(Device.class, new Object[] { new Line() }));
+    }
+}
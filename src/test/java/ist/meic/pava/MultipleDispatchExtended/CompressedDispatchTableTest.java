@@ -0,0 +1,59 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+
+public class CompressedDispatchTableTest {
+    private static final MethodSelector selector = new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+            new UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder());
+
+    private final Object[] devices = {
+        new VariadicArgumentTest.Device(), new VariadicArgumentTest.Screen(), new VariadicArgumentTest.Printer()
+    };
+    private final Object[] shapes = {
+        new VariadicArgumentTest.Shape(), new VariadicArgumentTest.Line(), new VariadicArgumentTest.Circle()
+    };
+
+    @Test
+    public void sameSelectionAsMethodSelector() throws NoSuchMethodException {
+        CompressedDispatchTable table = CompressedDispatchTable.forMethods(VariadicArgumentTest.Drawer.class, "draw", 3);
+
+        for (int round = 0; round < 2; round++) {
+            for (Object a : devices) {
+                for (Object b : shapes) {
+                    for (Object c : shapes) {
+                        Object[] args = { a, b, c };
+                        Method expected = selector.selectMethod(VariadicArgumentTest.Drawer.class, "draw", args);
+                        assertEquals(expected, table.resolve(args));
+                    }
+                }
+            }
+        }
+
+        assertTrue(table.compressedSize() <= table.uncompressedSize());
+    }
+
+    @Test
+    public void noApplicableMethod() throws NoSuchMethodException {
+        CompressedDispatchTable table = CompressedDispatchTable.forMethods(VariadicArgumentTest.Drawer.class, "draw", 3);
+        Object[] args = { new VariadicArgumentTest.Shape(), new VariadicArgumentTest.Line(), new VariadicArgumentTest.Screen() };
+
+        assertThrows(NoSuchMethodException.class, () -> table.resolve(args));
+        assertThrows(NoSuchMethodException.class, () -> table.resolve(args));
+    }
+
+    @Test
+    public void boxingAndStaticMethods() throws NoSuchMethodException {
+        CompressedDispatchTable table = CompressedDispatchTable.forStaticMethods(StaticMethodTest.Functions.class, "f", 1);
+
+        assertEquals(StaticMethodTest.Functions.class.getMethod("f", Integer.class), table.resolve(new Object[] { 5 }));
+        assertEquals(StaticMethodTest.Functions.class.getMethod("f", String.class), table.resolve(new Object[] { "2" }));
+    }
+}
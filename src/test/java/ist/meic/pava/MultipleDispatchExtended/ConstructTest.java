@@ -0,0 +1,70 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConstructTest {
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape { }
+
+    public static class Drawing {
+        public final String description;
+
+        public Drawing(Object o) {
+            description = "object";
+        }
+
+        public Drawing(Shape s) {
+            description = "shape";
+        }
+
+        public Drawing(Line l) {
+            description = "line";
+        }
+
+        public Drawing(int width, int height) {
+            description = "canvas " + width + "x" + height;
+        }
+
+        public Drawing(String title, Shape... shapes) {
+            description = title + " with " + shapes.length + " shapes";
+        }
+
+        public Drawing(Circle c, Circle d) {
+            throw new IllegalArgumentException("two circles");
+        }
+    }
+
+    @Test
+    public void dispatchOnArgumentTypes() {
+        Shape[] shapes = { new Shape(), new Line(), new Circle() };
+        String[] expected = { "shape", "line", "shape" };
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < shapes.length; i++) {
+                assertEquals(expected[i], MultipleDispatch.construct(Drawing.class, shapes[i]).description);
+            }
+            assertEquals("object", MultipleDispatch.construct(Drawing.class, 1).description);
+        }
+    }
+
+    @Test
+    public void boxingAndVarargs() {
+        assertEquals("canvas 2x3", MultipleDispatch.construct(Drawing.class, 2, 3).description);
+        assertEquals("title with 0 shapes", MultipleDispatch.construct(Drawing.class, "title").description);
+        assertEquals("title with 2 shapes", MultipleDispatch.construct(Drawing.class, "title", new Line(), new Circle()).description);
+        assertEquals("title with 1 shapes", MultipleDispatch.construct(Drawing.class, "title", (Object) new Shape[] { new Line() }).description);
+    }
+
+    @Test
+    public void failures() {
+        assertThrows(IllegalArgumentException.class, () -> MultipleDispatch.construct(Drawing.class, new Circle(), new Circle()));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> MultipleDispatch.construct(Drawing.class, 1, 2, 3));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+}
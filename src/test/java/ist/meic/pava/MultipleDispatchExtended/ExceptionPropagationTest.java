@@ -0,0 +1,92 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+public class ExceptionPropagationTest {
+    static class Failure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    static class Validator {
+        public String check(Object o) throws IOException {
+            throw new IOException("object");
+        }
+
+        public String check(String s) {
+            throw new Failure();
+        }
+
+        public int check(Integer i) {
+            return i + 1;
+        }
+
+        public void check(Integer i, Integer j) {
+        }
+
+        public String check(Object... os) {
+            return "variadic " + os.length;
+        }
+
+        public static String parse(String s) throws IOException {
+            throw new IOException(s);
+        }
+    }
+
+    @Test
+    public void checkedExceptionsAreNotWrapped() {
+        IOException e = assertThrows(IOException.class, () -> UsingMultipleDispatch.invokeUnwrapped(new Validator(), "check", 2.0));
+        assertEquals("object", e.getMessage());
+
+        e = assertThrows(IOException.class, () -> UsingMultipleDispatch.invokeStaticUnwrapped(Validator.class, "parse", "text"));
+        assertEquals("text", e.getMessage());
+    }
+
+    @Test
+    public void uncheckedExceptionsAreNotWrapped() {
+        assertThrows(Failure.class, () -> UsingMultipleDispatch.invokeUnwrapped(new Validator(), "check", "text"));
+    }
+
+    @Test
+    public void invokeStillWraps() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> UsingMultipleDispatch.invoke(new Validator(), "check", "text"));
+        assertInstanceOf(InvocationTargetException.class, e.getCause());
+        assertInstanceOf(Failure.class, e.getCause().getCause());
+    }
+
+    @Test
+    public void dispatchFailuresAreWrapped() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> UsingMultipleDispatch.invokeUnwrapped(new Validator(), "validate", 1));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+
+    @Test
+    public void returnValues() {
+        Validator validator = new Validator();
+        assertEquals(3, UsingMultipleDispatch.invokeUnwrapped(validator, "check", 2));
+        assertNull(UsingMultipleDispatch.invokeUnwrapped(validator, "check", 2, 3));
+        assertEquals("variadic 3", UsingMultipleDispatch.invokeUnwrapped(validator, "check", 2, 3, 4));
+    }
+
+    @Test
+    public void simpleDispatch() {
+        Failure failure = new Failure();
+        Failure thrown = assertThrows(Failure.class,
+            () -> ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.invokeUnwrapped(new Thrower(), "fail", failure));
+        assertSame(failure, thrown);
+    }
+
+    public static class Thrower {
+        public void fail(Failure failure) {
+            throw failure;
+        }
+    }
+}
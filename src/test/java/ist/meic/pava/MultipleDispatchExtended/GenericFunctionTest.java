@@ -0,0 +1,33 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GenericFunctionTest {
+    private static final GenericFunction<String> F = GenericFunction.of(BoxingUnboxingTest.Functions.class, "f");
+    private static final GenericFunction<String> G = GenericFunction.of(BoxingUnboxingTest.Functions.class, "g");
+    private static final StaticGenericFunction<Integer> STATIC_F = GenericFunction.ofStatic(StaticMethodTest.Functions.class, "f");
+
+    @Test
+    public void boxingAndVarargs() {
+        BoxingUnboxingTest.Functions functions = new BoxingUnboxingTest.Functions();
+        int a = 1;
+        Integer b = 1;
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("int", F.invoke(functions, a));
+            assertEquals("int", F.invoke(functions, b));
+            assertEquals("varargs boxed", F.invoke(functions, b, a, b));
+            assertEquals("varargs unboxed", G.invoke(functions, b, a, b));
+        }
+    }
+
+    @Test
+    public void staticMethods() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1, STATIC_F.invoke((Object) 5));
+            assertEquals(2, STATIC_F.invoke((Object) "2"));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ist.meic.pava.MultipleDispatch.DispatchEngines;
+import ist.meic.pava.MultipleDispatch.EventBus;
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+import ist.meic.pava.MultipleDispatch.SimpleMethodSpecificityComparator;
+
+/**
+ * The classes below are not public, so the base package (front-end and
+ * engines) has no access to them on its own.
+ */
+public class LookupInvokerTest {
+    static class Shape { }
+    static class Line extends Shape { }
+
+    static class Device {
+        public String draw(Shape s) {
+            return "device shape";
+        }
+
+        public String draw(Line l) {
+            return "device line";
+        }
+
+        public String draw(Line l, int... widths) {
+            return "line " + widths.length;
+        }
+
+        public String fail(Shape s) {
+            throw new IllegalStateException("shape");
+        }
+
+        public static String describe(Shape s) {
+            return "static shape";
+        }
+    }
+
+    public static class Recorder {
+        final List<Object> events = new ArrayList<>();
+
+        public void draw(Object o) {
+            events.add(o);
+        }
+    }
+
+    private static final ist.meic.pava.MultipleDispatch.LookupInvoker BASE =
+        ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.withLookup(MethodHandles.lookup());
+    private static final LookupInvoker EXTENDED = UsingMultipleDispatch.withLookup(MethodHandles.lookup());
+
+    @Test
+    public void frontEndsHaveNoAccess() {
+        // no entry point suppresses access checks
+        assertNoAccess(() -> ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.invoke(new Device(), "draw", new Line()));
+        assertNoAccess(() -> ist.meic.pava.MultipleDispatch.UsingMultipleDispatch.invokeUnwrapped(new Device(), "draw", new Line()));
+    }
+
+    @Test
+    public void callsWithCallerAccess() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals("device shape", BASE.invoke(new Device(), "draw", new Shape()));
+            assertEquals("device line", BASE.invoke(new Device(), "draw", new Line()));
+            assertEquals("line 2", EXTENDED.invoke(new Device(), "draw", new Line(), 1, 2));
+            assertEquals("static shape", EXTENDED.invokeStatic(Device.class, "describe", new Line()));
+        }
+    }
+
+    @Test
+    public void exceptions() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> BASE.invoke(new Device(), "fail", new Line()));
+        assertInstanceOf(InvocationTargetException.class, e.getCause());
+        assertInstanceOf(IllegalStateException.class, e.getCause().getCause());
+
+        assertThrows(IllegalStateException.class, () -> EXTENDED.invokeUnwrapped(new Device(), "fail", new Line()));
+
+        e = assertThrows(RuntimeException.class, () -> BASE.invoke(new Device(), "missing", new Line()));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { DispatchEngines.REFLECTIVE, DispatchEngines.CACHED, DispatchEngines.METHOD_HANDLE, DispatchEngines.GENERATED })
+    public void engines(String engineName) {
+        ist.meic.pava.MultipleDispatch.GenericFunction<String> draw = ist.meic.pava.MultipleDispatch.GenericFunction.of(Device.class, "draw");
+        draw.setEngine(engineName);
+        assertNoAccess(() -> draw.invoke(new Device(), new Line()));
+
+        draw.withLookup(MethodHandles.lookup());
+        assertEquals(engineName, draw.getEngine().getName());
+        for (int i = 0; i < 2; i++) {
+            assertEquals("device shape", draw.invoke(new Device(), new Shape()));
+            assertEquals("device line", draw.invoke(new Device(), new Line()));
+        }
+
+        StaticGenericFunction<String> describe = GenericFunction.<String>ofStatic(Device.class, "describe").withLookup(MethodHandles.lookup());
+        describe.setEngine(engineName);
+        assertEquals("static shape", describe.invoke(new Line()));
+    }
+
+    @Test
+    public void eventBus() {
+        Recorder recorder = new Recorder();
+        List<Throwable> errors = new ArrayList<>();
+        EventBus bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "draw", 16, (e, event) -> errors.add(e));
+        bus.register(new Device());
+        bus.register(recorder);
+
+        // the handlers of Device cannot be bound, but the other events are still delivered
+        bus.publish(new Line());
+        bus.publish("text");
+        bus.publish(new Line());
+        assertEquals(3, bus.drain());
+        assertEquals(2, errors.size());
+        assertInstanceOf(IllegalAccessException.class, errors.get(0).getCause());
+        assertEquals(1, recorder.events.size());
+
+        bus = new EventBus(new MethodSelector(new SimpleMethodSpecificityComparator()), "draw", 16, null);
+        bus.register(new Device());
+        bus.publish(new Shape());
+        RuntimeException e = assertThrows(RuntimeException.class, bus::drain);
+        assertInstanceOf(IllegalAccessException.class, e.getCause().getCause());
+        assertEquals(0, bus.pendingCount());
+
+        bus = new EventBus(MethodHandles.lookup(), new MethodSelector(new SimpleMethodSpecificityComparator()), "draw", 16, null);
+        bus.register(new Device());
+        bus.register(recorder);
+        bus.publish(new Line());
+        bus.publish("text");
+        bus.drain();
+        bus.dispatch(new Shape());
+        assertEquals(4, recorder.events.size());
+    }
+
+    private static void assertNoAccess(Runnable call) {
+        RuntimeException e = assertThrows(RuntimeException.class, call::run);
+        assertInstanceOf(IllegalAccessException.class, e.getCause());
+    }
+}
@@ -0,0 +1,84 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+public class MethodDescriptorTest {
+    public static class Base {
+        public String draw(int width, Object... shapes) {
+            return "base";
+        }
+    }
+
+    public static class Derived extends Base {
+        public String draw(Integer width, String shape) {
+            return "derived";
+        }
+
+        public static String describe(long size) {
+            return "static";
+        }
+    }
+
+    @Test
+    public void descriptorsAreShared() throws NoSuchMethodException {
+        Method method = Base.class.getMethod("draw", int.class, Object[].class);
+
+        assertSame(MethodDescriptor.of(method), MethodDescriptor.of(Base.class.getMethod("draw", int.class, Object[].class)));
+        assertSame(MethodDescriptor.publicMethodsOf(Derived.class), MethodDescriptor.publicMethodsOf(Derived.class));
+        assertTrue(Arrays.stream(MethodDescriptor.publicMethodsOf(Derived.class)).anyMatch(d -> d == MethodDescriptor.of(method)));
+    }
+
+    @Test
+    public void varargsMetadata() throws NoSuchMethodException {
+        MethodDescriptor draw = MethodDescriptor.of(Base.class.getMethod("draw", int.class, Object[].class));
+
+        assertEquals("draw", draw.getName());
+        assertTrue(draw.isVarArgs());
+        assertFalse(draw.isStatic());
+        assertEquals(2, draw.getParameterCount());
+        assertEquals(1, draw.getNormalParameterCount());
+        assertEquals(int.class, draw.getParameterType(0));
+        assertEquals(Integer.class, draw.getBoxedParameterType(0));
+        assertEquals(Object.class, draw.getVarargsComponentType());
+        assertEquals(Object.class, draw.getNormalizedParameterType(1));
+        assertEquals(Object.class, draw.getNormalizedParameterType(5));
+        assertEquals(1, draw.getDeclaringClassDepth());
+    }
+
+    @Test
+    public void regularMetadata() throws NoSuchMethodException {
+        MethodDescriptor describe = MethodDescriptor.of(Derived.class.getMethod("describe", long.class));
+
+        assertTrue(describe.isStatic());
+        assertFalse(describe.isVarArgs());
+        assertNull(describe.getVarargsComponentType());
+        assertEquals(1, describe.getNormalParameterCount());
+        assertEquals(long.class, describe.getNormalizedParameterType(0));
+        assertEquals(Long.class, describe.getBoxedParameterType(0));
+        assertEquals(2, describe.getDeclaringClassDepth());
+    }
+
+    @Test
+    public void selectionIsUnchanged() throws NoSuchMethodException {
+        Method derivedDraw = Derived.class.getMethod("draw", Integer.class, String.class);
+        Method baseDraw = Base.class.getMethod("draw", int.class, Object[].class);
+
+        assertEquals("derived", UsingMultipleDispatch.invoke(new Derived(), "draw", 1, "circle"));
+        assertEquals("base", UsingMultipleDispatch.invoke(new Derived(), "draw", 1, "circle", "line"));
+        assertEquals("static", UsingMultipleDispatch.invokeStatic(Derived.class, "describe", 1L));
+        assertEquals(derivedDraw, UsingMultipleDispatch.findMethod(new Derived(), "draw", 1, "circle"));
+        assertTrue(new UsingMultipleDispatch.ExtendedMethodComparator().compare(derivedDraw, baseDraw).asTotalOrdering() > 0);
+        assertArrayEquals(new Object[] { 1, new Object[] { "a", "b" } },
+            UsingMultipleDispatch.evaluateArguments(baseDraw, new Object[] { 1, "a", "b" }));
+    }
+}
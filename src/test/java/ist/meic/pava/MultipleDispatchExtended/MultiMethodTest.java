@@ -0,0 +1,25 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ist.meic.pava.MultipleDispatchExtended.InterfaceTest.*;
+
+public class MultiMethodTest {
+    @Test
+    public void interfacesAndPrimitives() {
+        ist.meic.pava.MultipleDispatch.MultiMethod<String> describe = new MultiMethod<String>()
+            .register(Shape.class, Color.class, (s, c) -> "shape in some color")
+            .register(Circle.class, Color.class, (s, c) -> "circle in some color")
+            .register(Shape.class, Blue.class, (s, c) -> "shape in blue")
+            .register(int.class, i -> "int " + i)
+            .register(Number.class, n -> "number " + n);
+
+        assertEquals("circle in some color", describe.invoke(new Circle(), new Blue()));
+        assertEquals("shape in blue", describe.invoke(new Line(), new Blue()));
+        assertEquals("shape in some color", describe.invoke(new Line(), new Red()));
+        assertEquals("int 1", describe.invoke(1));
+        assertEquals("number 1.0", describe.invoke(1.0));
+    }
+}
@@ -0,0 +1,182 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+
+public class ProxyTest {
+    static class Node {
+    }
+
+    static class Leaf extends Node {
+    }
+
+    static class Branch extends Node {
+    }
+
+    public interface Visitor {
+        String visit(Node node);
+
+        String visit(Node node, Node other);
+
+        int depth(Node node);
+
+        void check(Node node) throws IOException;
+    }
+
+    public interface Counter {
+        int count(Object... nodes);
+    }
+
+    public interface Scaler {
+        double scale(Node node, long factor, double ratio);
+
+        Object scale(int factor, Node node);
+
+        default String describe(Node node) {
+            return "default";
+        }
+    }
+
+    interface Hidden {
+        String visit(Node node);
+    }
+
+    static class Printer {
+        public String visit(Node node) {
+            return "node";
+        }
+
+        public String visit(Leaf leaf) {
+            return "leaf";
+        }
+
+        public String visit(Leaf leaf, Branch branch) {
+            return "leaf and branch";
+        }
+
+        public String visit(Node node, Node other) {
+            return "nodes";
+        }
+
+        public int depth(Node node) {
+            return 1;
+        }
+
+        public int depth(Branch branch) {
+            return 2;
+        }
+
+        public void check(Node node) throws IOException {
+            throw new IOException("invalid node");
+        }
+
+        public void check(Leaf leaf) {
+        }
+
+        public int count(Object... nodes) {
+            return nodes.length;
+        }
+
+        public double scale(Node node, long factor, double ratio) {
+            return factor * ratio;
+        }
+
+        public double scale(Leaf leaf, long factor, double ratio) {
+            return -factor * ratio;
+        }
+
+        public Object scale(Integer factor, Leaf leaf) {
+            return factor;
+        }
+
+        public String describe(Node node) {
+            return "printer";
+        }
+    }
+
+    @Test
+    public void dispatchOnArgumentTypes() {
+        Visitor visitor = MultipleDispatch.proxy(Visitor.class, new Printer());
+        Node leaf = new Leaf();
+        Node branch = new Branch();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("leaf", visitor.visit(leaf));
+            assertEquals("node", visitor.visit(branch));
+            assertEquals("leaf and branch", visitor.visit(leaf, branch));
+            assertEquals("nodes", visitor.visit(branch, leaf));
+            assertEquals(1, visitor.depth(leaf));
+            assertEquals(2, visitor.depth(branch));
+        }
+    }
+
+    @Test
+    public void generatedClasses() {
+        Visitor visitor = MultipleDispatch.proxy(Visitor.class, new Printer());
+
+        assertFalse(Proxy.isProxyClass(visitor.getClass()));
+        assertSame(visitor.getClass(), MultipleDispatch.proxy(Visitor.class, new Object()).getClass());
+    }
+
+    @Test
+    public void primitives() {
+        Scaler scaler = MultipleDispatch.proxy(Scaler.class, new Printer());
+
+        assertEquals(1.5, scaler.scale(new Branch(), 3L, 0.5));
+        assertEquals(-1.5, scaler.scale(new Leaf(), 3L, 0.5));
+        assertEquals(2, scaler.scale(2, new Leaf()));
+        // default methods keep their bodies
+        assertEquals("default", scaler.describe(new Leaf()));
+    }
+
+    @Test
+    public void exceptionsArePropagated() throws IOException {
+        Visitor visitor = MultipleDispatch.proxy(Visitor.class, new Printer());
+
+        visitor.check(new Leaf());
+        IOException e = assertThrows(IOException.class, () -> visitor.check(new Branch()));
+        assertEquals("invalid node", e.getMessage());
+    }
+
+    @Test
+    public void missingMethods() {
+        Counter counter = MultipleDispatch.proxy(Counter.class, new Object());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> counter.count(new Leaf()));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+
+    @Test
+    public void variadicMethods() {
+        Counter counter = MultipleDispatch.proxy(Counter.class, new Printer());
+
+        assertEquals(0, counter.count());
+        assertEquals(2, counter.count(new Leaf(), new Branch()));
+    }
+
+    @Test
+    public void objectMethods() {
+        Visitor visitor = MultipleDispatch.proxy(Visitor.class, new Printer());
+        Visitor other = MultipleDispatch.proxy(Visitor.class, new Printer());
+
+        assertEquals(visitor, visitor);
+        assertNotEquals(visitor, other);
+        assertEquals(System.identityHashCode(visitor), visitor.hashCode());
+        assertEquals("Visitor dispatching to printer", MultipleDispatch.proxy(Visitor.class, "printer").toString());
+    }
+
+    @Test
+    public void onlyInterfaces() {
+        assertThrows(IllegalArgumentException.class, () -> MultipleDispatch.proxy(Printer.class, new Printer()));
+        assertThrows(IllegalArgumentException.class, () -> MultipleDispatch.proxy(Hidden.class, new Printer()));
+    }
+}
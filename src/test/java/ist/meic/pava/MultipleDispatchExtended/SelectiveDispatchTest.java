@@ -0,0 +1,193 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import ist.meic.pava.MultipleDispatch.DispatchEngines;
+import ist.meic.pava.MultipleDispatch.MethodSelector;
+import ist.meic.pava.MultipleDispatch.TypeProjection;
+
+public class SelectiveDispatchTest {
+    public static class Shape { }
+    public static class Line extends Shape { }
+    public static class Circle extends Shape { }
+
+    public static class Context { }
+    public static class DebugContext extends Context { }
+    public static class TraceContext extends DebugContext { }
+
+    public static class Renderer {
+        public String draw(@Dispatch Shape s, Context c, Object log) {
+            return "shape";
+        }
+
+        public String draw(@Dispatch Line l, Context c, Object log) {
+            return "line";
+        }
+
+        // more specific context, but contexts are not dispatched on
+        @Dispatch(positions = { 0 })
+        public String draw(Circle c, DebugContext context, Object log) {
+            return "circle";
+        }
+
+        public String fill(@Dispatch Shape s, Context... contexts) {
+            return "shape " + contexts.length;
+        }
+
+        public String fill(@Dispatch Line l, Context... contexts) {
+            return "line " + contexts.length;
+        }
+
+        public String plain(Shape s, Context c) {
+            return "plain shape";
+        }
+
+        public String plain(Shape s, DebugContext c) {
+            return "plain debug";
+        }
+    }
+
+    @Test
+    public void dispatchesOnAnnotatedPositions() {
+        assertEquals("shape", UsingMultipleDispatch.invoke(new Renderer(), "draw", new Shape(), new Context(), "log"));
+        assertEquals("line", UsingMultipleDispatch.invoke(new Renderer(), "draw", new Line(), new TraceContext(), 1));
+        assertEquals("circle", UsingMultipleDispatch.invoke(new Renderer(), "draw", new Circle(), new DebugContext(), 1));
+
+        // unannotated methods still dispatch on every argument
+        assertEquals("plain shape", UsingMultipleDispatch.invoke(new Renderer(), "plain", new Line(), new Context()));
+        assertEquals("plain debug", UsingMultipleDispatch.invoke(new Renderer(), "plain", new Line(), new TraceContext()));
+    }
+
+    @Test
+    public void undispatchedArgumentsMustApply() {
+        // the circle method does not apply to a plain context
+        assertEquals("shape", UsingMultipleDispatch.invoke(new Renderer(), "draw", new Circle(), new Context(), 1));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> UsingMultipleDispatch.invokeUnwrapped(new Renderer(), "draw", new Line(), "context", 1));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+
+        GenericFunction<String> draw = GenericFunction.of(Renderer.class, "draw");
+        draw.setEngine(DispatchEngines.GENERATED);
+        assertEquals("line", draw.invoke(new Renderer(), new Line(), new DebugContext(), 1));
+        assertEquals("shape", draw.invoke(new Renderer(), new Circle(), new Context(), 1));
+        e = assertThrows(RuntimeException.class, () -> draw.invoke(new Renderer(), new Line(), "context", 1));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+    }
+
+    public static class Writer {
+        public String write(@Dispatch Shape s, StringBuilder out) {
+            return "builder";
+        }
+
+        public String write(@Dispatch Shape s, Integer out) {
+            return "integer";
+        }
+    }
+
+    @Test
+    public void overloadsDifferingInUndispatchedParameters() {
+        assertEquals("integer", UsingMultipleDispatch.invoke(new Writer(), "write", new Line(), 3));
+        assertEquals("builder", UsingMultipleDispatch.invoke(new Writer(), "write", new Circle(), new StringBuilder()));
+        assertEquals("integer", UsingMultipleDispatch.invoke(new Writer(), "write", new Shape(), 4));
+    }
+
+    public static class ObjectFirst {
+        public String write(@Dispatch Shape s, Object out) {
+            return "object";
+        }
+
+        public String write(@Dispatch Shape s, String out) {
+            return "string";
+        }
+    }
+
+    public static class StringFirst {
+        public String write(@Dispatch Shape s, String out) {
+            return "string";
+        }
+
+        public String write(@Dispatch Shape s, Object out) {
+            return "object";
+        }
+    }
+
+    @Test
+    public void selectionDoesNotDependOnDeclarationOrder() {
+        // incomparable, so the greater string representation wins
+        assertEquals("string", UsingMultipleDispatch.invoke(new ObjectFirst(), "write", new Line(), "s"));
+        assertEquals("string", UsingMultipleDispatch.invoke(new StringFirst(), "write", new Line(), "s"));
+        assertEquals("object", UsingMultipleDispatch.invoke(new ObjectFirst(), "write", new Line(), 1));
+        assertEquals("object", UsingMultipleDispatch.invoke(new StringFirst(), "write", new Line(), 1));
+    }
+
+    @Test
+    public void varargs() {
+        assertEquals("line 2", UsingMultipleDispatch.invoke(new Renderer(), "fill", new Line(), new Context(), new TraceContext()));
+        assertEquals("shape 0", UsingMultipleDispatch.invoke(new Renderer(), "fill", new Circle()));
+        assertEquals("line 1", UsingMultipleDispatch.invoke(new Renderer(), "fill", new Line(), new Context[] { new Context() }));
+        assertThrows(RuntimeException.class, () -> UsingMultipleDispatch.invoke(new Renderer(), "fill", new Line(), new Context(), "context"));
+    }
+
+    @Test
+    public void undispatchedPositionsAreProjectedByParameterTypes() {
+        MethodSelector selector = new MethodSelector(new UsingMultipleDispatch.ExtendedMethodComparator(),
+            new UsingMultipleDispatch.NonStaticExtendedCandidateMethodFinder());
+
+        TypeProjection projection = selector.projectionFor(Renderer.class, "draw", 3);
+        assertSame(projection.project(1, DebugContext.class), projection.project(1, TraceContext.class));
+        assertNotEquals(projection.project(1, Context.class), projection.project(1, DebugContext.class));
+        for (Class<?> type : Arrays.asList(Context.class, String.class, Integer.class)) {
+            assertSame(projection.project(2, Object.class), projection.project(2, type));
+        }
+        assertNotEquals(projection.project(0, Circle.class), projection.project(0, Line.class));
+
+        projection = selector.projectionFor(Renderer.class, "plain", 2);
+        assertNotEquals(projection.project(1, Context.class), projection.project(1, DebugContext.class));
+    }
+
+    @Test
+    public void tables() throws NoSuchMethodException {
+        CompressedDispatchTable compressed = CompressedDispatchTable.forMethods(Renderer.class, "draw", 3);
+        assertEquals(Renderer.class.getMethod("draw", Line.class, Context.class, Object.class),
+            compressed.resolve(new Object[] { new Line(), new TraceContext(), 1 }));
+
+        ClosedWorldDispatchTable closedWorld = ClosedWorldDispatchTable.forMethods(Arrays.asList(Renderer.class), "draw",
+            Arrays.asList(Line.class, Circle.class, Context.class, DebugContext.class), 3);
+        assertFalse(closedWorld.getUncoveredTuples().isEmpty());
+        assertTrue(closedWorld.getAmbiguousTuples().isEmpty());
+        assertEquals("circle", closedWorld.invoke(new Renderer(), new Circle(), new DebugContext(), new Line()));
+    }
+
+    public static class Invalid {
+        @Dispatch(positions = { 1 })
+        public String draw(Shape s) {
+            return "invalid";
+        }
+
+        public String fill(@Dispatch Shape s, Context c) {
+            return "valid";
+        }
+    }
+
+    @Test
+    public void invalidPositions() {
+        for (int i = 0; i < 2; i++) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> UsingMultipleDispatch.invoke(new Invalid(), "draw", new Shape()));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+
+        // only the method with the invalid annotation fails
+        assertEquals("valid", UsingMultipleDispatch.invoke(new Invalid(), "fill", new Line(), new Context()));
+    }
+}
@@ -0,0 +1,36 @@
+package ist.meic.pava.MultipleDispatchExtended;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Optional;
+
+public class TryInvokeTest {
+    @Test
+    public void probeApplicability() {
+        InterfaceTest.Device screen = new InterfaceTest.Screen();
+
+        for (int i = 0; i < 2; i++) {
+            // the second round is answered from the (negative) cache
+            assertEquals(Optional.of("drawing a circle on screen in blue"),
+                UsingMultipleDispatch.tryInvoke(screen, "draw", new InterfaceTest.Circle(), new InterfaceTest.Blue()));
+            assertEquals(Optional.empty(), UsingMultipleDispatch.tryInvoke(screen, "draw", new InterfaceTest.Circle()));
+            assertNull(UsingMultipleDispatch.findMethod(screen, "draw", "not a shape", new InterfaceTest.Blue()));
+            assertNull(UsingMultipleDispatch.findMethod(screen, "paint", new InterfaceTest.Circle(), new InterfaceTest.Blue()));
+        }
+
+        assertThrows(RuntimeException.class, () -> UsingMultipleDispatch.invoke(screen, "draw", new InterfaceTest.Circle()));
+    }
+
+    @Test
+    public void probeStaticApplicability() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Optional.of(2), UsingMultipleDispatch.tryInvokeStatic(StaticMethodTest.Functions.class, "f", "2"));
+            assertFalse(UsingMultipleDispatch.tryInvokeStatic(StaticMethodTest.Functions.class, "f", 2.0).isPresent());
+        }
+    }
+}